@@ -4,12 +4,17 @@ package ir;
  * Function call expression.
  *
  * Represents function application with arguments.
+ * Analysis also links the call to its target, the index of the called
+ * function among the functions of the program, so a backend can
+ * dispatch through an array instead of looking the name up.
  *
  * Example usage:
  * <pre>
  * Call call = (Call) expr;
  * String name = call.name();
  * Iterable<Expression> args = call.arguments();
+ * Function callee = functions[call.target()];
+ * Expression first = call.argument(0);
  * </pre>
  */
 public interface Call extends Expression {
@@ -30,4 +35,47 @@ public interface Call extends Expression {
      * @return Argument list, never null, may be empty
      */
     Iterable<Expression> arguments();
+
+    /**
+     * Returns the index of the called function.
+     *
+     * @return Position of the function in Program.functions(); negative
+     *  if unresolved
+     */
+    default int target() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of arguments.
+     *
+     * @return Argument count, zero for zero-argument calls
+     */
+    default int argumentCount() {
+        int result = 0;
+        for (final Expression ignored : this.arguments()) {
+            result = result + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns one argument.
+     *
+     * @param index Position of the argument, from zero
+     * @return Argument expression, never null
+     * @throws IndexOutOfBoundsException if there is no argument at index
+     */
+    default Expression argument(final int index) {
+        int position = 0;
+        for (final Expression arg : this.arguments()) {
+            if (position == index) {
+                return arg;
+            }
+            position = position + 1;
+        }
+        throw new IndexOutOfBoundsException(
+            String.format("Argument %d of %d", index, position)
+        );
+    }
 }
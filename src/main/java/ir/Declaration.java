@@ -4,12 +4,15 @@ package ir;
  * Variable declaration statement.
  *
  * Represents As declaration binding variable name to expression.
+ * Globals are numbered in declaration order, and the number is the
+ * slot that references to the variable resolve to.
  *
  * Example usage:
  * <pre>
  * Declaration decl = (Declaration) stmt;
  * String name = decl.name();
  * Expression expr = decl.expression();
+ * globals[decl.slot()] = value;
  * </pre>
  */
 public interface Declaration extends Statement {
@@ -27,4 +30,13 @@ public interface Declaration extends Statement {
      * @return Expression bound to variable, never null
      */
     Expression expression();
+
+    /**
+     * Returns the slot of the variable among the globals.
+     *
+     * @return Number of declarations before this one; negative if unresolved
+     */
+    default int slot() {
+        return -1;
+    }
 }
@@ -0,0 +1,36 @@
+package ir;
+
+/**
+ * Storage a variable reference resolves to.
+ *
+ * A Rome77 name is either a global declared with As, living in one
+ * frame for the whole program, or a parameter of the function whose
+ * body refers to it, living in the frame of the current call. Each
+ * frame is an array, and the slot of a variable is its index there:
+ * the position of the declaration among all declarations for a global,
+ * the position among the function's parameters for a parameter.
+ *
+ * Example usage:
+ * <pre>
+ * if (variable.frame() == Frame.PARAMETER) {
+ *     value = arguments[variable.slot()];
+ * }
+ * </pre>
+ */
+public enum Frame {
+
+    /**
+     * Not resolved; IR built without analysis.
+     */
+    UNRESOLVED,
+
+    /**
+     * Global variable declared at the top level.
+     */
+    GLOBAL,
+
+    /**
+     * Parameter of the enclosing function.
+     */
+    PARAMETER
+}
@@ -3,12 +3,15 @@ package ir;
 /**
  * Integer literal expression.
  *
- * Represents a Roman numeral constant in IR form.
+ * Represents a Roman numeral constant in IR form. A run of M digits
+ * can be as long as the source, so the value may not fit in an int;
+ * number() gives it whatever its size.
  *
  * Example usage:
  * <pre>
  * Literal five = (Literal) expr;
  * int value = five.value();
+ * Value exact = five.number();
  * </pre>
  */
 public interface Literal extends Expression {
@@ -20,6 +23,16 @@ public interface Literal extends Expression {
      * I=1, V=5, X=10, XIV=14, N=0, etc.
      *
      * @return Integer value of this literal
+     * @throws ArithmeticException if the value does not fit in an int
      */
     int value();
+
+    /**
+     * Returns the value whatever its size.
+     *
+     * @return Value of this literal
+     */
+    default Value number() {
+        return Value.of(this.value());
+    }
 }
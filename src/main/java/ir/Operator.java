@@ -3,18 +3,92 @@ package ir;
 /**
  * Arithmetic operator for IR operations.
  *
- * Represents operators used in binary and unary operations.
+ * Represents operators used in binary and unary operations, and applies
+ * them. Values are worked on in two ways: exactly on longs, failing on
+ * overflow the way the Math.*Exact methods do, for callers that keep
+ * numbers unboxed; and on Values, which move to BigInteger when a long
+ * overflows. Results on Values stay on longs until one overflows, and
+ * small ones are shared rather than allocated. Division truncates
+ * toward zero. As unary operators, ADD keeps its operand and SUB
+ * negates it.
  *
  * Example usage:
  * <pre>
  * if (op.operator() == Operator.ADD) {
  *     // Handle addition
  * }
+ * long sum = Operator.ADD.exact(2, 3);
+ * Value product = Operator.MUL.applied(Value.of(Long.MAX_VALUE), Value.of(2));
  * </pre>
  */
 public enum Operator {
     ADD,
     SUB,
     MUL,
-    DIV
+    DIV;
+
+    /**
+     * Applies the operator to longs.
+     *
+     * @param left Left operand
+     * @param right Right operand
+     * @return Exact result
+     * @throws ArithmeticException if the result overflows a long or the divisor is zero
+     */
+    public long exact(final long left, final long right) {
+        final long result;
+        if (this == Operator.ADD) {
+            result = Math.addExact(left, right);
+        } else if (this == Operator.SUB) {
+            result = Math.subtractExact(left, right);
+        } else if (this == Operator.MUL) {
+            result = Math.multiplyExact(left, right);
+        } else {
+            result = Math.divideExact(left, right);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the operator to values of any size.
+     *
+     * @param left Left operand
+     * @param right Right operand
+     * @return Result, shared if small
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public Value applied(final Value left, final Value right) {
+        final Value result;
+        if (this == Operator.ADD) {
+            result = left.plus(right);
+        } else if (this == Operator.SUB) {
+            result = left.minus(right);
+        } else if (this == Operator.MUL) {
+            result = left.times(right);
+        } else {
+            result = left.over(right);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the operator as a unary sign.
+     *
+     * @param operand Operand
+     * @return Operand for ADD, its negation for SUB
+     * @throws IllegalArgumentException for MUL and DIV, which have no unary form
+     */
+    public Value applied(final Value operand) {
+        final Value result;
+        if (this == Operator.ADD) {
+            result = operand;
+        } else if (this == Operator.SUB) {
+            result = operand.negated();
+        } else {
+            throw new IllegalArgumentException(
+                String.format("%s has no unary form", this)
+            );
+        }
+        return result;
+    }
 }
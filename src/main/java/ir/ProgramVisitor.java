@@ -0,0 +1,39 @@
+package ir;
+
+/**
+ * Callback receiving the parts of a program one by one.
+ *
+ * Lets a consumer handle a program while it is still being read:
+ * every function and main statement arrives as soon as it is built,
+ * without a Program holding them all.
+ *
+ * Example usage:
+ * <pre>
+ * stream.accept(
+ *     new ProgramVisitor() {
+ *         public void function(Function function) { ... }
+ *         public void statement(Statement statement) { ... }
+ *     }
+ * );
+ * </pre>
+ */
+public interface ProgramVisitor {
+
+    /**
+     * Receives one function definition.
+     *
+     * Called in source order, interleaved with statement().
+     *
+     * @param function Function definition, never null
+     */
+    void function(Function function);
+
+    /**
+     * Receives one main body statement.
+     *
+     * Called in source order, interleaved with function().
+     *
+     * @param statement Declaration or output statement, never null
+     */
+    void statement(Statement statement);
+}
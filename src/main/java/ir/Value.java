@@ -0,0 +1,285 @@
+package ir;
+
+import java.math.BigInteger;
+
+/**
+ * Integer value of any size.
+ *
+ * This final class holds a number in a long while it fits, and in a
+ * BigInteger only once it does not. Arithmetic first works on the
+ * longs and checks for overflow the way the Math.*Exact methods do;
+ * only a result that overflows is computed again on BigIntegers, so
+ * values that stay small never allocate one. Results that fit in a
+ * long again drop back to it. Division truncates toward zero.
+ *
+ * Values from -1024 to 1023 are shared: of() and the arithmetic hand
+ * them out from a table instead of allocating, so loops and recursion
+ * over small numbers create no objects at all.
+ *
+ * Example usage:
+ * <pre>
+ * Value big = Value.of(Long.MAX_VALUE).plus(Value.of(1));
+ * BigInteger exact = big.bigValue();
+ * </pre>
+ */
+public final class Value implements Comparable<Value> {
+
+    /**
+     * Smallest long, the one long that negating overflows.
+     */
+    private static final long LEAST = Long.MIN_VALUE;
+
+    /**
+     * Smallest shared value; the table holds twice as many values.
+     */
+    private static final int LOWEST = -1024;
+
+    private static final Value[] SHARED = new Value[-Value.LOWEST * 2];
+
+    static {
+        for (int idx = 0; idx < Value.SHARED.length; idx = idx + 1) {
+            Value.SHARED[idx] = new Value(idx + Value.LOWEST);
+        }
+    }
+
+    private final long small;
+
+    private final BigInteger big;
+
+    /**
+     * Primary constructor.
+     *
+     * @param number Value that fits in a long
+     */
+    public Value(final long number) {
+        this.small = number;
+        this.big = null;
+    }
+
+    /**
+     * Secondary constructor keeping a long when the number fits in one.
+     *
+     * @param number Value of any size
+     */
+    public Value(final BigInteger number) {
+        if (number.bitLength() < Long.SIZE) {
+            this.small = number.longValue();
+            this.big = null;
+        } else {
+            this.small = 0;
+            this.big = number;
+        }
+    }
+
+    /**
+     * Returns the value of a long, shared when it is small.
+     *
+     * @param number Value that fits in a long
+     * @return Shared value from -1024 to 1023, a new one otherwise
+     */
+    public static Value of(final long number) {
+        final Value result;
+        if (number >= Value.LOWEST && number < -Value.LOWEST) {
+            result = Value.SHARED[(int) number - Value.LOWEST];
+        } else {
+            result = new Value(number);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param other Value to add
+     * @return Sum
+     */
+    public Value plus(final Value other) {
+        Value result = null;
+        if (this.big == null && other.big == null) {
+            final long sum = this.small + other.small;
+            if (((this.small ^ sum) & (other.small ^ sum)) >= 0) {
+                result = Value.of(sum);
+            }
+        }
+        if (result == null) {
+            result = new Value(this.bigValue().add(other.bigValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Subtracts a value.
+     *
+     * @param other Value to subtract
+     * @return Difference
+     */
+    public Value minus(final Value other) {
+        Value result = null;
+        if (this.big == null && other.big == null) {
+            final long difference = this.small - other.small;
+            if (((this.small ^ other.small) & (this.small ^ difference)) >= 0) {
+                result = Value.of(difference);
+            }
+        }
+        if (result == null) {
+            result = new Value(this.bigValue().subtract(other.bigValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies by a value.
+     *
+     * @param other Value to multiply by
+     * @return Product
+     */
+    public Value times(final Value other) {
+        Value result = null;
+        if (this.big == null && other.big == null) {
+            final long high = Math.multiplyHigh(this.small, other.small);
+            final long low = this.small * other.small;
+            if (high == low >> (Long.SIZE - 1)) {
+                result = Value.of(low);
+            }
+        }
+        if (result == null) {
+            result = new Value(this.bigValue().multiply(other.bigValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Divides by a value, truncating toward zero.
+     *
+     * @param other Value to divide by
+     * @return Quotient
+     * @throws ArithmeticException if the divisor is zero
+     */
+    public Value over(final Value other) {
+        final Value result;
+        if (this.big == null && other.big == null
+            && !(this.small == Value.LEAST && other.small == -1)) {
+            result = Value.of(this.small / other.small);
+        } else {
+            result = new Value(this.bigValue().divide(other.bigValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Negates the value.
+     *
+     * @return Value with the opposite sign
+     */
+    public Value negated() {
+        final Value result;
+        if (this.big == null && this.small != Value.LEAST) {
+            result = Value.of(-this.small);
+        } else {
+            result = new Value(this.bigValue().negate());
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the value fits in an int.
+     *
+     * @return True if intValue() would not throw
+     */
+    public boolean fitsInt() {
+        return this.big == null && (int) this.small == this.small;
+    }
+
+    /**
+     * Returns the value as an int.
+     *
+     * @return Value
+     * @throws ArithmeticException if it does not fit in an int
+     */
+    public int intValue() {
+        if (!this.fitsInt()) {
+            throw new ArithmeticException(String.format("Value %s does not fit in an int", this));
+        }
+        return (int) this.small;
+    }
+
+    /**
+     * Returns the value as a long.
+     *
+     * @return Value
+     * @throws ArithmeticException if it does not fit in a long
+     */
+    public long longValue() {
+        if (this.big != null) {
+            throw new ArithmeticException(String.format("Value %s does not fit in a long", this));
+        }
+        return this.small;
+    }
+
+    /**
+     * Returns the value as a BigInteger.
+     *
+     * @return Value
+     */
+    public BigInteger bigValue() {
+        BigInteger result = this.big;
+        if (result == null) {
+            result = BigInteger.valueOf(this.small);
+        }
+        return result;
+    }
+
+    @Override
+    public int compareTo(final Value other) {
+        final int result;
+        if (this.big == null && other.big == null) {
+            result = Long.compare(this.small, other.small);
+        } else {
+            result = this.bigValue().compareTo(other.bigValue());
+        }
+        return result;
+    }
+
+    /**
+     * Checks equality based on the number held.
+     *
+     * @param other Object to compare
+     * @return True if other is a Value with the same number
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Value && this.compareTo((Value) other) == 0;
+    }
+
+    /**
+     * Returns hash code based on the number held.
+     *
+     * @return Hash code
+     */
+    @Override
+    public int hashCode() {
+        final int result;
+        if (this.big == null) {
+            result = Long.hashCode(this.small);
+        } else {
+            result = this.big.hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number in decimal.
+     *
+     * @return Decimal digits, with a leading minus if negative
+     */
+    @Override
+    public String toString() {
+        final String result;
+        if (this.big == null) {
+            result = Long.toString(this.small);
+        } else {
+            result = this.big.toString();
+        }
+        return result;
+    }
+}
@@ -4,11 +4,15 @@ package ir;
  * Variable reference expression.
  *
  * Represents a reference to a variable or function parameter.
+ * Analysis also resolves the reference to a frame and a slot in it,
+ * so evaluation can load it from an array instead of looking the
+ * name up.
  *
  * Example usage:
  * <pre>
  * Variable var = (Variable) expr;
  * String name = var.name();
+ * int slot = var.slot();
  * </pre>
  */
 public interface Variable extends Expression {
@@ -19,4 +23,22 @@ public interface Variable extends Expression {
      * @return Variable identifier, never null or empty
      */
     String name();
+
+    /**
+     * Returns the frame the variable lives in.
+     *
+     * @return GLOBAL or PARAMETER, UNRESOLVED if built without analysis
+     */
+    default Frame frame() {
+        return Frame.UNRESOLVED;
+    }
+
+    /**
+     * Returns the index of the variable in its frame.
+     *
+     * @return Slot, dense from zero; negative if unresolved
+     */
+    default int slot() {
+        return -1;
+    }
 }
@@ -0,0 +1,441 @@
+package ir.analysis;
+
+import ir.BinaryOp;
+import ir.Call;
+import ir.Conditional;
+import ir.Declaration;
+import ir.Expression;
+import ir.Function;
+import ir.Input;
+import ir.Literal;
+import ir.Output;
+import ir.Program;
+import ir.Statement;
+import ir.UnaryOp;
+import ir.Variable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Call graph of a program with its strongly connected components.
+ *
+ * This final class numbers the functions in the order of
+ * Program.functions(), which is the order of their call targets, and
+ * gives the main statements the next number, main(). Every caller has
+ * a row of distinct callees, packed with all other rows into one array
+ * as compressed sparse rows, and every edge the number of call sites
+ * behind it. A call is followed by its target when it has one and by
+ * its name otherwise; calls of no function of the program are left out.
+ *
+ * Calls are collected and components found by Tarjan's algorithm with
+ * explicit stacks, so neither deep expressions nor deep call chains can
+ * overflow the thread stack. They are
+ * numbered in the order they complete, so a component never calls one
+ * with a higher number: callees come first. Everything is computed at
+ * construction, and every query is an array access.
+ *
+ * Example usage:
+ * <pre>
+ * CallGraph graph = new CallGraph(program);
+ * int fib = graph.index("fib");
+ * Recursion kind = graph.recursion(fib);
+ * int sites = graph.calls(fib);
+ * </pre>
+ */
+public final class CallGraph {
+
+    private final Map<String, Integer> indices;
+
+    private final int functions;
+
+    /**
+     * Start of the row of every caller in callees, followed by the end
+     * of the last row.
+     */
+    private final int[] offsets;
+
+    private final int[] callees;
+
+    /**
+     * Call sites behind every edge, parallel to callees.
+     */
+    private final int[] weights;
+
+    /**
+     * Call sites of every function, over all callers.
+     */
+    private final int[] sites;
+
+    private final int[] components;
+
+    private final Recursion[] kinds;
+
+    private final int count;
+
+    /**
+     * Primary constructor.
+     *
+     * @param program Program to analyze
+     */
+    public CallGraph(final Program program) {
+        this.indices = new HashMap<>();
+        int size = 0;
+        for (final Function function : program.functions()) {
+            this.indices.putIfAbsent(function.name(), size);
+            size = size + 1;
+        }
+        this.functions = size;
+        final Rows rows = new Rows(size);
+        for (final Function function : program.functions()) {
+            this.called(rows, function.body());
+            rows.closed();
+        }
+        for (final Statement statement : program.statements()) {
+            if (statement instanceof Declaration) {
+                this.called(rows, ((Declaration) statement).expression());
+            } else if (statement instanceof Output) {
+                this.called(rows, ((Output) statement).expression());
+            }
+        }
+        rows.closed();
+        this.offsets = Arrays.copyOf(rows.offsets, size + 2);
+        this.callees = Arrays.copyOf(rows.targets, rows.edges);
+        this.weights = Arrays.copyOf(rows.weights, rows.edges);
+        this.sites = new int[size];
+        for (int edge = 0; edge < rows.edges; edge = edge + 1) {
+            this.sites[this.callees[edge]] = this.sites[this.callees[edge]] + this.weights[edge];
+        }
+        this.components = new int[size];
+        this.count = this.tarjan(size);
+        this.kinds = this.classified(size);
+    }
+
+    /**
+     * Returns the number of functions.
+     *
+     * @return Functions of the program, each its own node
+     */
+    public int size() {
+        return this.functions;
+    }
+
+    /**
+     * Returns the node of the main statements.
+     *
+     * @return Caller standing for the main statements, size()
+     */
+    public int main() {
+        return this.functions;
+    }
+
+    /**
+     * Returns the node of a function.
+     *
+     * @param name Function name
+     * @return Index among the functions, negative if there is none by that name
+     */
+    public int index(final String name) {
+        return this.indices.getOrDefault(name, -1);
+    }
+
+    /**
+     * Returns the node a call goes to.
+     *
+     * @param call Call in the program
+     * @return Its target if set, otherwise the function by its name;
+     *  negative if the program has no such function
+     */
+    public int target(final Call call) {
+        int result = call.target();
+        if (result < 0 || result >= this.functions) {
+            result = this.index(call.name());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of distinct functions a caller calls.
+     *
+     * @param caller Function index, or main()
+     * @return Edges leaving the caller
+     */
+    public int callees(final int caller) {
+        return this.offsets[caller + 1] - this.offsets[caller];
+    }
+
+    /**
+     * Returns one function a caller calls.
+     *
+     * @param caller Function index, or main()
+     * @param edge Edge of the caller, from zero to callees(caller)
+     * @return Index of the called function
+     */
+    public int callee(final int caller, final int edge) {
+        return this.callees[this.offsets[caller] + edge];
+    }
+
+    /**
+     * Returns the number of call sites behind one edge.
+     *
+     * @param caller Function index, or main()
+     * @param edge Edge of the caller, from zero to callees(caller)
+     * @return Calls of callee(caller, edge) in the caller, at least one
+     */
+    public int sites(final int caller, final int edge) {
+        return this.weights[this.offsets[caller] + edge];
+    }
+
+    /**
+     * Returns the number of call sites of a function.
+     *
+     * @param function Function index
+     * @return Calls of the function in all functions and main statements
+     */
+    public int calls(final int function) {
+        return this.sites[function];
+    }
+
+    /**
+     * Returns the strongly connected component of a function.
+     *
+     * @param function Function index
+     * @return Component number; callees have lower numbers than callers
+     */
+    public int component(final int function) {
+        return this.components[function];
+    }
+
+    /**
+     * Returns the number of strongly connected components.
+     *
+     * @return Components over all functions
+     */
+    public int components() {
+        return this.count;
+    }
+
+    /**
+     * Returns how a function takes part in recursion.
+     *
+     * @param function Function index
+     * @return NONE, SELF or MUTUAL
+     */
+    public Recursion recursion(final int function) {
+        return this.kinds[function];
+    }
+
+    /**
+     * Adds the calls in an expression to the current row.
+     *
+     * Subexpressions wait on an explicit stack, pushed last first, so
+     * calls are added in source order and deep expressions cannot
+     * overflow the thread stack.
+     *
+     * @param rows Rows being built
+     * @param root Expression to walk
+     */
+    private void called(final Rows rows, final Expression root) {
+        final Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Expression expression = pending.pop();
+            if (expression instanceof Call) {
+                final Call call = (Call) expression;
+                final int target = this.target(call);
+                if (target >= 0) {
+                    rows.add(target);
+                }
+                for (int idx = call.argumentCount() - 1; idx >= 0; idx = idx - 1) {
+                    pending.push(call.argument(idx));
+                }
+            } else if (expression instanceof UnaryOp) {
+                pending.push(((UnaryOp) expression).operand());
+            } else if (expression instanceof BinaryOp) {
+                final BinaryOp binary = (BinaryOp) expression;
+                pending.push(binary.right());
+                pending.push(binary.left());
+            } else if (expression instanceof Conditional) {
+                final Conditional conditional = (Conditional) expression;
+                pending.push(conditional.elseBranch());
+                pending.push(conditional.thenBranch());
+                pending.push(conditional.condition());
+            } else if (!(expression instanceof Literal
+                || expression instanceof Variable
+                || expression instanceof Input)) {
+                throw new IllegalArgumentException(
+                    String.format("Unknown expression: %s", expression.getClass().getName())
+                );
+            }
+        }
+    }
+
+    /**
+     * Numbers the strongly connected components.
+     *
+     * @param size Number of functions
+     * @return Number of components
+     */
+    private int tarjan(final int size) {
+        final int[] order = new int[size];
+        Arrays.fill(order, -1);
+        final int[] low = new int[size];
+        final boolean[] open = new boolean[size];
+        final int[] stack = new int[size];
+        final int[] frames = new int[size];
+        final int[] edges = new int[size];
+        int visited = 0;
+        int top = 0;
+        int depth = 0;
+        int result = 0;
+        for (int root = 0; root < size; root = root + 1) {
+            int next = -1;
+            if (order[root] < 0) {
+                next = root;
+            }
+            while (next >= 0 || depth > 0) {
+                if (next >= 0) {
+                    order[next] = visited;
+                    low[next] = visited;
+                    visited = visited + 1;
+                    stack[top] = next;
+                    top = top + 1;
+                    open[next] = true;
+                    frames[depth] = next;
+                    edges[depth] = this.offsets[next];
+                    depth = depth + 1;
+                    next = -1;
+                }
+                final int node = frames[depth - 1];
+                final int edge = edges[depth - 1];
+                if (edge < this.offsets[node + 1]) {
+                    edges[depth - 1] = edge + 1;
+                    final int callee = this.callees[edge];
+                    if (order[callee] < 0) {
+                        next = callee;
+                    } else if (open[callee]) {
+                        low[node] = Math.min(low[node], order[callee]);
+                    }
+                } else {
+                    depth = depth - 1;
+                    if (low[node] == order[node]) {
+                        int member = -1;
+                        while (member != node) {
+                            top = top - 1;
+                            member = stack[top];
+                            open[member] = false;
+                            this.components[member] = result;
+                        }
+                        result = result + 1;
+                    }
+                    if (depth > 0) {
+                        final int parent = frames[depth - 1];
+                        low[parent] = Math.min(low[parent], low[node]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Classifies every function by its component.
+     *
+     * @param size Number of functions
+     * @return Recursion of every function
+     */
+    private Recursion[] classified(final int size) {
+        final int[] members = new int[this.count];
+        for (int function = 0; function < size; function = function + 1) {
+            members[this.components[function]] = members[this.components[function]] + 1;
+        }
+        final Recursion[] result = new Recursion[size];
+        for (int function = 0; function < size; function = function + 1) {
+            if (members[this.components[function]] > 1) {
+                result[function] = Recursion.MUTUAL;
+            } else {
+                result[function] = Recursion.NONE;
+                int edge = this.offsets[function];
+                while (edge < this.offsets[function + 1]) {
+                    if (this.callees[edge] == function) {
+                        result[function] = Recursion.SELF;
+                    }
+                    edge = edge + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rows of callees while they are being built.
+     *
+     * A row is open until closed(); a callee already in the open row
+     * only adds a call site to its edge.
+     */
+    private static final class Rows {
+
+        private final int[] offsets;
+
+        private int[] targets;
+
+        private int[] weights;
+
+        /**
+         * Edge of every callee in the open row, valid if at or past
+         * the start of the row.
+         */
+        private final int[] positions;
+
+        private int rows;
+
+        private int edges;
+
+        /**
+         * Primary constructor.
+         *
+         * @param functions Number of functions
+         */
+        Rows(final int functions) {
+            this.offsets = new int[functions + 2];
+            this.targets = new int[Math.max(16, functions)];
+            this.weights = new int[this.targets.length];
+            this.positions = new int[functions];
+            Arrays.fill(this.positions, -1);
+            this.rows = 0;
+            this.edges = 0;
+        }
+
+        /**
+         * Adds a call site to the open row.
+         *
+         * @param target Called function
+         */
+        void add(final int target) {
+            final int start = this.offsets[this.rows];
+            final int known = this.positions[target];
+            if (known >= start) {
+                this.weights[known] = this.weights[known] + 1;
+            } else {
+                if (this.edges == this.targets.length) {
+                    this.targets = Arrays.copyOf(this.targets, this.edges * 2);
+                    this.weights = Arrays.copyOf(this.weights, this.edges * 2);
+                }
+                this.targets[this.edges] = target;
+                this.weights[this.edges] = 1;
+                this.positions[target] = this.edges;
+                this.edges = this.edges + 1;
+            }
+        }
+
+        /**
+         * Closes the open row and opens the next.
+         */
+        void closed() {
+            this.rows = this.rows + 1;
+            this.offsets[this.rows] = this.edges;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ir.analysis;
+
+/**
+ * Side effect an expression or function may have.
+ *
+ * Reading input with Anagnosi is the only side effect a Rome77
+ * expression can have; output happens only in Grafo statements.
+ * Pure code may be memoized, reordered, evaluated in parallel or folded
+ * to a constant; code that reads input may not.
+ *
+ * Example usage:
+ * <pre>
+ * if (effects.effect(expression) == Effect.PURE) {
+ *     ...
+ * }
+ * </pre>
+ */
+public enum Effect {
+
+    /**
+     * Neither reads input nor calls anything that does.
+     */
+    PURE,
+
+    /**
+     * Reads input, itself or through a call.
+     */
+    INPUT
+}
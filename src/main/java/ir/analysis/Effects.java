@@ -0,0 +1,284 @@
+package ir.analysis;
+
+import ir.BinaryOp;
+import ir.Call;
+import ir.Conditional;
+import ir.Declaration;
+import ir.Expression;
+import ir.Function;
+import ir.Input;
+import ir.Literal;
+import ir.Output;
+import ir.Program;
+import ir.Statement;
+import ir.UnaryOp;
+import ir.Variable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Effects of the functions and expressions of a program.
+ *
+ * This final class tells which code may read input. A function reads
+ * input if its body does or if it calls a function that does, which
+ * is a fixpoint over the call graph. The components of the graph are
+ * numbered callees first, so one pass over them in order reaches it:
+ * the functions of a component reach one another, so they share one
+ * effect, found from their own bodies and the components below them.
+ *
+ * Every expression node of the program is then tagged, keyed by
+ * identity, since equal subexpressions in different places are still
+ * different nodes. An expression the program does not hold, such as
+ * one decoded again from a binary image, is worked out from its
+ * subexpressions and the effects of the functions on every query.
+ *
+ * Example usage:
+ * <pre>
+ * Effects effects = new Effects(program, graph);
+ * boolean memoizable = effects.effect(graph.index("fib")) == Effect.PURE;
+ * </pre>
+ */
+public final class Effects {
+
+    private final CallGraph graph;
+
+    private final Effect[] functions;
+
+    private final Map<Expression, Effect> tags;
+
+    /**
+     * Secondary constructor building the call graph.
+     *
+     * @param program Program to analyze
+     */
+    public Effects(final Program program) {
+        this(program, new CallGraph(program));
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param program Program to analyze
+     * @param calls Call graph of the program
+     */
+    public Effects(final Program program, final CallGraph calls) {
+        this.graph = calls;
+        final int size = this.graph.size();
+        final boolean[] direct = new boolean[size];
+        int idx = 0;
+        for (final Function function : program.functions()) {
+            direct[idx] = Effects.reads(function.body());
+            idx = idx + 1;
+        }
+        this.functions = this.solved(direct);
+        this.tags = new IdentityHashMap<>();
+        for (final Function function : program.functions()) {
+            this.tagged(function.body());
+        }
+        for (final Statement statement : program.statements()) {
+            if (statement instanceof Declaration) {
+                this.tagged(((Declaration) statement).expression());
+            } else if (statement instanceof Output) {
+                this.tagged(((Output) statement).expression());
+            }
+        }
+    }
+
+    /**
+     * Returns the effect of a function.
+     *
+     * @param function Function index, as numbered by the call graph
+     * @return INPUT if calling the function may read input
+     */
+    public Effect effect(final int function) {
+        return this.functions[function];
+    }
+
+    /**
+     * Returns the effect of an expression.
+     *
+     * @param expression Expression of the program, or one built alike
+     * @return INPUT if evaluating the expression may read input
+     */
+    public Effect effect(final Expression expression) {
+        Effect result = this.tags.get(expression);
+        if (result == null) {
+            result = this.worked(expression, false);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the effect of every function.
+     *
+     * @param direct Whether the body of each function reads input itself
+     * @return Effect of every function
+     */
+    private Effect[] solved(final boolean[] direct) {
+        final int size = direct.length;
+        final int[] starts = new int[this.graph.components() + 1];
+        for (int function = 0; function < size; function = function + 1) {
+            starts[this.graph.component(function) + 1] =
+                starts[this.graph.component(function) + 1] + 1;
+        }
+        for (int component = 0; component < this.graph.components(); component = component + 1) {
+            starts[component + 1] = starts[component + 1] + starts[component];
+        }
+        final int[] members = new int[size];
+        final int[] filled = starts.clone();
+        for (int function = 0; function < size; function = function + 1) {
+            final int component = this.graph.component(function);
+            members[filled[component]] = function;
+            filled[component] = filled[component] + 1;
+        }
+        final Effect[] result = new Effect[size];
+        for (int component = 0; component < this.graph.components(); component = component + 1) {
+            final int first = starts[component];
+            final int end = starts[component + 1];
+            boolean reads = false;
+            for (int member = first; member < end; member = member + 1) {
+                final int function = members[member];
+                reads = reads || direct[function];
+                for (int edge = 0; edge < this.graph.callees(function); edge = edge + 1) {
+                    final int callee = this.graph.callee(function, edge);
+                    reads = reads
+                        || this.graph.component(callee) != component
+                        && result[callee] == Effect.INPUT;
+                }
+            }
+            for (int member = first; member < end; member = member + 1) {
+                if (reads) {
+                    result[members[member]] = Effect.INPUT;
+                } else {
+                    result[members[member]] = Effect.PURE;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tags an expression and all its subexpressions.
+     *
+     * @param expression Expression of the program
+     * @return Effect of the expression
+     */
+    private Effect tagged(final Expression expression) {
+        return this.worked(expression, true);
+    }
+
+    /**
+     * Works out the effect of an expression from its parts.
+     *
+     * The expression is laid out in preorder on an explicit stack, so
+     * deep expressions do not overflow the call stack, and its nodes are
+     * then worked out in reverse, each after all of its parts. Parts
+     * already tagged are not looked into again.
+     *
+     * @param expression Expression to look at
+     * @param tagging Whether to tag the expression and its subexpressions
+     * @return INPUT if the expression may read input
+     */
+    private Effect worked(final Expression expression, final boolean tagging) {
+        final Map<Expression, Effect> found;
+        if (tagging) {
+            found = this.tags;
+        } else {
+            found = new IdentityHashMap<>();
+        }
+        final List<Expression> order = new ArrayList<>();
+        final Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty()) {
+            final Expression node = pending.pop();
+            order.add(node);
+            for (final Expression part : Effects.parts(node)) {
+                if (!this.tags.containsKey(part)) {
+                    pending.push(part);
+                }
+            }
+        }
+        for (int idx = order.size() - 1; idx >= 0; idx = idx - 1) {
+            final Expression node = order.get(idx);
+            boolean reads = node instanceof Input;
+            if (node instanceof Call) {
+                final int target = this.graph.target((Call) node);
+                reads = target >= 0 && this.functions[target] == Effect.INPUT;
+            }
+            for (final Expression part : Effects.parts(node)) {
+                Effect effect = found.get(part);
+                if (effect == null) {
+                    effect = this.tags.get(part);
+                }
+                reads = reads || effect == Effect.INPUT;
+            }
+            if (reads) {
+                found.put(node, Effect.INPUT);
+            } else {
+                found.put(node, Effect.PURE);
+            }
+        }
+        return found.get(expression);
+    }
+
+    /**
+     * Tells whether an expression reads input itself, calls aside.
+     *
+     * @param expression Expression to look at
+     * @return True if an Anagnosi occurs in it
+     */
+    private static boolean reads(final Expression expression) {
+        boolean result = false;
+        final Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while (!pending.isEmpty() && !result) {
+            final Expression node = pending.pop();
+            result = node instanceof Input;
+            for (final Expression part : Effects.parts(node)) {
+                pending.push(part);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists the direct subexpressions of an expression.
+     *
+     * @param expression Expression to look into
+     * @return Its operands, arguments or condition and branches, in order
+     */
+    private static List<Expression> parts(final Expression expression) {
+        final List<Expression> result;
+        if (expression instanceof Call) {
+            final Call call = (Call) expression;
+            final int arguments = call.argumentCount();
+            result = new ArrayList<>(arguments);
+            for (int idx = 0; idx < arguments; idx = idx + 1) {
+                result.add(call.argument(idx));
+            }
+        } else if (expression instanceof UnaryOp) {
+            result = List.of(((UnaryOp) expression).operand());
+        } else if (expression instanceof BinaryOp) {
+            final BinaryOp binary = (BinaryOp) expression;
+            result = List.of(binary.left(), binary.right());
+        } else if (expression instanceof Conditional) {
+            final Conditional conditional = (Conditional) expression;
+            result = List.of(
+                conditional.condition(), conditional.thenBranch(), conditional.elseBranch()
+            );
+        } else if (expression instanceof Input
+            || expression instanceof Literal
+            || expression instanceof Variable) {
+            result = List.of();
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unknown expression: %s", expression.getClass().getName())
+            );
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package ir.analysis;
+
+/**
+ * How a function takes part in recursion.
+ *
+ * Follows from the strongly connected component of the function in
+ * the call graph: a component of several functions is mutual recursion,
+ * a single function is recursive only if it calls itself.
+ *
+ * Example usage:
+ * <pre>
+ * if (graph.recursion(fib) == Recursion.SELF) {
+ *     ...
+ * }
+ * </pre>
+ */
+public enum Recursion {
+
+    /**
+     * Never reaches itself through calls.
+     */
+    NONE,
+
+    /**
+     * Calls itself, and no other function of its component.
+     */
+    SELF,
+
+    /**
+     * Reaches itself through other functions.
+     */
+    MUTUAL
+}
@@ -0,0 +1,89 @@
+package ir.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reading position in a binary program image.
+ *
+ * This final class reads varints from a buffer with absolute gets, so
+ * any number of cursors can read one buffer, even from several threads,
+ * without touching its position.
+ *
+ * Example usage:
+ * <pre>
+ * BinaryCursor cursor = new BinaryCursor(image, 4);
+ * int version = cursor.varint();
+ * </pre>
+ */
+final class BinaryCursor {
+
+    private final ByteBuffer buffer;
+
+    private int position;
+
+    /**
+     * Primary constructor.
+     *
+     * @param bytes Image to read
+     * @param start Offset of the first byte to read
+     */
+    BinaryCursor(final ByteBuffer bytes, final int start) {
+        this.buffer = bytes;
+        this.position = start;
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @return Number read
+     */
+    int varint() {
+        return (int) this.varlong();
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint of up to 64 bits.
+     *
+     * @return Number read
+     */
+    long varlong() {
+        long result = 0;
+        int shift = 0;
+        int current = this.next();
+        while ((current & 0x80) != 0) {
+            result = result | (long) (current & 0x7F) << shift;
+            shift = shift + 7;
+            current = this.next();
+        }
+        return result | (long) current << shift;
+    }
+
+    /**
+     * Returns the offset of the next byte to read.
+     *
+     * @return Offset in the image
+     */
+    int position() {
+        return this.position;
+    }
+
+    /**
+     * Moves past a number of bytes.
+     *
+     * @param count Bytes to skip
+     */
+    void skip(final int count) {
+        this.position = this.position + count;
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @return Byte read, as unsigned
+     */
+    private int next() {
+        final int result = this.buffer.get(this.position) & 0xFF;
+        this.position = this.position + 1;
+        return result;
+    }
+}
@@ -0,0 +1,309 @@
+package ir.binary;
+
+import ir.Expression;
+import ir.Frame;
+import ir.Function;
+import ir.Operator;
+import ir.Program;
+import ir.Statement;
+import ir.Value;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrConditional;
+import ir.simple.IrDeclaration;
+import ir.simple.IrFunction;
+import ir.simple.IrInput;
+import ir.simple.IrLiteral;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import ir.simple.IrUnaryOp;
+import ir.simple.IrVariable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Program read lazily from a binary image.
+ *
+ * This final class keeps the name table and the function index of an
+ * image and decodes the rest from the buffer every time it is asked
+ * for: each call builds fresh ir.simple objects, and nothing decoded is
+ * kept. A single function is found through the index without decoding
+ * any other body. Equality is that of IrProgram, so a program read back
+ * equals the one written.
+ *
+ * Example usage:
+ * <pre>
+ * BinaryProgram program = new BinaryReader(image).program();
+ * Iterable&lt;Statement&gt; statements = program.statements();
+ * </pre>
+ */
+public final class BinaryProgram implements Program {
+
+    /**
+     * Operators in the order of their codes.
+     */
+    private static final Operator[] OPERATORS = Operator.values();
+
+    /**
+     * Frames in the order of their codes.
+     */
+    private static final Frame[] FRAMES = Frame.values();
+
+    private final ByteBuffer buffer;
+
+    private final int version;
+
+    private final String[] names;
+
+    private final int[][] index;
+
+    private final int count;
+
+    private final int start;
+
+    /**
+     * Primary constructor.
+     *
+     * @param image Image bytes
+     * @param format Version of the image
+     * @param table Name table
+     * @param functions Name, body offset and parameter names of each function
+     * @param statements Number of top-level statements
+     * @param offset Offset of the first statement
+     */
+    BinaryProgram(
+        final ByteBuffer image,
+        final int format,
+        final String[] table,
+        final int[][] functions,
+        final int statements,
+        final int offset
+    ) {
+        this.buffer = image;
+        this.version = format;
+        this.names = table;
+        this.index = functions;
+        this.count = statements;
+        this.start = offset;
+    }
+
+    @Override
+    public Iterable<Function> functions() {
+        final List<Function> result = new ArrayList<>(this.index.length);
+        for (final int[] function : this.index) {
+            result.add(this.decoded(function));
+        }
+        return result;
+    }
+
+    @Override
+    public Iterable<Statement> statements() {
+        final BinaryCursor cursor = new BinaryCursor(this.buffer, this.start);
+        final List<Statement> result = new ArrayList<>(this.count);
+        for (int idx = 0; idx < this.count; idx = idx + 1) {
+            result.add(this.statement(cursor));
+        }
+        return result;
+    }
+
+    /**
+     * Decodes one function found by name.
+     *
+     * @param name Function name
+     * @return Function, empty if the program defines none by that name
+     */
+    public Optional<Function> function(final String name) {
+        Optional<Function> result = Optional.empty();
+        for (int idx = 0; idx < this.index.length && result.isEmpty(); idx = idx + 1) {
+            if (this.names[this.index[idx][0]].equals(name)) {
+                result = Optional.of(this.decoded(this.index[idx]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return new IrProgram(this.functions(), this.statements()).equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return new IrProgram(this.functions(), this.statements()).hashCode();
+    }
+
+    /**
+     * Decodes a function from its index entry.
+     *
+     * @param function Name, body offset and parameter names
+     * @return Function with its body
+     */
+    private Function decoded(final int[] function) {
+        final List<String> parameters = new ArrayList<>(function.length - 2);
+        for (int idx = 2; idx < function.length; idx = idx + 1) {
+            parameters.add(this.names[function[idx]]);
+        }
+        return new IrFunction(
+            this.names[function[0]],
+            parameters,
+            this.expression(new BinaryCursor(this.buffer, function[1]))
+        );
+    }
+
+    /**
+     * Decodes a top-level statement.
+     *
+     * @param cursor Cursor at the statement
+     * @return Statement read
+     */
+    private Statement statement(final BinaryCursor cursor) {
+        final int code = cursor.varint();
+        final Statement result;
+        if (code == BinaryWriter.DECLARATION) {
+            final String name = this.names[cursor.varint()];
+            final int slot = this.slot(cursor);
+            result = new IrDeclaration(name, slot, this.expression(cursor));
+        } else if (code == BinaryWriter.OUTPUT) {
+            result = new IrOutput(this.expression(cursor));
+        } else {
+            throw new IllegalStateException(String.format("Unknown statement code %d", code));
+        }
+        return result;
+    }
+
+    /**
+     * Decodes an expression written in preorder.
+     *
+     * Operations whose operands are still to come wait on an explicit
+     * stack as their code, operator or name, target, arity and number
+     * of operands missing; finished expressions wait on another until
+     * their operation takes them, so deep expressions do not overflow
+     * the call stack.
+     *
+     * @param cursor Cursor at the opcode
+     * @return Expression read
+     */
+    private Expression expression(final BinaryCursor cursor) {
+        final List<Expression> done = new ArrayList<>();
+        final Deque<int[]> open = new ArrayDeque<>();
+        do {
+            final int code = cursor.varint();
+            boolean finished = true;
+            if (code == BinaryWriter.LITERAL) {
+                final long zigzag = cursor.varlong();
+                done.add(new IrLiteral(Value.of((zigzag >>> 1) ^ -(zigzag & 1))));
+            } else if (code == BinaryWriter.BIG_LITERAL) {
+                final byte[] bytes = new byte[cursor.varint()];
+                this.buffer.get(cursor.position(), bytes);
+                cursor.skip(bytes.length);
+                done.add(new IrLiteral(new Value(new BigInteger(bytes))));
+            } else if (code == BinaryWriter.VARIABLE) {
+                done.add(this.variable(cursor));
+            } else if (code == BinaryWriter.INPUT) {
+                done.add(new IrInput());
+            } else if (code == BinaryWriter.UNARY) {
+                open.push(new int[] {code, cursor.varint(), -1, 1, 1});
+                finished = false;
+            } else if (code == BinaryWriter.BINARY) {
+                open.push(new int[] {code, cursor.varint(), -1, 2, 2});
+                finished = false;
+            } else if (code == BinaryWriter.CALL) {
+                final int name = cursor.varint();
+                final int target;
+                if (this.version < BinaryWriter.TARGETED) {
+                    target = -1;
+                } else {
+                    target = cursor.varint() - 1;
+                }
+                final int size = cursor.varint();
+                if (size == 0) {
+                    done.add(new IrCall(this.names[name], target, new ArrayList<>(0)));
+                } else {
+                    open.push(new int[] {code, name, target, size, size});
+                    finished = false;
+                }
+            } else if (code == BinaryWriter.CONDITIONAL) {
+                open.push(new int[] {code, 0, -1, 3, 3});
+                finished = false;
+            } else {
+                throw new IllegalStateException(String.format("Unknown expression code %d", code));
+            }
+            while (finished && !open.isEmpty()) {
+                final int[] node = open.peek();
+                node[4] = node[4] - 1;
+                if (node[4] == 0) {
+                    open.pop();
+                    done.add(this.built(node, done));
+                } else {
+                    finished = false;
+                }
+            }
+        } while (!open.isEmpty());
+        return done.get(0);
+    }
+
+    /**
+     * Decodes a variable.
+     *
+     * @param cursor Cursor just past the opcode
+     * @return Variable, unresolved in images written before frames were kept
+     */
+    private Expression variable(final BinaryCursor cursor) {
+        final String name = this.names[cursor.varint()];
+        final Expression result;
+        if (this.version < BinaryWriter.RESOLVED) {
+            result = new IrVariable(name);
+        } else {
+            final Frame frame = BinaryProgram.FRAMES[cursor.varint()];
+            result = new IrVariable(name, frame, cursor.varint() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Builds an operation once all its operands are decoded.
+     *
+     * @param node Code, operator or name, target and arity of the operation
+     * @param done Finished expressions, the operands last; they are taken off
+     * @return Operation built
+     */
+    private Expression built(final int[] node, final List<Expression> done) {
+        final List<Expression> tail = done.subList(done.size() - node[3], done.size());
+        final List<Expression> operands = new ArrayList<>(tail);
+        tail.clear();
+        final Expression result;
+        if (node[0] == BinaryWriter.UNARY) {
+            result = new IrUnaryOp(BinaryProgram.OPERATORS[node[1]], operands.get(0));
+        } else if (node[0] == BinaryWriter.BINARY) {
+            result = new IrBinaryOp(
+                BinaryProgram.OPERATORS[node[1]], operands.get(0), operands.get(1)
+            );
+        } else if (node[0] == BinaryWriter.CALL) {
+            result = new IrCall(this.names[node[1]], node[2], operands);
+        } else {
+            result = new IrConditional(operands.get(0), operands.get(1), operands.get(2));
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the slot of a declaration.
+     *
+     * @param cursor Cursor just past the name
+     * @return Slot read, -1 in images written before slots were kept
+     */
+    private int slot(final BinaryCursor cursor) {
+        final int result;
+        if (this.version < BinaryWriter.RESOLVED) {
+            result = -1;
+        } else {
+            result = cursor.varint() - 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package ir.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader of the compact binary image of a program.
+ *
+ * This final class checks the header of an image written by
+ * BinaryWriter and decodes its name table and function index; nothing
+ * else is read up front. The program it returns decodes a body or the
+ * statements into ir.simple objects only when they are asked for,
+ * straight from the buffer. A file is mapped read-only rather than
+ * read, so loading an image touches only the pages that are used.
+ *
+ * Example usage:
+ * <pre>
+ * BinaryProgram program = new BinaryReader(Path.of("program.r77i")).program();
+ * Optional&lt;Function&gt; main = program.function("main");
+ * </pre>
+ */
+public final class BinaryReader {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Primary constructor.
+     *
+     * @param image Image bytes; only absolute gets are used on them
+     */
+    public BinaryReader(final ByteBuffer image) {
+        this.buffer = image;
+    }
+
+    /**
+     * Secondary constructor over a byte array.
+     *
+     * @param image Image bytes
+     */
+    public BinaryReader(final byte[] image) {
+        this(ByteBuffer.wrap(image));
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * Maps the whole file. The mapping stays valid after the file is
+     * closed, until the buffer is garbage collected.
+     *
+     * @param path Image file, at most 2 GB
+     * @throws IOException if the file cannot be mapped
+     */
+    public BinaryReader(final Path path) throws IOException {
+        this(BinaryReader.mapped(path));
+    }
+
+    /**
+     * Opens the image.
+     *
+     * @return Program decoding its parts on demand
+     * @throws IOException if the bytes are not an image of a known version
+     */
+    public BinaryProgram program() throws IOException {
+        final byte[] magic = new byte[BinaryWriter.MAGIC.length];
+        if (this.buffer.limit() >= magic.length) {
+            this.buffer.get(0, magic);
+        }
+        if (!Arrays.equals(magic, BinaryWriter.MAGIC)) {
+            throw new IOException("Not a Rome77 program image");
+        }
+        final BinaryProgram result;
+        try {
+            result = this.indexed(new BinaryCursor(this.buffer, magic.length));
+        } catch (final IndexOutOfBoundsException ex) {
+            throw new IOException("Truncated Rome77 program image", ex);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the version, the name table and the function index.
+     *
+     * @param cursor Cursor just past the magic
+     * @return Program over the image
+     * @throws IOException if the version is unknown or the image is cut short
+     */
+    private BinaryProgram indexed(final BinaryCursor cursor) throws IOException {
+        final int version = cursor.varint();
+        if (version < BinaryWriter.OLDEST || version > BinaryWriter.VERSION) {
+            throw new IOException(
+                String.format("Unsupported Rome77 program image version %d", version)
+            );
+        }
+        final String[] names = new String[cursor.varint()];
+        for (int idx = 0; idx < names.length; idx = idx + 1) {
+            final byte[] utf = new byte[cursor.varint()];
+            this.buffer.get(cursor.position(), utf);
+            cursor.skip(utf.length);
+            names[idx] = new String(utf, StandardCharsets.UTF_8);
+        }
+        final int[][] functions = new int[cursor.varint()][];
+        for (int idx = 0; idx < functions.length; idx = idx + 1) {
+            final int name = cursor.varint();
+            final int[] function = new int[cursor.varint() + 2];
+            function[0] = name;
+            for (int param = 2; param < function.length; param = param + 1) {
+                function[param] = cursor.varint();
+            }
+            function[1] = cursor.varint();
+            functions[idx] = function;
+        }
+        final int count = cursor.varint();
+        final int statements = cursor.varint();
+        final int length = cursor.varint();
+        final int code = cursor.position();
+        if (code + length > this.buffer.limit()) {
+            throw new IOException("Truncated Rome77 program image");
+        }
+        for (final int[] function : functions) {
+            function[1] = function[1] + code;
+        }
+        return new BinaryProgram(
+            this.buffer, version, names, functions, count, code + statements
+        );
+    }
+
+    /**
+     * Maps a file read-only.
+     *
+     * @param path Image file
+     * @return Mapped bytes
+     * @throws IOException if the file cannot be mapped
+     */
+    private static ByteBuffer mapped(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package ir.binary;
+
+import ir.BinaryOp;
+import ir.Call;
+import ir.Conditional;
+import ir.Declaration;
+import ir.Expression;
+import ir.Function;
+import ir.Input;
+import ir.Literal;
+import ir.Output;
+import ir.Program;
+import ir.Statement;
+import ir.UnaryOp;
+import ir.Variable;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of the compact binary image of a program.
+ *
+ * This final class encodes a program as a versioned image. All numbers
+ * are unsigned LEB128 varints; literals are zigzag-coded first, so
+ * small negative values stay short, and take up to 64 bits. Literals
+ * past a long are written as their two's-complement bytes. An image
+ * is, in order:
+ * <pre>
+ * magic      'R' '7' '7' 'I'
+ * version    VERSION
+ * names      count, then length and UTF-8 bytes of each name
+ * functions  count, then name, parameter count, parameter names and
+ *            body offset of each function
+ * statements count and offset of the first statement
+ * code       length, then the bodies and the statements
+ * </pre>
+ * Names are written once, in order of first use, and referred to by
+ * index. Offsets are counted from the start of the code. Expressions
+ * are written in preorder: an opcode, its operands and then its
+ * subexpressions, so a body is read back in one pass without lengths.
+ *
+ * Example usage:
+ * <pre>
+ * byte[] image = new BinaryWriter(program).bytes();
+ * Files.write(Path.of("program.r77i"), image);
+ * </pre>
+ */
+public final class BinaryWriter {
+
+    /**
+     * Version of the format written, bumped on every incompatible change.
+     */
+    static final int VERSION = 4;
+
+    /**
+     * Oldest version still read: version 1 wrote 32-bit literals, whose
+     * varints decode to the same values as 64-bit ones, versions before
+     * 3 wrote no frames or slots and versions before 4 no call targets,
+     * so their names read back unresolved.
+     */
+    static final int OLDEST = 1;
+
+    /**
+     * First version that writes the frames and slots of names.
+     */
+    static final int RESOLVED = 3;
+
+    /**
+     * First version that writes the targets of calls.
+     */
+    static final int TARGETED = 4;
+
+    /**
+     * First bytes of every image.
+     */
+    static final byte[] MAGIC = {'R', '7', '7', 'I'};
+
+    /**
+     * Opcode of a literal, followed by its zigzag-coded value.
+     */
+    static final int LITERAL = 0;
+
+    /**
+     * Opcode of a variable, followed by its name, the ordinal of its
+     * frame and its slot plus one.
+     */
+    static final int VARIABLE = 1;
+
+    /**
+     * Opcode of Anagnosi, with no operands.
+     */
+    static final int INPUT = 2;
+
+    /**
+     * Opcode of a unary operation, followed by its operator and operand.
+     */
+    static final int UNARY = 3;
+
+    /**
+     * Opcode of a binary operation, followed by its operator and operands.
+     */
+    static final int BINARY = 4;
+
+    /**
+     * Opcode of a call, followed by the name, the index of the target
+     * plus one, the argument count and the arguments.
+     */
+    static final int CALL = 5;
+
+    /**
+     * Opcode of Sinon, followed by the condition and both branches.
+     */
+    static final int CONDITIONAL = 6;
+
+    /**
+     * Opcode of a literal past a long, followed by its byte count and
+     * two's-complement bytes, most significant first.
+     */
+    static final int BIG_LITERAL = 7;
+
+    /**
+     * Code of an As statement, followed by the name, the slot plus one
+     * and the expression.
+     */
+    static final int DECLARATION = 0;
+
+    /**
+     * Code of a Grafo statement, followed by the expression.
+     */
+    static final int OUTPUT = 1;
+
+    private final Program program;
+
+    /**
+     * Primary constructor.
+     *
+     * @param prog Program to encode
+     */
+    public BinaryWriter(final Program prog) {
+        this.program = prog;
+    }
+
+    /**
+     * Encodes the program.
+     *
+     * @return Binary image
+     */
+    public byte[] bytes() {
+        final Map<String, Integer> names = new LinkedHashMap<>();
+        final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        final List<Function> functions = new ArrayList<>();
+        final List<Integer> bodies = new ArrayList<>();
+        for (final Function function : this.program.functions()) {
+            BinaryWriter.interned(names, function.name());
+            for (final String parameter : function.parameters()) {
+                BinaryWriter.interned(names, parameter);
+            }
+            functions.add(function);
+            bodies.add(code.size());
+            BinaryWriter.expression(code, names, function.body());
+        }
+        final int start = code.size();
+        int count = 0;
+        for (final Statement statement : this.program.statements()) {
+            BinaryWriter.statement(code, names, statement);
+            count = count + 1;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(code.size() + 64);
+        out.writeBytes(BinaryWriter.MAGIC);
+        BinaryWriter.varint(out, BinaryWriter.VERSION);
+        BinaryWriter.varint(out, names.size());
+        for (final String name : names.keySet()) {
+            final byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+            BinaryWriter.varint(out, utf.length);
+            out.writeBytes(utf);
+        }
+        BinaryWriter.varint(out, functions.size());
+        for (int idx = 0; idx < functions.size(); idx = idx + 1) {
+            final Function function = functions.get(idx);
+            BinaryWriter.varint(out, names.get(function.name()));
+            final List<String> parameters = new ArrayList<>();
+            function.parameters().forEach(parameters::add);
+            BinaryWriter.varint(out, parameters.size());
+            for (final String parameter : parameters) {
+                BinaryWriter.varint(out, names.get(parameter));
+            }
+            BinaryWriter.varint(out, bodies.get(idx));
+        }
+        BinaryWriter.varint(out, count);
+        BinaryWriter.varint(out, start);
+        BinaryWriter.varint(out, code.size());
+        out.writeBytes(code.toByteArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a top-level statement.
+     *
+     * @param out Code being written
+     * @param names Name table being built
+     * @param statement Statement to encode
+     */
+    private static void statement(
+        final ByteArrayOutputStream out,
+        final Map<String, Integer> names,
+        final Statement statement
+    ) {
+        if (statement instanceof Declaration) {
+            final Declaration declaration = (Declaration) statement;
+            BinaryWriter.varint(out, BinaryWriter.DECLARATION);
+            BinaryWriter.varint(out, BinaryWriter.interned(names, declaration.name()));
+            BinaryWriter.varint(out, declaration.slot() + 1);
+            BinaryWriter.expression(out, names, declaration.expression());
+        } else if (statement instanceof Output) {
+            BinaryWriter.varint(out, BinaryWriter.OUTPUT);
+            BinaryWriter.expression(out, names, ((Output) statement).expression());
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Unknown statement: %s", statement.getClass().getName())
+            );
+        }
+    }
+
+    /**
+     * Encodes an expression in preorder.
+     *
+     * Subexpressions wait on an explicit stack, pushed last first, so
+     * that deep expressions do not overflow the call stack.
+     *
+     * @param out Code being written
+     * @param names Name table being built
+     * @param root Expression to encode
+     */
+    private static void expression(
+        final ByteArrayOutputStream out,
+        final Map<String, Integer> names,
+        final Expression root
+    ) {
+        final Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Expression expression = pending.pop();
+            if (expression instanceof Literal) {
+                final BigInteger value = ((Literal) expression).number().bigValue();
+                if (value.bitLength() < Long.SIZE) {
+                    final long small = value.longValue();
+                    BinaryWriter.varint(out, BinaryWriter.LITERAL);
+                    BinaryWriter.varlong(out, (small << 1) ^ (small >> (Long.SIZE - 1)));
+                } else {
+                    final byte[] bytes = value.toByteArray();
+                    BinaryWriter.varint(out, BinaryWriter.BIG_LITERAL);
+                    BinaryWriter.varint(out, bytes.length);
+                    out.writeBytes(bytes);
+                }
+            } else if (expression instanceof Variable) {
+                final Variable variable = (Variable) expression;
+                BinaryWriter.varint(out, BinaryWriter.VARIABLE);
+                BinaryWriter.varint(out, BinaryWriter.interned(names, variable.name()));
+                BinaryWriter.varint(out, variable.frame().ordinal());
+                BinaryWriter.varint(out, variable.slot() + 1);
+            } else if (expression instanceof Input) {
+                BinaryWriter.varint(out, BinaryWriter.INPUT);
+            } else if (expression instanceof UnaryOp) {
+                final UnaryOp unary = (UnaryOp) expression;
+                BinaryWriter.varint(out, BinaryWriter.UNARY);
+                BinaryWriter.varint(out, unary.operator().ordinal());
+                pending.push(unary.operand());
+            } else if (expression instanceof BinaryOp) {
+                final BinaryOp binary = (BinaryOp) expression;
+                BinaryWriter.varint(out, BinaryWriter.BINARY);
+                BinaryWriter.varint(out, binary.operator().ordinal());
+                pending.push(binary.right());
+                pending.push(binary.left());
+            } else if (expression instanceof Call) {
+                final Call call = (Call) expression;
+                final int count = call.argumentCount();
+                BinaryWriter.varint(out, BinaryWriter.CALL);
+                BinaryWriter.varint(out, BinaryWriter.interned(names, call.name()));
+                BinaryWriter.varint(out, call.target() + 1);
+                BinaryWriter.varint(out, count);
+                for (int idx = count - 1; idx >= 0; idx = idx - 1) {
+                    pending.push(call.argument(idx));
+                }
+            } else if (expression instanceof Conditional) {
+                final Conditional conditional = (Conditional) expression;
+                BinaryWriter.varint(out, BinaryWriter.CONDITIONAL);
+                pending.push(conditional.elseBranch());
+                pending.push(conditional.thenBranch());
+                pending.push(conditional.condition());
+            } else {
+                throw new IllegalArgumentException(
+                    String.format("Unknown expression: %s", expression.getClass().getName())
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a name, adding it to the table on first use.
+     *
+     * @param names Name table being built
+     * @param name Name to look up
+     * @return Index in the table
+     */
+    private static int interned(final Map<String, Integer> names, final String name) {
+        return names.computeIfAbsent(name, key -> names.size());
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint.
+     *
+     * @param out Bytes being written
+     * @param number Number to write, read as unsigned
+     */
+    private static void varint(final ByteArrayOutputStream out, final int number) {
+        BinaryWriter.varlong(out, number & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint of up to 64 bits.
+     *
+     * @param out Bytes being written
+     * @param number Number to write, read as unsigned
+     */
+    private static void varlong(final ByteArrayOutputStream out, final long number) {
+        long rest = number;
+        while ((rest & ~0x7FL) != 0) {
+            out.write((int) (rest & 0x7F) | 0x80);
+            rest = rest >>> 7;
+        }
+        out.write((int) rest);
+    }
+}
@@ -3,6 +3,7 @@ package ir.simple;
 import ir.Call;
 import ir.Expression;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -10,11 +11,15 @@ import java.util.Objects;
  * Function call expression in intermediate representation.
  *
  * Immutable value object representing function application with arguments.
+ * The target follows from the name and the order of definitions, so it
+ * takes no part in equality. Arguments are kept in an array-backed list
+ * and handed out without copying.
  *
  * Example usage:
  * <pre>
  * List&lt;Expression&gt; args = Arrays.asList(new IrLiteral(5));
  * Call call = new IrCall("double", args);
+ * Call linked = new IrCall("double", 0, args);
  * String name = call.name();
  * Iterable&lt;Expression&gt; arguments = call.arguments();
  * </pre>
@@ -22,18 +27,36 @@ import java.util.Objects;
 public final class IrCall implements Call {
 
     private final String identifier;
+    private final int index;
     private final List<Expression> args;
 
     /**
      * Primary constructor.
      *
      * @param name Function name
+     * @param target Index of the called function among the functions
      * @param arguments Argument expressions
      */
-    public IrCall(final String name, final Iterable<Expression> arguments) {
+    public IrCall(
+        final String name,
+        final int target,
+        final Iterable<Expression> arguments
+    ) {
         this.identifier = name;
-        this.args = new ArrayList<>();
-        arguments.forEach(this.args::add);
+        this.index = target;
+        final List<Expression> list = new ArrayList<>();
+        arguments.forEach(list::add);
+        this.args = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Secondary constructor for an unresolved call.
+     *
+     * @param name Function name
+     * @param arguments Argument expressions
+     */
+    public IrCall(final String name, final Iterable<Expression> arguments) {
+        this(name, -1, arguments);
     }
 
     /**
@@ -53,7 +76,22 @@ public final class IrCall implements Call {
      */
     @Override
     public Iterable<Expression> arguments() {
-        return new ArrayList<>(this.args);
+        return this.args;
+    }
+
+    @Override
+    public int target() {
+        return this.index;
+    }
+
+    @Override
+    public int argumentCount() {
+        return this.args.size();
+    }
+
+    @Override
+    public Expression argument(final int position) {
+        return this.args.get(position);
     }
 
     /**
@@ -72,7 +110,7 @@ public final class IrCall implements Call {
         }
         final Call that = (Call) other;
         return this.name().equals(that.name()) &&
-            this.listOf(this.arguments()).equals(this.listOf(that.arguments()));
+            this.args.equals(this.listOf(that.arguments()));
     }
 
     /**
@@ -82,7 +120,7 @@ public final class IrCall implements Call {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(this.name(), this.listOf(this.arguments()));
+        return Objects.hash(this.name(), this.args);
     }
 
     /**
@@ -8,6 +8,8 @@ import java.util.Objects;
  * Variable declaration statement in intermediate representation.
  *
  * Immutable value object representing As declaration binding variable to expression.
+ * The slot follows from the order of declarations, so it takes no part
+ * in equality.
  *
  * Example usage:
  * <pre>
@@ -20,19 +22,32 @@ import java.util.Objects;
 public final class IrDeclaration implements Declaration {
 
     private final String identifier;
+    private final int index;
     private final Expression expr;
 
     /**
      * Primary constructor.
      *
      * @param name Variable name
+     * @param slot Slot of the variable among the globals
      * @param expression Initialization expression
      */
-    public IrDeclaration(final String name, final Expression expression) {
+    public IrDeclaration(final String name, final int slot, final Expression expression) {
         this.identifier = name;
+        this.index = slot;
         this.expr = expression;
     }
 
+    /**
+     * Secondary constructor for an unresolved declaration.
+     *
+     * @param name Variable name
+     * @param expression Initialization expression
+     */
+    public IrDeclaration(final String name, final Expression expression) {
+        this(name, -1, expression);
+    }
+
     /**
      * Returns the variable name.
      *
@@ -43,6 +58,11 @@ public final class IrDeclaration implements Declaration {
         return this.identifier;
     }
 
+    @Override
+    public int slot() {
+        return this.index;
+    }
+
     /**
      * Returns the initialization expression.
      *
@@ -1,6 +1,7 @@
 package ir.simple;
 
 import ir.Literal;
+import ir.Value;
 
 /**
  * Integer literal in intermediate representation.
@@ -16,14 +17,23 @@ import ir.Literal;
  */
 public final class IrLiteral implements Literal {
 
-    private final int val;
+    private final Value val;
 
     /**
-     * Primary constructor.
+     * Secondary constructor.
      *
      * @param value Integer value
      */
     public IrLiteral(final int value) {
+        this(Value.of(value));
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param value Value of any size
+     */
+    public IrLiteral(final Value value) {
         this.val = value;
     }
 
@@ -31,9 +41,20 @@ public final class IrLiteral implements Literal {
      * Returns the integer value.
      *
      * @return Integer value of this literal
+     * @throws ArithmeticException if the value does not fit in an int
      */
     @Override
     public int value() {
+        return this.val.intValue();
+    }
+
+    /**
+     * Returns the value whatever its size.
+     *
+     * @return Value of this literal
+     */
+    @Override
+    public Value number() {
         return this.val;
     }
 
@@ -52,7 +73,7 @@ public final class IrLiteral implements Literal {
             return false;
         }
         final Literal that = (Literal) other;
-        return this.value() == that.value();
+        return this.number().equals(that.number());
     }
 
     /**
@@ -62,6 +83,6 @@ public final class IrLiteral implements Literal {
      */
     @Override
     public int hashCode() {
-        return this.value();
+        return this.number().hashCode();
     }
 }
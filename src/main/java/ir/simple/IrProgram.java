@@ -3,6 +3,8 @@ package ir.simple;
 import ir.Function;
 import ir.Program;
 import ir.Statement;
+import ir.analysis.CallGraph;
+import ir.analysis.Effects;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -11,6 +13,10 @@ import java.util.Objects;
  * Program in intermediate representation.
  *
  * Immutable value object representing complete program structure.
+ * The call graph and the effects are built on first use and kept, so
+ * every pass that asks for them shares one analysis; they take no part
+ * in equality. Programs that decode their nodes anew on every read,
+ * such as a BinaryProgram, have no stable nodes to cache them for.
  *
  * Example usage:
  * <pre>
@@ -25,6 +31,8 @@ public final class IrProgram implements Program {
 
     private final List<Function> fns;
     private final List<Statement> stmts;
+    private volatile CallGraph graph;
+    private volatile Effects fx;
 
     /**
      * Primary constructor.
@@ -62,6 +70,34 @@ public final class IrProgram implements Program {
         return new ArrayList<>(this.stmts);
     }
 
+    /**
+     * Returns the call graph, built on first use.
+     *
+     * @return Call graph over the functions and statements
+     */
+    public CallGraph calls() {
+        CallGraph result = this.graph;
+        if (result == null) {
+            result = new CallGraph(this);
+            this.graph = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the effects, built on first use over the cached call graph.
+     *
+     * @return Effects of the functions and expressions
+     */
+    public Effects effects() {
+        Effects result = this.fx;
+        if (result == null) {
+            result = new Effects(this, this.calls());
+            this.fx = result;
+        }
+        return result;
+    }
+
     /**
      * Checks equality based on functions and statements.
      *
@@ -1,15 +1,19 @@
 package ir.simple;
 
+import ir.Frame;
 import ir.Variable;
 
 /**
  * Variable reference in intermediate representation.
  *
  * Immutable value object representing a reference to a variable or function parameter.
+ * The frame and slot follow from the name and where the reference is,
+ * so they take no part in equality.
  *
  * Example usage:
  * <pre>
  * Variable x = new IrVariable("x");
+ * Variable n = new IrVariable("n", Frame.PARAMETER, 0);
  * String name = x.name();
  * </pre>
  */
@@ -17,13 +21,30 @@ public final class IrVariable implements Variable {
 
     private final String identifier;
 
+    private final Frame storage;
+
+    private final int index;
+
     /**
      * Primary constructor.
      *
      * @param name Variable identifier
+     * @param frame Frame the variable lives in
+     * @param slot Index in the frame
      */
-    public IrVariable(final String name) {
+    public IrVariable(final String name, final Frame frame, final int slot) {
         this.identifier = name;
+        this.storage = frame;
+        this.index = slot;
+    }
+
+    /**
+     * Secondary constructor for an unresolved reference.
+     *
+     * @param name Variable identifier
+     */
+    public IrVariable(final String name) {
+        this(name, Frame.UNRESOLVED, -1);
     }
 
     /**
@@ -36,6 +57,16 @@ public final class IrVariable implements Variable {
         return this.identifier;
     }
 
+    @Override
+    public Frame frame() {
+        return this.storage;
+    }
+
+    @Override
+    public int slot() {
+        return this.index;
+    }
+
     /**
      * Checks equality based on name.
      *
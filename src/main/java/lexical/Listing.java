@@ -3,8 +3,10 @@ package lexical;
 /**
  * Immutable sequence of lexical tokens.
  *
- * Provides iteration over tokens produced by lexical analysis.
- * Listings are immutable once created and safe for concurrent access.
+ * Provides iteration over tokens produced by lexical analysis,
+ * random access by index, and a callback walk that creates no
+ * Token objects. Listings are immutable once created and safe
+ * for concurrent access.
  *
  * Example usage:
  * <pre>
@@ -36,4 +38,24 @@ public interface Listing {
      * @return Token count, non-negative
      */
     int size();
+
+    /**
+     * Returns the token at the given index.
+     *
+     * Takes constant time regardless of the index.
+     *
+     * @param index Token index, 0-based, less than size()
+     * @return Token, never null
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    Token token(int index);
+
+    /**
+     * Passes every token to the visitor in source order.
+     *
+     * Includes EOF token at the end. Creates no Token objects.
+     *
+     * @param visitor Callback receiving each token
+     */
+    void accept(TokenVisitor visitor);
 }
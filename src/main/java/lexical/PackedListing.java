@@ -0,0 +1,218 @@
+package lexical;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Token listing backed by parallel int arrays.
+ *
+ * Keeps one category ordinal, start and end offset, line and column
+ * per token instead of one object per token, plus the decoded value
+ * of every Roman numeral. Token views are created only while iterating
+ * or on random access, and their text is cut from the source lazily.
+ *
+ * Example usage:
+ * <pre>
+ * Listing listing = new DirectLexer("As x = V").tokenized();
+ * </pre>
+ */
+public final class PackedListing implements Listing {
+
+    /**
+     * Token categories by ordinal.
+     */
+    private static final TokenCategory[] CATEGORIES = TokenCategory.values();
+
+    private static final int ROMAN = TokenCategory.ROMAN.ordinal();
+
+    /**
+     * Decoder of numeral tokens, accepting any run of digits.
+     */
+    private static final RomanCodec NUMERALS = new RomanCodec();
+
+    private final String source;
+    private final int count;
+    private final int[] kinds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] values;
+
+    /**
+     * Primary constructor.
+     *
+     * Arrays are owned by the listing and must not be changed afterwards.
+     *
+     * @param code Source code the offsets refer to
+     * @param size Number of tokens stored in the arrays
+     * @param categories Token category ordinals
+     * @param begins Start offsets, inclusive
+     * @param finishes End offsets, exclusive
+     * @param rows Line numbers, 1-based
+     * @param cols Column positions, 0-based
+     */
+    public PackedListing(
+        final String code,
+        final int size,
+        final int[] categories,
+        final int[] begins,
+        final int[] finishes,
+        final int[] rows,
+        final int[] cols
+    ) {
+        this.source = code;
+        this.count = size;
+        this.kinds = categories;
+        this.starts = begins;
+        this.ends = finishes;
+        this.lines = rows;
+        this.columns = cols;
+        this.values = new int[size];
+        for (int idx = 0; idx < size; idx = idx + 1) {
+            if (categories[idx] == ROMAN) {
+                this.values[idx] = PackedListing.decoded(code, begins[idx], finishes[idx]);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<Token> tokens() {
+        return () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < PackedListing.this.count;
+            }
+
+            @Override
+            public Token next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Token token = new PackedToken(PackedListing.this, this.next);
+                this.next = this.next + 1;
+                return token;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.count;
+    }
+
+    @Override
+    public Token token(final int index) {
+        return new PackedToken(this, Objects.checkIndex(index, this.count));
+    }
+
+    @Override
+    public void accept(final TokenVisitor visitor) {
+        for (int idx = 0; idx < this.count; idx = idx + 1) {
+            visitor.visit(
+                idx,
+                CATEGORIES[this.kinds[idx]],
+                this.starts[idx],
+                this.ends[idx] - this.starts[idx],
+                this.lines[idx],
+                this.columns[idx]
+            );
+        }
+    }
+
+    /**
+     * Returns the value of the Roman numeral at the given index.
+     *
+     * Numerals are decoded once, when the listing is built.
+     *
+     * @param index Token index
+     * @return Numeral value, zero for tokens of other categories
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int value(final int index) {
+        return this.values[Objects.checkIndex(index, this.count)];
+    }
+
+    /**
+     * Returns the category ordinal of the token at the given index.
+     *
+     * @param index Token index
+     * @return Ordinal of lexical.TokenCategory
+     */
+    public int kind(final int index) {
+        return this.kinds[index];
+    }
+
+    /**
+     * Returns the source text of the token at the given index.
+     *
+     * @param index Token index
+     * @return Matched source text, "&lt;EOF&gt;" for EOF
+     */
+    public String text(final int index) {
+        final String result;
+        if (index == this.count - 1) {
+            result = "<EOF>";
+        } else {
+            result = this.source.substring(this.starts[index], this.ends[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the source covered by a range of tokens.
+     *
+     * @param first Index of the first token
+     * @param last Index of the last token, inclusive
+     * @return View of the source from the start of the first token
+     *  to the end of the last, without copying it
+     */
+    public CharSequence span(final int first, final int last) {
+        return new SourceSpan(this.source, this.starts[first], this.ends[last]);
+    }
+
+    /**
+     * Returns the line of the token at the given index.
+     *
+     * @param index Token index
+     * @return Line number, 1-based
+     */
+    public int line(final int index) {
+        return this.lines[index];
+    }
+
+    /**
+     * Returns the column of the token at the given index.
+     *
+     * @param index Token index
+     * @return Column position, 0-based
+     */
+    public int column(final int index) {
+        return this.columns[index];
+    }
+
+    /**
+     * Decodes a Roman numeral token.
+     *
+     * The lexer only lets numerals through, so the one failure left is
+     * a run of digits past the int range, which reads as the largest
+     * int.
+     *
+     * @param code Source code
+     * @param start Offset of the first digit
+     * @param end Offset after the last digit
+     * @return Numeral value
+     */
+    private static int decoded(final String code, final int start, final int end) {
+        int result;
+        try {
+            result = PackedListing.NUMERALS.decoded(code, start, end);
+        } catch (final NumberFormatException ex) {
+            result = Integer.MAX_VALUE;
+        }
+        return result;
+    }
+}
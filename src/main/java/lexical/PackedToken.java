@@ -0,0 +1,54 @@
+package lexical;
+
+/**
+ * Token view over a PackedListing.
+ *
+ * Holds only the listing and the token index; every property
+ * is read from the listing's arrays on demand.
+ *
+ * Example usage:
+ * <pre>
+ * Token token = new PackedToken(listing, 0);
+ * </pre>
+ */
+public final class PackedToken implements Token {
+
+    /**
+     * Token categories by ordinal.
+     */
+    private static final TokenCategory[] CATEGORIES = TokenCategory.values();
+
+    private final PackedListing listing;
+    private final int index;
+
+    /**
+     * Primary constructor.
+     *
+     * @param tokens Listing that stores the token
+     * @param idx Token index in the listing
+     */
+    public PackedToken(final PackedListing tokens, final int idx) {
+        this.listing = tokens;
+        this.index = idx;
+    }
+
+    @Override
+    public TokenCategory category() {
+        return CATEGORIES[this.listing.kind(this.index)];
+    }
+
+    @Override
+    public String text() {
+        return this.listing.text(this.index);
+    }
+
+    @Override
+    public int line() {
+        return this.listing.line(this.index);
+    }
+
+    @Override
+    public int column() {
+        return this.listing.column(this.index);
+    }
+}
@@ -0,0 +1,240 @@
+package lexical;
+
+/**
+ * Decoder and encoder of Roman numerals.
+ *
+ * This final class turns the text of ROMAN tokens into numbers and
+ * numbers back into numerals. N is zero. Any other run of the digits
+ * M, D, C, L, X, V and I is read from right to left, and a digit counts
+ * negative when a larger one follows it. That gives the usual value for
+ * canonical numerals and a well-defined one for any run, such as a long
+ * MMMM... string. The decoder makes one pass with a digit table and no
+ * branch on the digits themselves.
+ *
+ * Numbers up to 3999 are encoded from a table of canonical numerals
+ * built once. Larger ones get one M per thousand in front of the
+ * canonical rest, and negative ones a minus sign.
+ *
+ * In strict mode only canonical numerals, N and I to MMMCMXCIX, are
+ * decoded, and only numbers 0 to 3999 are encoded.
+ *
+ * Example usage:
+ * <pre>
+ * int fourteen = new RomanCodec().decoded("XIV");
+ * long huge = new RomanCodec().decodedLong(runOfMs);
+ * String numeral = new RomanCodec(true).encoded(1977);
+ * </pre>
+ */
+public final class RomanCodec {
+
+    /**
+     * Largest number with a canonical numeral.
+     */
+    private static final int LARGEST = 3999;
+
+    /**
+     * Canonical numerals by value, N for zero.
+     */
+    private static final String[] CANONICAL = RomanCodec.canonical();
+
+    /**
+     * Digit values by ASCII character, zero for other characters.
+     */
+    private static final int[] DIGITS = RomanCodec.digits();
+
+    private final boolean strict;
+
+    /**
+     * Secondary constructor accepting any run of digits.
+     */
+    public RomanCodec() {
+        this(false);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param canonical Whether only canonical numerals are accepted
+     */
+    public RomanCodec(final boolean canonical) {
+        this.strict = canonical;
+    }
+
+    /**
+     * Decodes a whole numeral.
+     *
+     * @param text Numeral as written
+     * @return Numeral value
+     * @throws NumberFormatException if the text is not a numeral
+     */
+    public int decoded(final CharSequence text) {
+        return this.decoded(text, 0, text.length());
+    }
+
+    /**
+     * Decodes the numeral in a range of a text.
+     *
+     * @param text Text holding the numeral
+     * @param start Offset of the first digit
+     * @param end Offset after the last digit
+     * @return Numeral value
+     * @throws NumberFormatException if the range is not a numeral, is past
+     *  the int range, or, in strict mode, is not canonical
+     */
+    public int decoded(final CharSequence text, final int start, final int end) {
+        final long result = this.decodedLong(text, start, end);
+        if (result > Integer.MAX_VALUE) {
+            throw new NumberFormatException(
+                String.format("Roman numeral too large: %d digits", end - start)
+            );
+        }
+        return (int) result;
+    }
+
+    /**
+     * Decodes a whole numeral of any length.
+     *
+     * @param text Numeral as written
+     * @return Numeral value
+     * @throws NumberFormatException if the text is not a numeral
+     */
+    public long decodedLong(final CharSequence text) {
+        return this.decodedLong(text, 0, text.length());
+    }
+
+    /**
+     * Decodes the numeral in a range of a text, of any length.
+     *
+     * A text holds fewer than 2^31 digits, so the value always fits in a
+     * long.
+     *
+     * @param text Text holding the numeral
+     * @param start Offset of the first digit
+     * @param end Offset after the last digit
+     * @return Numeral value
+     * @throws NumberFormatException if the range is not a numeral or, in
+     *  strict mode, is not canonical
+     */
+    public long decodedLong(final CharSequence text, final int start, final int end) {
+        long total = 0;
+        int largest = 0;
+        int invalid = end - start - 1;
+        for (int pos = end - 1; pos >= start; pos = pos - 1) {
+            final char chr = text.charAt(pos);
+            int digit = 0;
+            if (chr < RomanCodec.DIGITS.length) {
+                digit = RomanCodec.DIGITS[chr];
+            }
+            invalid = invalid | digit - 1;
+            total = total + digit * ((digit - largest) >> 31 | 1);
+            largest = Math.max(largest, digit);
+        }
+        if (invalid < 0 && !(end - start == 1 && text.charAt(start) == 'N')) {
+            throw new NumberFormatException(
+                String.format("Not a Roman numeral: %s", text.subSequence(start, end))
+            );
+        }
+        if (this.strict && !RomanCodec.canonical(text, start, end, total)) {
+            throw new NumberFormatException(
+                String.format("Not a canonical Roman numeral: %s", text.subSequence(start, end))
+            );
+        }
+        return total;
+    }
+
+    /**
+     * Encodes a number as a numeral.
+     *
+     * @param value Number to encode
+     * @return Numeral, with a leading minus for negative numbers
+     * @throws IllegalArgumentException in strict mode, for numbers outside 0 to 3999
+     */
+    public String encoded(final int value) {
+        if (this.strict && (value < 0 || value > RomanCodec.LARGEST)) {
+            throw new IllegalArgumentException(
+                String.format("No canonical Roman numeral for %d", value)
+            );
+        }
+        final String result;
+        if (value >= 0 && value <= RomanCodec.LARGEST) {
+            result = RomanCodec.CANONICAL[value];
+        } else {
+            final long magnitude = Math.abs((long) value);
+            final StringBuilder out = new StringBuilder((int) (magnitude / 1000) + 16);
+            if (value < 0) {
+                out.append('-');
+            }
+            out.append("M".repeat((int) (magnitude / 1000)));
+            final int rest = (int) (magnitude % 1000);
+            if (rest > 0 || magnitude == 0) {
+                out.append(RomanCodec.CANONICAL[rest]);
+            }
+            result = out.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Checks a decoded range against the canonical numeral of its value.
+     *
+     * @param text Text holding the numeral
+     * @param start Offset of the first digit
+     * @param end Offset after the last digit
+     * @param value Decoded value
+     * @return True if the range is spelled exactly as the canonical numeral
+     */
+    private static boolean canonical(
+        final CharSequence text,
+        final int start,
+        final int end,
+        final long value
+    ) {
+        boolean result = value <= RomanCodec.LARGEST;
+        if (result) {
+            final String expected = RomanCodec.CANONICAL[(int) value];
+            result = expected.length() == end - start;
+            for (int idx = 0; result && idx < expected.length(); idx = idx + 1) {
+                result = expected.charAt(idx) == text.charAt(start + idx);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the canonical numerals of 0 to 3999.
+     *
+     * @return Numerals by value
+     */
+    private static String[] canonical() {
+        final String[] thousands = {"", "M", "MM", "MMM"};
+        final String[] hundreds = {"", "C", "CC", "CCC", "CD", "D", "DC", "DCC", "DCCC", "CM"};
+        final String[] tens = {"", "X", "XX", "XXX", "XL", "L", "LX", "LXX", "LXXX", "XC"};
+        final String[] ones = {"", "I", "II", "III", "IV", "V", "VI", "VII", "VIII", "IX"};
+        final String[] result = new String[RomanCodec.LARGEST + 1];
+        result[0] = "N";
+        for (int value = 1; value <= RomanCodec.LARGEST; value = value + 1) {
+            result[value] = thousands[value / 1000]
+                + hundreds[value / 100 % 10]
+                + tens[value / 10 % 10]
+                + ones[value % 10];
+        }
+        return result;
+    }
+
+    /**
+     * Builds the digit table.
+     *
+     * @return Values of the seven digits by ASCII character
+     */
+    private static int[] digits() {
+        final int[] table = new int[128];
+        table['I'] = 1;
+        table['V'] = 5;
+        table['X'] = 10;
+        table['L'] = 50;
+        table['C'] = 100;
+        table['D'] = 500;
+        table['M'] = 1000;
+        return table;
+    }
+}
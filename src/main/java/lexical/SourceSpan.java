@@ -0,0 +1,79 @@
+package lexical;
+
+import java.util.Objects;
+
+/**
+ * Slice of the source code, without copying it.
+ *
+ * This final class is a CharSequence view of a range of the source
+ * string. Creating and slicing it costs the same for any length;
+ * characters are copied only when toString() is asked for.
+ *
+ * Example usage:
+ * <pre>
+ * CharSequence span = new SourceSpan("As x = V", 5, 8);
+ * String text = span.toString(); // "= V"
+ * </pre>
+ */
+public final class SourceSpan implements CharSequence {
+
+    private final String source;
+
+    private final int start;
+
+    private final int end;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Source code
+     * @param begin Start offset, inclusive
+     * @param finish End offset, exclusive
+     */
+    public SourceSpan(final String code, final int begin, final int finish) {
+        this.source = code;
+        this.start = begin;
+        this.end = finish;
+    }
+
+    /**
+     * Extends this span through a later span of the same source.
+     *
+     * @param last Trailing span
+     * @return Span from the start of this one to the end of the last
+     */
+    public SourceSpan through(final SourceSpan last) {
+        return new SourceSpan(this.source, this.start, last.end);
+    }
+
+    /**
+     * Checks whether two spans slice the same source.
+     *
+     * @param other Another span
+     * @return True if both refer to the same source string
+     */
+    public boolean shares(final SourceSpan other) {
+        return this.source == other.source;
+    }
+
+    @Override
+    public int length() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return this.source.charAt(this.start + Objects.checkIndex(index, this.length()));
+    }
+
+    @Override
+    public CharSequence subSequence(final int from, final int to) {
+        Objects.checkFromToIndex(from, to, this.length());
+        return new SourceSpan(this.source, this.start + from, this.start + to);
+    }
+
+    @Override
+    public String toString() {
+        return this.source.substring(this.start, this.end);
+    }
+}
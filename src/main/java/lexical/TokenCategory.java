@@ -9,7 +9,7 @@ package lexical;
  * Example usage:
  * <pre>
  * if (token.category() == TokenCategory.ROMAN) {
- *     int value = parseRomanNumeral(token.text());
+ *     int value = new RomanCodec().decoded(token.text());
  * }
  * </pre>
  */
@@ -0,0 +1,33 @@
+package lexical;
+
+/**
+ * Callback receiving the tokens of a listing one by one.
+ *
+ * Lets a consumer walk a listing without a Token object per token:
+ * every property arrives as a primitive, and the text is given as
+ * an offset and a length into the source code.
+ *
+ * Example usage:
+ * <pre>
+ * listing.accept(
+ *     (index, category, offset, length, line, column) -&gt;
+ *         System.out.printf("%d:%d %s%n", line, column, category)
+ * );
+ * </pre>
+ */
+public interface TokenVisitor {
+
+    /**
+     * Receives one token.
+     *
+     * Called in source order, ending with the EOF token.
+     *
+     * @param index Token index in the listing, 0-based
+     * @param category Token category, never null
+     * @param offset Offset of the first character in the source code
+     * @param length Number of characters, zero for EOF
+     * @param line Line number, 1-based
+     * @param column Column position, 0-based
+     */
+    void visit(int index, TokenCategory category, int offset, int length, int line, int column);
+}
@@ -0,0 +1,79 @@
+package rome77.antlr;
+
+import ir.Function;
+import ir.Program;
+import ir.ProgramVisitor;
+import ir.Statement;
+import ir.simple.IrProgram;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import parsing.ParsingException;
+import rome77.Rome77Parser;
+import semantic.Analyzer;
+import semantic.SemanticException;
+
+/**
+ * Rome77 analyzer over the ANTLR parse tree.
+ *
+ * This final class builds ir.simple objects directly from the contexts
+ * of the generated parser, dispatching on labeled alternatives through
+ * the generated visitor instead of matching SyntaxNode names.
+ *
+ * Functions are known by name, arity and target from the start, so they
+ * may be called before their definition. Everything else is checked statement
+ * by statement, as AntlrStatements describes.
+ *
+ * Example usage:
+ * <pre>
+ * Program program = new AntlrAnalyzer(new Rome77Syntax(code).program()).analyzed();
+ * </pre>
+ */
+public final class AntlrAnalyzer implements Analyzer {
+
+    private final Rome77Parser.ProgramContext program;
+
+    /**
+     * Primary constructor.
+     *
+     * @param ctx Program context produced by the generated parser
+     */
+    public AntlrAnalyzer(final Rome77Parser.ProgramContext ctx) {
+        this.program = ctx;
+    }
+
+    @Override
+    public Program analyzed() throws ParsingException {
+        final List<Rome77Parser.StatementContext> statements = this.program.statement();
+        final AntlrCalls calls = new AntlrCalls(new HashMap<>(), false);
+        for (final Rome77Parser.StatementContext statement : statements) {
+            final Rome77Parser.FunctionDefContext def = statement.functionDef();
+            if (def != null) {
+                calls.define(def.IDENTIFIER().getText(), def.params().IDENTIFIER().size());
+            }
+        }
+        final List<Function> functions = new ArrayList<>();
+        final List<Statement> body = new ArrayList<>();
+        final ProgramVisitor collected = new ProgramVisitor() {
+            @Override
+            public void function(final Function function) {
+                functions.add(function);
+            }
+
+            @Override
+            public void statement(final Statement statement) {
+                body.add(statement);
+            }
+        };
+        final AntlrStatements analysis = new AntlrStatements(calls);
+        try {
+            for (final Rome77Parser.StatementContext statement : statements) {
+                analysis.analyzed(statement, collected);
+            }
+        } catch (final ParseCancellationException ex) {
+            throw (SemanticException) ex.getCause();
+        }
+        return new IrProgram(functions, body);
+    }
+}
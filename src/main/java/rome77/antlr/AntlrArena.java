@@ -0,0 +1,192 @@
+package rome77.antlr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lexical.PackedListing;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import rome77.arena.ArenaTree;
+
+/**
+ * Copies an ANTLR parse tree into an arena tree.
+ *
+ * The root gets index 0, and the children of every node are given
+ * consecutive indexes together, as the arena tree expects. Names are derived once per context
+ * class and once per token type, the same way AntlrNode derives them,
+ * and interned into one table shared by all nodes.
+ *
+ * Example usage:
+ * <pre>
+ * ArenaTree tree = new AntlrArena(parser, listing).tree(program);
+ * </pre>
+ */
+final class AntlrArena {
+
+    private final Parser parser;
+
+    private final PackedListing listing;
+
+    private final List<String> table;
+
+    private final Map<String, Integer> interned;
+
+    private final Map<Class<?>, Integer> rules;
+
+    private final Map<Integer, Integer> terminals;
+
+    private int size;
+
+    private int[] kinds;
+
+    private int[] firsts;
+
+    private int[] counts;
+
+    private int[] starts;
+
+    private int[] stops;
+
+    /**
+     * Primary constructor.
+     *
+     * @param prs Parser for vocabulary access
+     * @param tokens Packed tokens of the parsed stream
+     */
+    AntlrArena(final Parser prs, final PackedListing tokens) {
+        this.parser = prs;
+        this.listing = tokens;
+        this.table = new ArrayList<>(16);
+        this.interned = new HashMap<>();
+        this.rules = new HashMap<>();
+        this.terminals = new HashMap<>();
+        final int capacity = tokens.size() * 2;
+        this.kinds = new int[capacity];
+        this.firsts = new int[capacity];
+        this.counts = new int[capacity];
+        this.starts = new int[capacity];
+        this.stops = new int[capacity];
+    }
+
+    /**
+     * Copies a parse tree.
+     *
+     * @param root Root of the ANTLR parse tree
+     * @return Arena tree with the same nodes
+     */
+    ArenaTree tree(final ParseTree root) {
+        ParseTree[] pending = new ParseTree[16];
+        int[] places = new int[pending.length];
+        pending[0] = root;
+        places[0] = 0;
+        int top = 1;
+        this.size = 1;
+        while (top > 0) {
+            top = top - 1;
+            final ParseTree node = pending[top];
+            final int first = this.filled(node, places[top]);
+            if (top + node.getChildCount() > pending.length) {
+                pending = Arrays.copyOf(pending, (top + node.getChildCount()) * 2);
+                places = Arrays.copyOf(places, pending.length);
+            }
+            for (int pos = node.getChildCount() - 1; pos >= 0; pos = pos - 1) {
+                pending[top] = node.getChild(pos);
+                places[top] = first + pos;
+                top = top + 1;
+            }
+        }
+        return new ArenaTree(
+            this.listing,
+            this.table.toArray(new String[0]),
+            this.size,
+            Arrays.copyOf(this.kinds, this.size),
+            Arrays.copyOf(this.firsts, this.size),
+            Arrays.copyOf(this.counts, this.size),
+            Arrays.copyOf(this.starts, this.size),
+            Arrays.copyOf(this.stops, this.size)
+        );
+    }
+
+    /**
+     * Fills in a node and gives its children their indexes.
+     *
+     * The tree is walked with an explicit stack, so a chain of
+     * left-recursive rules as deep as the source is long cannot
+     * overflow the thread stack.
+     *
+     * @param node ANTLR parse tree node
+     * @param idx Index given to the node
+     * @return Index given to the first child
+     */
+    private int filled(final ParseTree node, final int idx) {
+        this.kinds[idx] = this.name(node);
+        this.counts[idx] = node.getChildCount();
+        if (node instanceof ParserRuleContext) {
+            this.starts[idx] = ((ParserRuleContext) node).getStart().getTokenIndex();
+            this.stops[idx] = ((ParserRuleContext) node).getStop().getTokenIndex();
+        } else {
+            this.starts[idx] = ((TerminalNode) node).getSymbol().getTokenIndex();
+            this.stops[idx] = this.starts[idx];
+        }
+        final int result = this.size;
+        if (node.getChildCount() == 0) {
+            this.firsts[idx] = ArenaTree.NONE;
+        } else {
+            this.firsts[idx] = result;
+        }
+        this.size = result + node.getChildCount();
+        while (this.size > this.kinds.length) {
+            this.grow();
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the interned name of a node.
+     *
+     * @param node ANTLR parse tree node
+     * @return Index into the name table
+     */
+    private int name(final ParseTree node) {
+        final Integer cached;
+        if (node instanceof TerminalNode) {
+            cached = this.terminals.get(((TerminalNode) node).getSymbol().getType());
+        } else {
+            cached = this.rules.get(node.getClass());
+        }
+        final int result;
+        if (cached == null) {
+            result = this.interned.computeIfAbsent(
+                new AntlrNode(node, this.parser).name(),
+                key -> {
+                    this.table.add(key);
+                    return this.table.size() - 1;
+                }
+            );
+            if (node instanceof TerminalNode) {
+                this.terminals.put(((TerminalNode) node).getSymbol().getType(), result);
+            } else {
+                this.rules.put(node.getClass(), result);
+            }
+        } else {
+            result = cached;
+        }
+        return result;
+    }
+
+    /**
+     * Doubles the capacity of the node arrays.
+     */
+    private void grow() {
+        final int capacity = Math.max(16, this.kinds.length * 2);
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.firsts = Arrays.copyOf(this.firsts, capacity);
+        this.counts = Arrays.copyOf(this.counts, capacity);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.stops = Arrays.copyOf(this.stops, capacity);
+    }
+}
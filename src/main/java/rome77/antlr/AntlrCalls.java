@@ -0,0 +1,134 @@
+package rome77.antlr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Function signatures checked against the references to them.
+ *
+ * This final class knows the number of parameters of every function
+ * defined so far, and its target: the order of its definition, which
+ * is its index among the functions of the program. A closed table holds all functions of the program
+ * up front and rejects a bad reference at once. An open table accepts
+ * a reference to a function it does not know yet and keeps it until
+ * closed(), when every kept reference is checked against the functions
+ * defined by then. Open tables serve analysis that sees the program
+ * one statement at a time; a call of a function defined later stays
+ * without a target there.
+ *
+ * Example usage:
+ * <pre>
+ * AntlrCalls calls = new AntlrCalls(new HashMap&lt;&gt;(), true);
+ * calls.check(name, 1, "Undefined function: %s");
+ * calls.define("f", 1);
+ * int target = calls.target("f");
+ * calls.closed();
+ * </pre>
+ */
+final class AntlrCalls {
+
+    private final Map<String, Integer> arities;
+
+    private final Map<String, Integer> targets;
+
+    private final boolean open;
+
+    private final List<Token> names;
+
+    private final List<Integer> counts;
+
+    private final List<String> missing;
+
+    /**
+     * Primary constructor.
+     *
+     * @param signatures Number of parameters by function name
+     * @param deferred Whether unknown functions are checked only when closed
+     */
+    AntlrCalls(final Map<String, Integer> signatures, final boolean deferred) {
+        this.arities = signatures;
+        this.targets = new HashMap<>();
+        this.open = deferred;
+        this.names = new ArrayList<>(0);
+        this.counts = new ArrayList<>(0);
+        this.missing = new ArrayList<>(0);
+    }
+
+    /**
+     * Tells whether a name may be called.
+     *
+     * @param name Function name
+     * @return True if the function is known or may be defined later
+     */
+    boolean callable(final String name) {
+        return this.open || this.arities.containsKey(name);
+    }
+
+    /**
+     * Records the signature of a defined function.
+     *
+     * The first definition of a name wins, and takes the next target.
+     *
+     * @param name Function name
+     * @param arity Number of parameters
+     */
+    void define(final String name, final int arity) {
+        this.arities.putIfAbsent(name, arity);
+        this.targets.putIfAbsent(name, this.targets.size());
+    }
+
+    /**
+     * Returns the target of a call.
+     *
+     * @param name Function name
+     * @return Index of the function among the functions, negative if
+     *  not defined so far
+     */
+    int target(final String name) {
+        return this.targets.getOrDefault(name, -1);
+    }
+
+    /**
+     * Checks a reference to a function.
+     *
+     * @param name Identifier token
+     * @param count Number of arguments given
+     * @param undefined Error message format for an unknown name
+     */
+    void check(final Token name, final int count, final String undefined) {
+        final Integer arity = this.arities.get(name.getText());
+        if (arity == null && this.open) {
+            this.names.add(name);
+            this.counts.add(count);
+            this.missing.add(undefined);
+        } else if (arity == null) {
+            throw AntlrExpressions.failure(name, String.format(undefined, name.getText()));
+        } else if (arity != count) {
+            throw AntlrExpressions.failure(
+                name,
+                String.format(
+                    "Function %s expects %d arguments, got %d",
+                    name.getText(), arity, count
+                )
+            );
+        }
+    }
+
+    /**
+     * Checks the references kept while the table was open.
+     *
+     * Reports the first bad reference in source order.
+     */
+    void closed() {
+        final AntlrCalls strict = new AntlrCalls(this.arities, false);
+        for (int idx = 0; idx < this.names.size(); idx = idx + 1) {
+            strict.check(this.names.get(idx), this.counts.get(idx), this.missing.get(idx));
+        }
+        this.names.clear();
+        this.counts.clear();
+        this.missing.clear();
+    }
+}
@@ -0,0 +1,424 @@
+package rome77.antlr;
+
+import ir.Expression;
+import ir.Frame;
+import ir.Operator;
+import ir.Value;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrConditional;
+import ir.simple.IrInput;
+import ir.simple.IrLiteral;
+import ir.simple.IrUnaryOp;
+import ir.simple.IrVariable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lexical.RomanCodec;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import rome77.Rome77BaseVisitor;
+import rome77.Rome77Parser;
+import semantic.SemanticException;
+
+/**
+ * Builds IR expressions straight from ANTLR expression contexts.
+ *
+ * This final class is a generated-visitor subclass with one method per
+ * labeled alternative of the expression rules. Pass-through alternatives
+ * return what their only child builds, so no intermediate node is made.
+ * Names are resolved while visiting: variables against the names in
+ * scope, to their slot in the frame of the scope, calls against the
+ * function signatures, to their target. A bare name that is not in scope counts as a
+ * call without arguments.
+ *
+ * The grammar reads a variable followed by an operator as an application
+ * of the variable, so "n - I" arrives as a call of n with the argument
+ * "-I", and "f n - I II" as a call of f with the argument "n -I II".
+ * Since variables cannot be called, such an application is read back as
+ * arithmetic: the leading sign of an argument becomes a binary operator
+ * whose left operand is the value before it, and the remaining arguments
+ * are passed on to the enclosing call. The first semantic error
+ * aborts the walk as a ParseCancellationException carrying the
+ * SemanticException, the way a bail-out error strategy aborts a parse.
+ *
+ * Example usage:
+ * <pre>
+ * Expression body = new AntlrExpressions(calls, params, Frame.PARAMETER).visit(ctx.expr());
+ * </pre>
+ */
+final class AntlrExpressions extends Rome77BaseVisitor<Expression> {
+
+    /**
+     * Decoder of numeral literals, accepting any run of digits.
+     */
+    private static final RomanCodec NUMERALS = new RomanCodec();
+
+    /**
+     * Signatures of the functions that may be called.
+     */
+    private final AntlrCalls calls;
+
+    /**
+     * Slots of the variables that may be referenced.
+     */
+    private final Map<String, Integer> names;
+
+    /**
+     * Frame the variables in scope live in.
+     */
+    private final Frame frame;
+
+    /**
+     * Primary constructor.
+     *
+     * @param signatures Signatures of the functions that may be called
+     * @param scope Slots of the variables that may be referenced
+     * @param storage Frame of the variables in scope
+     */
+    AntlrExpressions(
+        final AntlrCalls signatures,
+        final Map<String, Integer> scope,
+        final Frame storage
+    ) {
+        this.calls = signatures;
+        this.names = scope;
+        this.frame = storage;
+    }
+
+    @Override
+    public Expression visitConditional(final Rome77Parser.ConditionalContext ctx) {
+        return new IrConditional(
+            this.visit(ctx.expr(0)),
+            this.visit(ctx.expr(1)),
+            this.visit(ctx.expr(2))
+        );
+    }
+
+    @Override
+    public Expression visitFuncCall(final Rome77Parser.FuncCallContext ctx) {
+        final List<Expression> values = this.applied(ctx);
+        if (values.size() != 1) {
+            final Token name = ctx.IDENTIFIER().getSymbol();
+            throw AntlrExpressions.failure(
+                name, String.format("Undefined function: %s", name.getText())
+            );
+        }
+        return values.get(0);
+    }
+
+    @Override
+    public Expression visitArithmetic(final Rome77Parser.ArithmeticContext ctx) {
+        return this.visit(ctx.additive());
+    }
+
+    @Override
+    public Expression visitToMult(final Rome77Parser.ToMultContext ctx) {
+        return this.visit(ctx.multiplicative());
+    }
+
+    @Override
+    public Expression visitAddSub(final Rome77Parser.AddSubContext ctx) {
+        final List<Rome77Parser.AddSubContext> chain = new ArrayList<>();
+        Rome77Parser.AdditiveContext current = ctx;
+        while (current instanceof Rome77Parser.AddSubContext) {
+            chain.add((Rome77Parser.AddSubContext) current);
+            current = ((Rome77Parser.AddSubContext) current).additive();
+        }
+        return this.summed(chain, this.visit(current));
+    }
+
+    @Override
+    public Expression visitToUnary(final Rome77Parser.ToUnaryContext ctx) {
+        return this.visit(ctx.unary());
+    }
+
+    @Override
+    public Expression visitMulDiv(final Rome77Parser.MulDivContext ctx) {
+        final List<Rome77Parser.MulDivContext> chain = new ArrayList<>();
+        Rome77Parser.MultiplicativeContext current = ctx;
+        while (current instanceof Rome77Parser.MulDivContext) {
+            chain.add((Rome77Parser.MulDivContext) current);
+            current = ((Rome77Parser.MulDivContext) current).multiplicative();
+        }
+        return this.multiplied(chain, this.visit(current));
+    }
+
+    @Override
+    public Expression visitUnaryOp(final Rome77Parser.UnaryOpContext ctx) {
+        return new IrUnaryOp(AntlrExpressions.sign(ctx.op), this.visit(ctx.unary()));
+    }
+
+    @Override
+    public Expression visitToPrimary(final Rome77Parser.ToPrimaryContext ctx) {
+        return this.visit(ctx.primary());
+    }
+
+    @Override
+    public Expression visitRomanLiteral(final Rome77Parser.RomanLiteralContext ctx) {
+        return new IrLiteral(
+            Value.of(AntlrExpressions.NUMERALS.decodedLong(ctx.ROMAN().getText()))
+        );
+    }
+
+    @Override
+    public Expression visitVariable(final Rome77Parser.VariableContext ctx) {
+        final Token name = ctx.IDENTIFIER().getSymbol();
+        if (!this.names.containsKey(name.getText())) {
+            this.calls.check(name, 0, "Undefined variable: %s");
+        }
+        return this.variable(name.getText());
+    }
+
+    @Override
+    public Expression visitReadInput(final Rome77Parser.ReadInputContext ctx) {
+        return new IrInput();
+    }
+
+    @Override
+    public Expression visitParens(final Rome77Parser.ParensContext ctx) {
+        return this.visit(ctx.expr());
+    }
+
+    /**
+     * Builds the values an application contributes to an argument list.
+     *
+     * A call of a function gives one value. An application of a variable
+     * gives the variable, extended by the arguments that start with a
+     * sign, followed by the other arguments as separate values.
+     *
+     * @param ctx Application context
+     * @return Values in source order
+     */
+    private List<Expression> applied(final Rome77Parser.FuncCallContext ctx) {
+        final Token name = ctx.IDENTIFIER().getSymbol();
+        final boolean variable = this.names.containsKey(name.getText());
+        final String undefined;
+        if (AntlrExpressions.signed(ctx.expr(0))) {
+            undefined = "Undefined variable: %s";
+        } else {
+            undefined = "Undefined function: %s";
+        }
+        if (!variable && !this.calls.callable(name.getText())) {
+            throw AntlrExpressions.failure(name, String.format(undefined, name.getText()));
+        }
+        final List<Expression> values = new ArrayList<>(ctx.getChildCount());
+        if (variable) {
+            values.add(this.variable(name.getText()));
+        }
+        for (final Rome77Parser.ExprContext arg : ctx.expr()) {
+            if (AntlrExpressions.signed(arg) && !values.isEmpty()) {
+                final Expression left = values.remove(values.size() - 1);
+                values.add(this.extended(((Rome77Parser.ArithmeticContext) arg).additive(), left));
+            } else if (arg instanceof Rome77Parser.FuncCallContext) {
+                values.addAll(this.applied((Rome77Parser.FuncCallContext) arg));
+            } else {
+                values.add(this.visit(arg));
+            }
+        }
+        final List<Expression> result;
+        if (variable) {
+            result = values;
+        } else {
+            this.calls.check(name, values.size(), undefined);
+            result = List.of(
+                new IrCall(name.getText(), this.calls.target(name.getText()), values)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a reference resolved against the scope.
+     *
+     * @param name Variable name
+     * @return Variable with its slot, unresolved if not in scope
+     */
+    private IrVariable variable(final String name) {
+        final Integer slot = this.names.get(name);
+        final IrVariable result;
+        if (slot == null) {
+            result = new IrVariable(name);
+        } else {
+            result = new IrVariable(name, this.frame, slot);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a signed sum as the continuation of a value before it.
+     *
+     * The sign of the leftmost operand becomes the binary operator
+     * between the value and that operand, so "-b * c" after "a" gives
+     * a - b * c.
+     *
+     * @param ctx Sum whose leftmost operand starts with a sign
+     * @param left Value before the sum
+     * @return Expression with the value as leftmost operand
+     */
+    private Expression extended(final Rome77Parser.AdditiveContext ctx, final Expression left) {
+        final List<Rome77Parser.AddSubContext> chain = new ArrayList<>();
+        Rome77Parser.AdditiveContext current = ctx;
+        while (current instanceof Rome77Parser.AddSubContext) {
+            chain.add((Rome77Parser.AddSubContext) current);
+            current = ((Rome77Parser.AddSubContext) current).additive();
+        }
+        final Rome77Parser.MultiplicativeContext product =
+            ((Rome77Parser.ToMultContext) current).multiplicative();
+        Rome77Parser.MultiplicativeContext first = product;
+        while (first instanceof Rome77Parser.MulDivContext) {
+            first = ((Rome77Parser.MulDivContext) first).multiplicative();
+        }
+        return this.summed(
+            chain,
+            new IrBinaryOp(
+                AntlrExpressions.sign(
+                    ((Rome77Parser.UnaryOpContext) ((Rome77Parser.ToUnaryContext) first).unary()).op
+                ),
+                left,
+                this.unsigned(product)
+            )
+        );
+    }
+
+    /**
+     * Builds a product without the sign of its leftmost operand.
+     *
+     * @param ctx Product whose leftmost operand starts with a sign
+     * @return Expression of the product with the sign dropped
+     */
+    private Expression unsigned(final Rome77Parser.MultiplicativeContext ctx) {
+        final List<Rome77Parser.MulDivContext> chain = new ArrayList<>();
+        Rome77Parser.MultiplicativeContext current = ctx;
+        while (current instanceof Rome77Parser.MulDivContext) {
+            chain.add((Rome77Parser.MulDivContext) current);
+            current = ((Rome77Parser.MulDivContext) current).multiplicative();
+        }
+        return this.multiplied(
+            chain,
+            this.visit(
+                ((Rome77Parser.UnaryOpContext) ((Rome77Parser.ToUnaryContext) current).unary())
+                    .unary()
+            )
+        );
+    }
+
+    /**
+     * Builds a sum back up from its leftmost operand.
+     *
+     * A sum of many terms nests to the left as deep as it is long, so the
+     * chain is walked down in a loop and folded here, instead of with one
+     * call per level.
+     *
+     * @param chain Additions and subtractions, outermost first
+     * @param first Leftmost operand, already built
+     * @return Expression of the whole sum
+     */
+    private Expression summed(
+        final List<Rome77Parser.AddSubContext> chain,
+        final Expression first
+    ) {
+        Expression result = first;
+        for (int idx = chain.size() - 1; idx >= 0; idx = idx - 1) {
+            final Rome77Parser.AddSubContext sum = chain.get(idx);
+            result = new IrBinaryOp(
+                AntlrExpressions.sign(sum.op),
+                result,
+                this.visit(sum.multiplicative())
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a product back up from its leftmost operand.
+     *
+     * @param chain Multiplications and divisions, outermost first
+     * @param first Leftmost operand, already built
+     * @return Expression of the whole product
+     */
+    private Expression multiplied(
+        final List<Rome77Parser.MulDivContext> chain,
+        final Expression first
+    ) {
+        Expression result = first;
+        for (int idx = chain.size() - 1; idx >= 0; idx = idx - 1) {
+            final Rome77Parser.MulDivContext product = chain.get(idx);
+            result = new IrBinaryOp(
+                AntlrExpressions.scale(product.op),
+                result,
+                this.visit(product.unary())
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Wraps a semantic error so it can leave a visitor method.
+     *
+     * @param token Token the error is reported at
+     * @param msg Error message
+     * @return Unchecked exception carrying the SemanticException
+     */
+    static ParseCancellationException failure(final Token token, final String msg) {
+        return new ParseCancellationException(
+            new SemanticException(token.getLine(), token.getCharPositionInLine(), msg)
+        );
+    }
+
+    /**
+     * Checks whether an expression starts with a sign.
+     *
+     * @param ctx Expression context
+     * @return True if the leftmost operand is a unary plus or minus
+     */
+    private static boolean signed(final Rome77Parser.ExprContext ctx) {
+        boolean result = false;
+        if (ctx instanceof Rome77Parser.ArithmeticContext) {
+            Rome77Parser.AdditiveContext sum = ((Rome77Parser.ArithmeticContext) ctx).additive();
+            while (sum instanceof Rome77Parser.AddSubContext) {
+                sum = ((Rome77Parser.AddSubContext) sum).additive();
+            }
+            Rome77Parser.MultiplicativeContext product =
+                ((Rome77Parser.ToMultContext) sum).multiplicative();
+            while (product instanceof Rome77Parser.MulDivContext) {
+                product = ((Rome77Parser.MulDivContext) product).multiplicative();
+            }
+            result = ((Rome77Parser.ToUnaryContext) product).unary()
+                instanceof Rome77Parser.UnaryOpContext;
+        }
+        return result;
+    }
+
+    /**
+     * Maps a plus or minus token to its operator.
+     *
+     * @param op Operator token
+     * @return ADD or SUB
+     */
+    private static Operator sign(final Token op) {
+        final Operator result;
+        if (op.getType() == Rome77Parser.PLUS) {
+            result = Operator.ADD;
+        } else {
+            result = Operator.SUB;
+        }
+        return result;
+    }
+
+    /**
+     * Maps a multiplication or division token to its operator.
+     *
+     * @param op Operator token
+     * @return MUL or DIV
+     */
+    private static Operator scale(final Token op) {
+        final Operator result;
+        if (op.getType() == Rome77Parser.MULT) {
+            result = Operator.MUL;
+        } else {
+            result = Operator.DIV;
+        }
+        return result;
+    }
+}
@@ -1,55 +1,164 @@
 package rome77.antlr;
 
 import lexical.Listing;
+import lexical.PackedListing;
 import lexical.Token;
-import org.antlr.v4.runtime.CommonTokenStream;
+import lexical.TokenCategory;
+import lexical.TokenVisitor;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.misc.Interval;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * Token listing from ANTLR token stream.
  *
- * Wraps CommonTokenStream to provide immutable lexical.Listing interface.
- * Captures all tokens at construction time.
+ * Packs the tokens of a buffered token stream into the parallel arrays
+ * of a PackedListing at construction time, so no ANTLR token is retained.
+ * Categories are resolved through the vocabulary once per token type,
+ * and offsets are converted from code points to chars of the source.
  *
  * Example usage:
  * <pre>
- * Listing listing = new AntlrListing(tokenStream, parser);
+ * Listing listing = new AntlrListing(tokenStream, lexer.getVocabulary());
  * </pre>
  */
 public final class AntlrListing implements Listing {
 
-    private final List<Token> tokens;
+    private final PackedListing packed;
 
     /**
-     * Primary constructor.
+     * Secondary constructor.
      *
      * @param stream Token stream from lexer
      * @param parser Parser for vocabulary access
      */
     public AntlrListing(
-        final CommonTokenStream stream,
+        final BufferedTokenStream stream,
         final Parser parser
+    ) {
+        this(stream, parser.getVocabulary());
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param stream Token stream from lexer
+     * @param vocabulary Vocabulary naming the token types
+     */
+    public AntlrListing(
+        final BufferedTokenStream stream,
+        final Vocabulary vocabulary
     ) {
         stream.fill();
         final List<org.antlr.v4.runtime.Token> antlr = stream.getTokens();
-        final List<Token> captured = new ArrayList<>(antlr.size());
-        for (final org.antlr.v4.runtime.Token tok : antlr) {
-            captured.add(new AntlrToken(tok, parser));
+        final CharStream input = stream.getTokenSource().getInputStream();
+        final String code = input.getText(Interval.of(0, input.size() - 1));
+        final int size = antlr.size();
+        final int[] categories = new int[size];
+        final int[] begins = new int[size];
+        final int[] finishes = new int[size];
+        final int[] rows = new int[size];
+        final int[] cols = new int[size];
+        final int[] resolved = new int[vocabulary.getMaxTokenType() + 2];
+        int point = 0;
+        int offset = 0;
+        for (int idx = 0; idx < size; idx = idx + 1) {
+            final org.antlr.v4.runtime.Token tok = antlr.get(idx);
+            categories[idx] = AntlrListing.category(tok, vocabulary, resolved);
+            rows[idx] = tok.getLine();
+            cols[idx] = tok.getCharPositionInLine();
+            if (tok.getType() == org.antlr.v4.runtime.Token.EOF) {
+                begins[idx] = code.length();
+                finishes[idx] = code.length();
+            } else {
+                offset = code.offsetByCodePoints(offset, tok.getStartIndex() - point);
+                point = tok.getStartIndex();
+                begins[idx] = offset;
+                offset = code.offsetByCodePoints(offset, tok.getStopIndex() + 1 - point);
+                point = tok.getStopIndex() + 1;
+                finishes[idx] = offset;
+            }
         }
-        this.tokens = Collections.unmodifiableList(captured);
+        this.packed = new PackedListing(code, size, categories, begins, finishes, rows, cols);
     }
 
     @Override
     public Iterable<Token> tokens() {
-        return this.tokens;
+        return this.packed.tokens();
     }
 
     @Override
     public int size() {
-        return this.tokens.size();
+        return this.packed.size();
+    }
+
+    @Override
+    public Token token(final int index) {
+        return this.packed.token(index);
+    }
+
+    @Override
+    public void accept(final TokenVisitor visitor) {
+        this.packed.accept(visitor);
+    }
+
+    /**
+     * Returns the packed arrays behind this listing.
+     *
+     * @return Listing of the same tokens
+     */
+    public PackedListing packed() {
+        return this.packed;
+    }
+
+    /**
+     * Returns the value of the Roman numeral at the given index.
+     *
+     * @param index Token index
+     * @return Numeral value, zero for tokens of other categories
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public int value(final int index) {
+        return this.packed.value(index);
+    }
+
+    /**
+     * Resolves the category ordinal of an ANTLR token.
+     *
+     * Resolved ordinals are cached by token type, shifted by one so
+     * that EOF fits at the start and zero means not yet resolved.
+     *
+     * @param tok ANTLR token
+     * @param vocabulary Vocabulary naming the token types
+     * @param resolved Cache of category ordinals plus one, by type plus one
+     * @return Category ordinal
+     */
+    private static int category(
+        final org.antlr.v4.runtime.Token tok,
+        final Vocabulary vocabulary,
+        final int[] resolved
+    ) {
+        final int slot = tok.getType() + 1;
+        if (resolved[slot] == 0) {
+            final String name = vocabulary.getSymbolicName(tok.getType());
+            try {
+                resolved[slot] = TokenCategory.valueOf(name).ordinal() + 1;
+            } catch (final IllegalArgumentException | NullPointerException ex) {
+                throw new IllegalStateException(
+                    String.format(
+                        "Unknown token type: %s at %d:%d",
+                        name,
+                        tok.getLine(),
+                        tok.getCharPositionInLine()
+                    ),
+                    ex
+                );
+            }
+        }
+        return resolved[slot] - 1;
     }
 }
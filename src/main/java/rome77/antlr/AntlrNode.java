@@ -3,8 +3,11 @@ package rome77.antlr;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import syntax.SyntaxNode;
@@ -14,6 +17,8 @@ import syntax.SyntaxNode;
  *
  * This final class adapts ANTLR's ParseTree nodes to the
  * immutable SyntaxNode interface. Supports both rule and terminal nodes.
+ * Rule text is read from the character stream between the start and
+ * stop tokens rather than rebuilt from the descendants.
  *
  * Example usage:
  * <pre>
@@ -71,7 +76,30 @@ public final class AntlrNode implements SyntaxNode {
 
     @Override
     public String text() {
-        return this.tree.getText();
+        final String result;
+        if (this.tree instanceof ParserRuleContext) {
+            result = this.span().toString();
+        } else {
+            result = this.tree.getText();
+        }
+        return result;
+    }
+
+    @Override
+    public CharSequence span() {
+        final CharSequence result;
+        if (this.tree instanceof ParserRuleContext) {
+            final ParserRuleContext rule = (ParserRuleContext) this.tree;
+            result = rule.getStart().getInputStream().getText(
+                Interval.of(rule.getStart().getStartIndex(), rule.getStop().getStopIndex())
+            );
+        } else if (this.tree instanceof TerminalNode
+            && ((TerminalNode) this.tree).getSymbol().getType() != Token.EOF) {
+            result = this.tree.getText();
+        } else {
+            result = "";
+        }
+        return result;
     }
 
     @Override
@@ -109,4 +137,17 @@ public final class AntlrNode implements SyntaxNode {
         }
         return Collections.unmodifiableList(nodes);
     }
+
+    @Override
+    public int childCount() {
+        return this.tree.getChildCount();
+    }
+
+    @Override
+    public SyntaxNode child(final int index) {
+        return new AntlrNode(
+            this.tree.getChild(Objects.checkIndex(index, this.tree.getChildCount())),
+            this.parser
+        );
+    }
 }
@@ -0,0 +1,224 @@
+package rome77.antlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import lexical.LexicalException;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import parsing.ParsingException;
+import rome77.Rome77Parser;
+import syntax.SyntaxException;
+import syntax.SyntaxNode;
+
+/**
+ * Piece of Rome77 source holding one top-level statement.
+ *
+ * This final class keeps the text of a piece, from a statement keyword
+ * up to the next one, with the comments and blanks that follow the
+ * statement. The piece is lexed and parsed on its own, as if it were a
+ * whole source starting at line 1, column 0, on first use; the result,
+ * or the error, is kept. Positions are moved to the place of the piece
+ * in the source when the tree is read, so a piece can be shared by
+ * every version of a source it still belongs to. A piece is not meant
+ * to be shared between threads.
+ *
+ * Example usage:
+ * <pre>
+ * List&lt;AntlrPiece&gt; pieces = AntlrPiece.cut("Grafo I\nGrafo II");
+ * SyntaxNode root = pieces.get(1).root(2, 0);
+ * </pre>
+ */
+final class AntlrPiece {
+
+    private final String source;
+
+    private AntlrTree tree;
+
+    private ParsingException error;
+
+    private int breaks;
+
+    private int rest;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Text of the piece
+     */
+    AntlrPiece(final String code) {
+        this.source = code;
+        this.breaks = -1;
+    }
+
+    /**
+     * Returns the text of the piece.
+     *
+     * @return Source text
+     */
+    String text() {
+        return this.source;
+    }
+
+    /**
+     * Returns the program node of the piece, placed in the source.
+     *
+     * @param line Line the piece starts on
+     * @param column Column the piece starts at
+     * @return Program node with absolute positions
+     * @throws ParsingException If the piece has an error, at its absolute position
+     */
+    SyntaxNode root(final int line, final int column) throws ParsingException {
+        if (this.tree == null && this.error == null) {
+            try {
+                this.tree = new Rome77Syntax(this.source).parsed();
+            } catch (final ParsingException ex) {
+                this.error = ex;
+            }
+        }
+        if (this.error != null) {
+            throw AntlrPiece.shifted(this.error, line, column);
+        }
+        return new ShiftedNode(this.tree.root(), line, column);
+    }
+
+    /**
+     * Counts the line breaks in the piece.
+     *
+     * @return Number of line breaks
+     */
+    int lines() {
+        this.counted();
+        return this.breaks;
+    }
+
+    /**
+     * Counts the characters after the last line break of the piece.
+     *
+     * @return Columns the piece moves the next one by on its last line
+     */
+    int tail() {
+        this.counted();
+        return this.rest;
+    }
+
+    /**
+     * Cuts source text into pieces before every statement keyword.
+     *
+     * The first piece also holds whatever precedes the first keyword.
+     * There is always at least one piece, empty for empty text.
+     *
+     * @param code Source text
+     * @return Pieces in source order
+     */
+    static List<AntlrPiece> cut(final String code) {
+        final Lexer lexer = AntlrPiece.lexer(code);
+        final List<AntlrPiece> result = new ArrayList<>();
+        int from = 0;
+        int point = 0;
+        Token token = lexer.nextToken();
+        while (token.getType() != Token.EOF) {
+            if (token.getStartIndex() > point && AntlrPiece.keyword(token)) {
+                final int at = code.offsetByCodePoints(from, token.getStartIndex() - point);
+                result.add(new AntlrPiece(code.substring(from, at)));
+                from = at;
+                point = token.getStartIndex();
+            }
+            token = lexer.nextToken();
+        }
+        result.add(new AntlrPiece(code.substring(from)));
+        return result;
+    }
+
+    /**
+     * Checks that a statement keyword starts right where two texts meet.
+     *
+     * Only then do the texts lex, side by side, the way each lexes on
+     * its own, and may stay separate pieces.
+     *
+     * @param left Text before the boundary
+     * @param right Text after the boundary
+     * @return True if lexing both puts a keyword at the boundary
+     */
+    static boolean separate(final String left, final String right) {
+        final int boundary = left.codePointCount(0, left.length());
+        final Lexer lexer = AntlrPiece.lexer(left + right);
+        Token token = lexer.nextToken();
+        while (token.getType() != Token.EOF && token.getStartIndex() < boundary) {
+            token = lexer.nextToken();
+        }
+        return token.getStartIndex() == boundary && AntlrPiece.keyword(token);
+    }
+
+    /**
+     * Counts line breaks and the characters after the last one, once.
+     */
+    private void counted() {
+        if (this.breaks < 0) {
+            int lines = 0;
+            int last = -1;
+            for (int idx = 0; idx < this.source.length(); idx = idx + 1) {
+                if (this.source.charAt(idx) == '\n') {
+                    lines = lines + 1;
+                    last = idx;
+                }
+            }
+            this.rest = this.source.codePointCount(last + 1, this.source.length());
+            this.breaks = lines;
+        }
+    }
+
+    /**
+     * Creates a lexer that drops its errors.
+     *
+     * @param code Source text
+     * @return Lexer over the text
+     */
+    private static Lexer lexer(final String code) {
+        final Lexer result = new rome77.Rome77Lexer(CharStreams.fromString(code));
+        result.removeErrorListeners();
+        return result;
+    }
+
+    /**
+     * Checks whether a token can only start a top-level statement.
+     *
+     * @param token Token to check
+     * @return True for As, Munus and Grafo
+     */
+    private static boolean keyword(final Token token) {
+        final int type = token.getType();
+        return type == Rome77Parser.AS
+            || type == Rome77Parser.MUNUS
+            || type == Rome77Parser.GRAFO;
+    }
+
+    /**
+     * Moves an error of a piece to its place in the source.
+     *
+     * @param error Error found in the piece
+     * @param line Line the piece starts on
+     * @param column Column the piece starts at
+     * @return Same error at its absolute position
+     */
+    private static ParsingException shifted(
+        final ParsingException error,
+        final int line,
+        final int column
+    ) {
+        final int row = error.line() + line - 1;
+        int col = error.column();
+        if (error.line() == 1) {
+            col = col + column;
+        }
+        final ParsingException result;
+        if (error instanceof LexicalException) {
+            result = new LexicalException(row, col, error.getMessage());
+        } else if (error instanceof SyntaxException) {
+            result = new SyntaxException(row, col, error.getMessage());
+        } else {
+            result = error;
+        }
+        return result;
+    }
+}
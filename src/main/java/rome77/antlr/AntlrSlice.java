@@ -0,0 +1,173 @@
+package rome77.antlr;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Token stream over a range of a filled token stream.
+ *
+ * This final class lets a parser read a run of tokens as if they were
+ * a whole source: past the range it sees EOF. Tokens are shared with
+ * the underlying stream and keep their indexes, lines and columns, so
+ * trees parsed from different slices refer to one token numbering.
+ * Slices never write to the tokens, so several of them can be parsed
+ * at the same time.
+ *
+ * Example usage:
+ * <pre>
+ * Rome77Parser parser = new Rome77Parser(new AntlrSlice(tokens, 10, 42));
+ * </pre>
+ */
+final class AntlrSlice implements TokenStream {
+
+    private final BufferedTokenStream stream;
+
+    private final int first;
+
+    private final int end;
+
+    private final Token eof;
+
+    private int position;
+
+    /**
+     * Primary constructor.
+     *
+     * @param tokens Filled token stream
+     * @param from Index of the first token in the slice
+     * @param until Index just past the last token, at most the index of EOF
+     */
+    AntlrSlice(final BufferedTokenStream tokens, final int from, final int until) {
+        this.stream = tokens;
+        this.first = from;
+        this.end = until;
+        this.eof = AntlrSlice.ending(tokens, until);
+        this.position = from;
+    }
+
+    @Override
+    public Token LT(final int offset) {
+        Token result = null;
+        if (offset < 0 && this.position + offset >= this.first) {
+            result = this.stream.get(this.position + offset);
+        } else if (offset > 0) {
+            result = this.get(this.position + offset - 1);
+        }
+        return result;
+    }
+
+    @Override
+    public Token get(final int index) {
+        final Token result;
+        if (index >= this.end) {
+            result = this.eof;
+        } else {
+            result = this.stream.get(index);
+        }
+        return result;
+    }
+
+    @Override
+    public TokenSource getTokenSource() {
+        return this.stream.getTokenSource();
+    }
+
+    @Override
+    public String getText(final Interval interval) {
+        return this.stream.getText(
+            Interval.of(Math.max(interval.a, this.first), Math.min(interval.b, this.end - 1))
+        );
+    }
+
+    @Override
+    public String getText() {
+        return this.getText(Interval.of(this.first, this.end - 1));
+    }
+
+    @Override
+    public String getText(final RuleContext ctx) {
+        return this.getText(ctx.getSourceInterval());
+    }
+
+    @Override
+    public String getText(final Token start, final Token stop) {
+        String result = "";
+        if (start != null && stop != null) {
+            result = this.getText(Interval.of(start.getTokenIndex(), stop.getTokenIndex()));
+        }
+        return result;
+    }
+
+    @Override
+    public void consume() {
+        if (this.position >= this.end) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        this.position = this.position + 1;
+    }
+
+    @Override
+    public int LA(final int offset) {
+        return this.LT(offset).getType();
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(final int marker) {
+        // All tokens stay in the underlying stream, so there is nothing to release.
+    }
+
+    @Override
+    public int index() {
+        return this.position;
+    }
+
+    @Override
+    public void seek(final int index) {
+        this.position = Math.min(Math.max(index, this.first), this.end);
+    }
+
+    @Override
+    public int size() {
+        return this.end;
+    }
+
+    @Override
+    public String getSourceName() {
+        return this.stream.getSourceName();
+    }
+
+    /**
+     * Finds the EOF token a slice ends with.
+     *
+     * The last slice ends with the real EOF. Other slices end with a
+     * made-up EOF placed at the token that follows them.
+     *
+     * @param tokens Filled token stream
+     * @param until Index just past the slice
+     * @return EOF token
+     */
+    private static Token ending(final BufferedTokenStream tokens, final int until) {
+        final Token next = tokens.get(until);
+        final Token result;
+        if (next.getType() == Token.EOF) {
+            result = next;
+        } else {
+            final CommonToken made = new CommonToken(next);
+            made.setType(Token.EOF);
+            made.setText("<EOF>");
+            made.setStopIndex(made.getStartIndex() - 1);
+            result = made;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package rome77.antlr;
+
+import ir.Expression;
+import ir.Frame;
+import ir.ProgramVisitor;
+import ir.simple.IrDeclaration;
+import ir.simple.IrFunction;
+import ir.simple.IrOutput;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import rome77.Rome77Parser;
+
+/**
+ * Analyzes top-level statements of a program in source order.
+ *
+ * This final class keeps the names defined so far, so each statement
+ * is checked against the ones before it and then handed out as IR.
+ * Variables must be declared before use, and function bodies see only
+ * their own parameters. Globals are numbered in declaration order and
+ * parameters by position, and references resolve to those slots.
+ * Functions and variables share one namespace.
+ * Errors leave as ParseCancellationException carrying the
+ * SemanticException.
+ *
+ * Example usage:
+ * <pre>
+ * AntlrStatements statements = new AntlrStatements(calls);
+ * statements.analyzed(ctx.statement(0), visitor);
+ * </pre>
+ */
+final class AntlrStatements {
+
+    private final AntlrCalls calls;
+
+    private final Set<String> defined;
+
+    private final Map<String, Integer> globals;
+
+    private final AntlrExpressions main;
+
+    /**
+     * Primary constructor.
+     *
+     * @param signatures Signatures of the functions that may be called
+     */
+    AntlrStatements(final AntlrCalls signatures) {
+        this.calls = signatures;
+        this.defined = new HashSet<>();
+        this.globals = new HashMap<>();
+        this.main = new AntlrExpressions(signatures, this.globals, Frame.GLOBAL);
+    }
+
+    /**
+     * Analyzes one statement and hands out its IR.
+     *
+     * @param statement Statement context
+     * @param visitor Receiver of the function or main statement
+     */
+    void analyzed(final Rome77Parser.StatementContext statement, final ProgramVisitor visitor) {
+        if (statement.functionDef() != null) {
+            final Rome77Parser.FunctionDefContext def = statement.functionDef();
+            this.declared(def.IDENTIFIER(), "Function %s is already defined");
+            final Map<String, Integer> params = new LinkedHashMap<>();
+            for (final TerminalNode param : def.params().IDENTIFIER()) {
+                if (params.putIfAbsent(param.getText(), params.size()) != null) {
+                    throw AntlrExpressions.failure(
+                        param.getSymbol(),
+                        String.format("Duplicate parameter name: %s", param.getText())
+                    );
+                }
+            }
+            this.calls.define(def.IDENTIFIER().getText(), params.size());
+            visitor.function(
+                new IrFunction(
+                    def.IDENTIFIER().getText(),
+                    params.keySet(),
+                    new AntlrExpressions(this.calls, params, Frame.PARAMETER).visit(def.expr())
+                )
+            );
+        } else if (statement.variableDecl() != null) {
+            final Rome77Parser.VariableDeclContext decl = statement.variableDecl();
+            final Expression value = this.main.visit(decl.expr());
+            this.declared(decl.IDENTIFIER(), "Variable %s is already defined");
+            final int slot = this.globals.size();
+            this.globals.put(decl.IDENTIFIER().getText(), slot);
+            visitor.statement(new IrDeclaration(decl.IDENTIFIER().getText(), slot, value));
+        } else {
+            visitor.statement(new IrOutput(this.main.visit(statement.outputStmt().expr())));
+        }
+    }
+
+    /**
+     * Records a newly defined name.
+     *
+     * @param name Identifier node of the definition
+     * @param msg Error message format taking the name
+     */
+    private void declared(final TerminalNode name, final String msg) {
+        if (!this.defined.add(name.getText())) {
+            throw AntlrExpressions.failure(name.getSymbol(), String.format(msg, name.getText()));
+        }
+    }
+}
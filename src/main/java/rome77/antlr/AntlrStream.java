@@ -0,0 +1,188 @@
+package rome77.antlr;
+
+import ir.ProgramVisitor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import parsing.ParsingException;
+import rome77.Rome77BaseListener;
+import rome77.Rome77Lexer;
+import rome77.Rome77Parser;
+
+/**
+ * Rome77 front end that hands out IR while the source is being parsed.
+ *
+ * This final class attaches a parse listener to the generated parser.
+ * Whenever a top-level statement is complete, the listener analyzes it,
+ * hands its function or main statement to the visitor and detaches its
+ * context from the program, so the parse tree never holds more than the
+ * statement being read. Tokens come through an unbuffered stream, and
+ * so do characters read from a Reader or an InputStream, so they are
+ * dropped as well once the parser has moved past them. A file is mapped
+ * instead and read in place, without a copy on the heap. Either way a
+ * source of any size is read with bounded memory. Token text is copied
+ * out as each token is made.
+ *
+ * Functions may still be called before their definition: such calls
+ * are checked once the whole source has been read. The visitor may
+ * therefore receive statements before an error is thrown. Parsing uses
+ * full LL prediction, since a streamed parse cannot be rewound for a
+ * second stage.
+ *
+ * Example usage:
+ * <pre>
+ * new AntlrStream(Path.of("huge.r77")).accept(visitor);
+ * </pre>
+ */
+public final class AntlrStream {
+
+    private final Callable<CharStream> source;
+
+    /**
+     * Primary constructor.
+     *
+     * @param input Opens the characters of the source code
+     */
+    private AntlrStream(final Callable<CharStream> input) {
+        this.source = input;
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * @param code Rome77 source code
+     */
+    public AntlrStream(final String code) {
+        this(() -> new UnbufferedCharStream(new StringReader(code)));
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * The reader is consumed by accept() and left open.
+     *
+     * @param reader Reader of Rome77 source code
+     */
+    public AntlrStream(final Reader reader) {
+        this(() -> new UnbufferedCharStream(reader));
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * The stream is decoded as UTF-8, consumed by accept() and left open.
+     *
+     * @param stream Stream of Rome77 source code
+     */
+    public AntlrStream(final InputStream stream) {
+        this(
+            () -> new UnbufferedCharStream(
+                new InputStreamReader(stream, StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * The file is mapped by accept() and read as ASCII straight from
+     * the page cache.
+     *
+     * @param path File with Rome77 source code
+     */
+    public AntlrStream(final Path path) {
+        this(() -> new MappedCharStream(path));
+    }
+
+    /**
+     * Parses and analyzes the source, one statement at a time.
+     *
+     * @param visitor Receiver of functions and main statements in source order
+     * @throws ParsingException if the source has syntax or semantic errors
+     * @throws IOException if the source cannot be read
+     */
+    public void accept(final ProgramVisitor visitor) throws ParsingException, IOException {
+        final CharStream chars = this.opened();
+        try {
+            this.accept(chars, visitor);
+        } catch (final RuntimeException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Parses and analyzes an open source.
+     *
+     * @param chars Characters of the source code
+     * @param visitor Receiver of functions and main statements in source order
+     * @throws ParsingException if the source has syntax or semantic errors
+     */
+    private void accept(
+        final CharStream chars,
+        final ProgramVisitor visitor
+    ) throws ParsingException {
+        final Rome77Errors errors = new Rome77Errors();
+        final Rome77Lexer lexer = new Rome77Lexer(chars);
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errors);
+        final Rome77Parser parser = new Rome77Parser(new UnbufferedTokenStream<>(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(errors);
+        final AntlrCalls calls = new AntlrCalls(new HashMap<>(), true);
+        final AntlrStatements analysis = new AntlrStatements(calls);
+        parser.addParseListener(
+            new Rome77BaseListener() {
+                @Override
+                public void exitStatement(final Rome77Parser.StatementContext ctx) {
+                    if (errors.captured().isPresent()) {
+                        throw new ParseCancellationException(errors.captured().get());
+                    }
+                    analysis.analyzed(ctx, visitor);
+                    ctx.getParent().removeLastChild();
+                }
+            }
+        );
+        try {
+            parser.program();
+            if (errors.captured().isPresent()) {
+                throw errors.captured().get();
+            }
+            calls.closed();
+        } catch (final ParseCancellationException ex) {
+            throw (ParsingException) ex.getCause();
+        }
+    }
+
+    /**
+     * Opens the characters of the source code.
+     *
+     * @return Stream positioned at the start of the source
+     * @throws IOException if the source cannot be opened
+     */
+    private CharStream opened() throws IOException {
+        final CharStream result;
+        try {
+            result = this.source.call();
+        } catch (final IOException ex) {
+            throw ex;
+        } catch (final Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,328 @@
+package rome77.antlr;
+
+import java.util.Arrays;
+
+/**
+ * Interned names of a program with what analysis knows about them.
+ *
+ * This final class gives every distinct identifier a dense number the
+ * first time it is seen and keeps the name itself only once. Lookup is
+ * an open-addressing table with linear probing over the characters of
+ * the identifier, so a name already known costs no allocation. All other
+ * facts are arrays indexed by that number: the arity of the function by
+ * that name and its target among the functions, whether the name is
+ * defined at the top level, its slot if it is a global variable, and
+ * the function scope it is a parameter of with its position there. A
+ * new function scope is a new stamp, so leaving one clears nothing.
+ * A table is not thread-safe, but copied() hands out an independent
+ * one for another thread to go on from.
+ *
+ * Example usage:
+ * <pre>
+ * AntlrSymbols symbols = new AntlrSymbols();
+ * int fib = symbols.symbol(node.span());
+ * symbols.define(fib, 1);
+ * </pre>
+ */
+final class AntlrSymbols {
+
+    /**
+     * Empty table slot.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Arity of a name that is not a function, slot of one that is not
+     * a variable.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Symbol in each table slot, EMPTY if free.
+     */
+    private int[] slots;
+
+    private int[] hashes;
+
+    private String[] names;
+
+    private int[] arities;
+
+    private int[] targets;
+
+    private boolean[] defined;
+
+    private int[] globals;
+
+    private int[] scopes;
+
+    private int[] positions;
+
+    private int scope;
+
+    private int declared;
+
+    private int functions;
+
+    private int count;
+
+    /**
+     * Primary constructor.
+     *
+     * @param expected Number of distinct names expected
+     */
+    AntlrSymbols(final int expected) {
+        final int size = Math.max(16, Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) * 2);
+        this.slots = new int[size];
+        Arrays.fill(this.slots, AntlrSymbols.EMPTY);
+        this.hashes = new int[size / 2];
+        this.names = new String[size / 2];
+        this.arities = new int[size / 2];
+        Arrays.fill(this.arities, AntlrSymbols.NONE);
+        this.targets = new int[size / 2];
+        Arrays.fill(this.targets, AntlrSymbols.NONE);
+        this.defined = new boolean[size / 2];
+        this.globals = new int[size / 2];
+        Arrays.fill(this.globals, AntlrSymbols.NONE);
+        this.scopes = new int[size / 2];
+        this.positions = new int[size / 2];
+        this.scope = 0;
+        this.declared = 0;
+        this.functions = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Secondary constructor for a small program.
+     */
+    AntlrSymbols() {
+        this(16);
+    }
+
+    /**
+     * Copies the table with everything it knows.
+     *
+     * @return Independent table equal to this one
+     */
+    AntlrSymbols copied() {
+        final AntlrSymbols result = new AntlrSymbols();
+        result.slots = this.slots.clone();
+        result.hashes = this.hashes.clone();
+        result.names = this.names.clone();
+        result.arities = this.arities.clone();
+        result.targets = this.targets.clone();
+        result.defined = this.defined.clone();
+        result.globals = this.globals.clone();
+        result.scopes = this.scopes.clone();
+        result.positions = this.positions.clone();
+        result.scope = this.scope;
+        result.declared = this.declared;
+        result.functions = this.functions;
+        result.count = this.count;
+        return result;
+    }
+
+    /**
+     * Returns the number of an identifier, interning it if new.
+     *
+     * @param text Identifier characters
+     * @return Symbol number, dense from zero
+     */
+    int symbol(final CharSequence text) {
+        final int hash = AntlrSymbols.hash(text);
+        final int mask = this.slots.length - 1;
+        int slot = hash & mask;
+        int result = this.slots[slot];
+        while (result != AntlrSymbols.EMPTY
+            && !(this.hashes[result] == hash && this.names[result].contentEquals(text))) {
+            slot = slot + 1 & mask;
+            result = this.slots[slot];
+        }
+        if (result == AntlrSymbols.EMPTY) {
+            result = this.count;
+            this.count = this.count + 1;
+            this.hashes[result] = hash;
+            this.names[result] = text.toString();
+            this.slots[slot] = result;
+            if (this.count * 2 >= this.slots.length) {
+                this.grow();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the interned name of a symbol.
+     *
+     * @param symbol Symbol number
+     * @return Identifier
+     */
+    String name(final int symbol) {
+        return this.names[symbol];
+    }
+
+    /**
+     * Records the arity of a function.
+     *
+     * The first definition of a name wins, and takes the next target.
+     *
+     * @param symbol Function name
+     * @param arity Number of parameters
+     */
+    void define(final int symbol, final int arity) {
+        if (this.arities[symbol] == AntlrSymbols.NONE) {
+            this.arities[symbol] = arity;
+            this.targets[symbol] = this.functions;
+            this.functions = this.functions + 1;
+        }
+    }
+
+    /**
+     * Returns the target of a call.
+     *
+     * @param symbol Function name
+     * @return Index of the function among the functions, negative if no
+     *  function has that name
+     */
+    int target(final int symbol) {
+        return this.targets[symbol];
+    }
+
+    /**
+     * Tells whether a name is a function.
+     *
+     * @param symbol Name
+     * @return True if the program defines a function by that name
+     */
+    boolean callable(final int symbol) {
+        return this.arities[symbol] != AntlrSymbols.NONE;
+    }
+
+    /**
+     * Returns the arity of a function.
+     *
+     * @param symbol Function name
+     * @return Number of parameters, negative if no function has that name
+     */
+    int arity(final int symbol) {
+        return this.arities[symbol];
+    }
+
+    /**
+     * Marks a name as defined at the top level.
+     *
+     * @param symbol Name
+     * @return False if the name was defined already
+     */
+    boolean claimed(final int symbol) {
+        final boolean result = !this.defined[symbol];
+        this.defined[symbol] = true;
+        return result;
+    }
+
+    /**
+     * Declares a global variable in the next free slot.
+     *
+     * @param symbol Variable name
+     * @return Slot of the variable
+     */
+    int declare(final int symbol) {
+        this.globals[symbol] = this.declared;
+        this.declared = this.declared + 1;
+        return this.globals[symbol];
+    }
+
+    /**
+     * Returns the slot of a global variable declared so far.
+     *
+     * @param symbol Name
+     * @return Slot, negative if no global by that name is declared
+     */
+    int global(final int symbol) {
+        return this.globals[symbol];
+    }
+
+    /**
+     * Opens the scope of a new function, closing the previous one.
+     */
+    void enter() {
+        this.scope = this.scope + 1;
+    }
+
+    /**
+     * Binds a parameter in the current function scope.
+     *
+     * @param symbol Parameter name
+     * @param position Position among the parameters
+     * @return False if the scope has a parameter by that name already
+     */
+    boolean bind(final int symbol, final int position) {
+        final boolean result = this.scopes[symbol] != this.scope;
+        if (result) {
+            this.scopes[symbol] = this.scope;
+            this.positions[symbol] = position;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position of a parameter of the current function.
+     *
+     * @param symbol Name
+     * @return Position, negative if the name is not bound in the current scope
+     */
+    int parameter(final int symbol) {
+        int result = AntlrSymbols.NONE;
+        if (this.scope > 0 && this.scopes[symbol] == this.scope) {
+            result = this.positions[symbol];
+        }
+        return result;
+    }
+
+    /**
+     * Doubles the table and the arrays indexed by symbol.
+     */
+    private void grow() {
+        final int size = this.slots.length * 2;
+        final int mask = size - 1;
+        this.slots = new int[size];
+        Arrays.fill(this.slots, AntlrSymbols.EMPTY);
+        for (int symbol = 0; symbol < this.count; symbol = symbol + 1) {
+            int slot = this.hashes[symbol] & mask;
+            while (this.slots[slot] != AntlrSymbols.EMPTY) {
+                slot = slot + 1 & mask;
+            }
+            this.slots[slot] = symbol;
+        }
+        this.hashes = Arrays.copyOf(this.hashes, size / 2);
+        this.names = Arrays.copyOf(this.names, size / 2);
+        final int known = this.arities.length;
+        this.arities = Arrays.copyOf(this.arities, size / 2);
+        Arrays.fill(this.arities, known, this.arities.length, AntlrSymbols.NONE);
+        this.targets = Arrays.copyOf(this.targets, size / 2);
+        Arrays.fill(this.targets, known, this.targets.length, AntlrSymbols.NONE);
+        this.defined = Arrays.copyOf(this.defined, size / 2);
+        this.globals = Arrays.copyOf(this.globals, size / 2);
+        Arrays.fill(this.globals, known, this.globals.length, AntlrSymbols.NONE);
+        this.scopes = Arrays.copyOf(this.scopes, size / 2);
+        this.positions = Arrays.copyOf(this.positions, size / 2);
+    }
+
+    /**
+     * Hashes the characters of an identifier.
+     *
+     * Spreads String.hashCode over the high bits, since the table uses
+     * the low ones.
+     *
+     * @param text Identifier characters
+     * @return Hash code
+     */
+    private static int hash(final CharSequence text) {
+        int result = 0;
+        for (int idx = 0; idx < text.length(); idx = idx + 1) {
+            result = 31 * result + text.charAt(idx);
+        }
+        result = result * 0x9E3779B9;
+        return result ^ result >>> 16;
+    }
+}
@@ -1,7 +1,10 @@
 package rome77.antlr;
 
+import org.antlr.v4.runtime.BufferedTokenStream;
 import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.tree.ParseTree;
+import rome77.arena.ArenaTree;
 import syntax.SyntaxNode;
 import syntax.SyntaxTree;
 
@@ -9,32 +12,128 @@ import syntax.SyntaxTree;
  * Immutable SyntaxTree wrapper for ANTLR ParseTree.
  *
  * This final class adapts ANTLR's mutable ParseTree to the
- * immutable SyntaxTree interface. All data is captured at construction.
+ * immutable SyntaxTree interface. All data is captured at construction:
+ * the nodes are copied into an arena tree and the tokens into a packed
+ * listing, so neither the parse tree nor the parser is kept.
+ *
+ * The tree mirrors the grammar node by node. A collapsed copy, without
+ * the single-child rules that only pass an expression through the
+ * precedence levels, can be asked for.
  *
  * Example usage:
  * <pre>
  * SyntaxTree tree = new AntlrTree(parseTree, parser);
+ * SyntaxTree compact = tree.collapsed();
  * </pre>
  */
 public final class AntlrTree implements SyntaxTree {
 
     /**
-     * Root node of the tree.
+     * Nodes of the tree.
      */
-    private final SyntaxNode root;
+    private final ArenaTree arena;
 
     /**
-     * Primary constructor.
+     * Prediction mode the tree was parsed with.
+     */
+    private final PredictionMode mode;
+
+    /**
+     * Secondary constructor for trees parsed with full LL prediction.
      *
      * @param pt ANTLR parse tree
      * @param prs Parser instance for rule names
      */
     public AntlrTree(final ParseTree pt, final Parser prs) {
-        this.root = new AntlrNode(pt, prs);
+        this(pt, prs, PredictionMode.LL);
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * @param pt ANTLR parse tree
+     * @param prs Parser over a buffered token stream, for names and tokens
+     * @param prediction Prediction mode the parse succeeded with
+     */
+    public AntlrTree(
+        final ParseTree pt,
+        final Parser prs,
+        final PredictionMode prediction
+    ) {
+        this(
+            pt,
+            prs,
+            new AntlrListing((BufferedTokenStream) prs.getTokenStream(), prs.getVocabulary()),
+            prediction
+        );
+    }
+
+    /**
+     * Secondary constructor for tokens packed already.
+     *
+     * @param pt ANTLR parse tree
+     * @param prs Parser instance for rule names
+     * @param tokens Packed listing of the tokens the parser read
+     * @param prediction Prediction mode the parse succeeded with
+     */
+    AntlrTree(
+        final ParseTree pt,
+        final Parser prs,
+        final AntlrListing tokens,
+        final PredictionMode prediction
+    ) {
+        this(new AntlrArena(prs, tokens.packed()).tree(pt), prediction);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param nodes Nodes of the tree
+     * @param prediction Prediction mode the parse succeeded with
+     */
+    private AntlrTree(final ArenaTree nodes, final PredictionMode prediction) {
+        this.arena = nodes;
+        this.mode = prediction;
     }
 
     @Override
     public SyntaxNode root() {
-        return this.root;
+        return this.arena.root();
+    }
+
+    /**
+     * Returns the tree without pass-through expression rules.
+     *
+     * Nodes of arithmetic, toMult, toUnary, toPrimary and parens are
+     * replaced by the expression they hold, so a literal hangs right
+     * under the node that uses it instead of at the end of a chain of
+     * precedence levels. Names, text and positions of the kept nodes
+     * are unchanged.
+     *
+     * @return Collapsed tree, parsed with the same prediction mode
+     */
+    public AntlrTree collapsed() {
+        return new AntlrTree(this.arena.collapsed(ArenaTree.PASSING), this.mode);
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return Node count, terminals included
+     */
+    public int size() {
+        return this.arena.size();
+    }
+
+    /**
+     * Returns the prediction mode the parse succeeded with.
+     *
+     * SLL means the fast first stage was enough,
+     * LL means the source needed the full-context second stage.
+     *
+     * @return Prediction mode, either SLL or LL
+     */
+    public PredictionMode prediction() {
+        return this.mode;
     }
 }
@@ -0,0 +1,151 @@
+package rome77.antlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import parsing.ParsingException;
+import syntax.Syntax;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Rome77 syntax parser that takes edits and reparses only what changed.
+ *
+ * This final class keeps the source as pieces, one top-level statement
+ * each, cut before the As, Munus and Grafo keywords. Each piece is
+ * lexed and parsed on its own and keeps its tree. An edit replaces only
+ * the pieces it touches: their text is relexed and cut again, widened
+ * to a neighbour until a keyword starts right at both ends of the new
+ * text, so the lexer agrees with a pass over the whole source. Every
+ * other piece, with its tree, is shared with the previous version.
+ *
+ * The tree is the one Rome77Syntax builds for the same source: nodes of
+ * kept pieces are moved to their new lines and columns as they are
+ * read. An error is the one of the first piece that fails, found by
+ * parsing that statement alone, so near its end it may name EOF where
+ * a pass over the whole source names the next keyword.
+ *
+ * Work for an edit is proportional to the statements it touches, plus
+ * a walk over the list of pieces; the joined program text is built only
+ * when asked for. Versions are not meant to be shared between threads.
+ *
+ * Example usage:
+ * <pre>
+ * IncrementalSyntax syntax = new IncrementalSyntax("Grafo I\nGrafo II");
+ * SyntaxTree tree = syntax.edited(6, 1, "V").parsed();
+ * </pre>
+ */
+public final class IncrementalSyntax implements Syntax {
+
+    private final List<AntlrPiece> pieces;
+
+    /**
+     * Secondary constructor that cuts a whole source into pieces.
+     *
+     * @param code Rome77 source code
+     */
+    public IncrementalSyntax(final String code) {
+        this(AntlrPiece.cut(code));
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param parts Pieces of the source in order, at least one
+     */
+    IncrementalSyntax(final List<AntlrPiece> parts) {
+        this.pieces = parts;
+    }
+
+    @Override
+    public SyntaxTree parsed() throws ParsingException {
+        final List<SyntaxNode> children = new ArrayList<>(this.pieces.size() + 1);
+        final List<CharSequence> parts = new ArrayList<>(this.pieces.size());
+        String name = null;
+        SyntaxNode eof = null;
+        int line = 1;
+        int column = 0;
+        for (final AntlrPiece piece : this.pieces) {
+            final SyntaxNode root = piece.root(line, column);
+            if (name == null) {
+                name = root.name();
+                parts.add(root.span());
+            } else {
+                parts.add(piece.text());
+            }
+            int left = root.childCount();
+            for (final SyntaxNode child : root.children()) {
+                left = left - 1;
+                if (left > 0) {
+                    children.add(child);
+                } else {
+                    eof = child;
+                }
+            }
+            if (piece.lines() > 0) {
+                column = piece.tail();
+            } else {
+                column = column + piece.tail();
+            }
+            line = line + piece.lines();
+        }
+        children.add(eof);
+        final SyntaxNode result = new JoinedNode(name, List.copyOf(children), List.copyOf(parts));
+        return () -> result;
+    }
+
+    /**
+     * Applies a text edit and returns the new version of the source.
+     *
+     * This version is left as it is; pieces the edit does not touch are
+     * shared by both.
+     *
+     * @param offset Character offset the edit starts at
+     * @param removed Number of characters removed there
+     * @param inserted Text inserted in their place
+     * @return Edited version, parsed on demand
+     */
+    public IncrementalSyntax edited(final int offset, final int removed, final String inserted) {
+        int length = 0;
+        for (final AntlrPiece piece : this.pieces) {
+            length = length + piece.text().length();
+        }
+        Objects.checkFromIndexSize(offset, removed, length);
+        int first = -1;
+        int last = -1;
+        int head = 0;
+        int tail = 0;
+        int start = 0;
+        for (int idx = 0; idx < this.pieces.size(); idx = idx + 1) {
+            final int end = start + this.pieces.get(idx).text().length();
+            if (first < 0 && end >= offset) {
+                first = idx;
+                head = start;
+            }
+            if (start <= offset + removed) {
+                last = idx;
+                tail = start;
+            }
+            start = end;
+        }
+        String region = this.pieces.get(first).text().substring(0, offset - head)
+            + inserted
+            + this.pieces.get(last).text().substring(offset + removed - tail);
+        while (first > 0 && !AntlrPiece.separate(this.pieces.get(first - 1).text(), region)) {
+            first = first - 1;
+            region = this.pieces.get(first).text() + region;
+        }
+        while (
+            last + 1 < this.pieces.size()
+                && !AntlrPiece.separate(region, this.pieces.get(last + 1).text())
+        ) {
+            last = last + 1;
+            region = region + this.pieces.get(last).text();
+        }
+        final List<AntlrPiece> result = new ArrayList<>(this.pieces.size());
+        result.addAll(this.pieces.subList(0, first));
+        result.addAll(AntlrPiece.cut(region));
+        result.addAll(this.pieces.subList(last + 1, this.pieces.size()));
+        return new IncrementalSyntax(result);
+    }
+}
@@ -0,0 +1,85 @@
+package rome77.antlr;
+
+import java.util.List;
+import java.util.Objects;
+import syntax.SyntaxNode;
+
+/**
+ * Program node put together from the statements of several pieces.
+ *
+ * This final class holds the statements of every piece of a source
+ * followed by the EOF node of the last one. Its span runs from the
+ * first token to the end of the source; it is joined from the parts
+ * only when asked for.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxNode program = new JoinedNode("program", statements, parts);
+ * </pre>
+ */
+final class JoinedNode implements SyntaxNode {
+
+    private final String label;
+
+    private final List<SyntaxNode> nodes;
+
+    private final List<CharSequence> parts;
+
+    /**
+     * Primary constructor.
+     *
+     * @param name Rule name of the program
+     * @param children Statements followed by EOF
+     * @param pieces Texts that join into the span
+     */
+    JoinedNode(
+        final String name,
+        final List<SyntaxNode> children,
+        final List<CharSequence> pieces
+    ) {
+        this.label = name;
+        this.nodes = children;
+        this.parts = pieces;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public String text() {
+        return this.span().toString();
+    }
+
+    @Override
+    public CharSequence span() {
+        return String.join("", this.parts);
+    }
+
+    @Override
+    public int line() {
+        return this.nodes.get(0).line();
+    }
+
+    @Override
+    public int column() {
+        return this.nodes.get(0).column();
+    }
+
+    @Override
+    public Iterable<SyntaxNode> children() {
+        return this.nodes;
+    }
+
+    @Override
+    public int childCount() {
+        return this.nodes.size();
+    }
+
+    @Override
+    public SyntaxNode child(final int position) {
+        Objects.checkIndex(position, this.nodes.size());
+        return this.nodes.get(position);
+    }
+}
@@ -0,0 +1,143 @@
+package rome77.antlr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * ANTLR character stream over the bytes of an ASCII source.
+ *
+ * This final class reads every byte as one character, so a Rome77
+ * source needs no decoding and no copy: a file is mapped read-only and
+ * the lexer reads straight from the page cache. Only token text is
+ * copied out, when asked for. Bytes above 127 are read as the Latin-1
+ * characters of the same value, which the lexer rejects as it would
+ * any unknown character.
+ *
+ * Example usage:
+ * <pre>
+ * CharStream chars = new MappedCharStream(Path.of("program.r77"));
+ * Rome77Lexer lexer = new Rome77Lexer(chars);
+ * </pre>
+ */
+public final class MappedCharStream implements CharStream {
+
+    private final ByteBuffer bytes;
+
+    private final String name;
+
+    private int position;
+
+    /**
+     * Primary constructor.
+     *
+     * @param buffer Source bytes from position 0 to the limit, not changed afterwards
+     * @param source Name of the source, used in error messages
+     */
+    public MappedCharStream(final ByteBuffer buffer, final String source) {
+        this.bytes = buffer;
+        this.name = source;
+        this.position = 0;
+    }
+
+    /**
+     * Secondary constructor.
+     *
+     * Maps the whole file. The mapping stays valid after the file is
+     * closed, until the stream is garbage collected.
+     *
+     * @param path Source file, at most 2 GB
+     * @throws IOException if the file cannot be mapped
+     */
+    public MappedCharStream(final Path path) throws IOException {
+        this(MappedCharStream.mapped(path), path.toString());
+    }
+
+    @Override
+    public void consume() {
+        if (this.position >= this.bytes.limit()) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        this.position = this.position + 1;
+    }
+
+    @Override
+    public int LA(final int offset) {
+        final int index;
+        if (offset < 0) {
+            index = this.position + offset;
+        } else {
+            index = this.position + offset - 1;
+        }
+        int result = IntStream.EOF;
+        if (offset == 0) {
+            result = 0;
+        } else if (index >= 0 && index < this.bytes.limit()) {
+            result = this.bytes.get(index) & 0xFF;
+        }
+        return result;
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(final int marker) {
+        // The whole source stays mapped, so there is nothing to release.
+    }
+
+    @Override
+    public int index() {
+        return this.position;
+    }
+
+    @Override
+    public void seek(final int index) {
+        this.position = Math.min(index, this.bytes.limit());
+    }
+
+    @Override
+    public int size() {
+        return this.bytes.limit();
+    }
+
+    @Override
+    public String getSourceName() {
+        return this.name;
+    }
+
+    @Override
+    public String getText(final Interval interval) {
+        final int start = Math.min(interval.a, this.bytes.limit());
+        final int stop = Math.min(interval.b + 1, this.bytes.limit());
+        final byte[] chars = new byte[Math.max(stop - start, 0)];
+        this.bytes.get(start, chars);
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return this.getText(Interval.of(0, this.bytes.limit() - 1));
+    }
+
+    /**
+     * Maps a file read-only.
+     *
+     * @param path Source file
+     * @return Buffer over the file contents
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    private static ByteBuffer mapped(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
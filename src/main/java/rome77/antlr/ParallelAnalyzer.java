@@ -0,0 +1,211 @@
+package rome77.antlr;
+
+import ir.Function;
+import ir.Program;
+import ir.ProgramVisitor;
+import ir.Statement;
+import ir.simple.IrProgram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import parsing.ParsingException;
+import semantic.Analyzer;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Rome77 analyzer that checks runs of statements in parallel.
+ *
+ * This final class works in two steps. One cheap scan over the
+ * top-level statements interns the name, arity and target of every
+ * function. A second walks the statements once more, only recording
+ * the names each one defines, and takes a copy of the symbols at every
+ * cut between runs. Each run is then analyzed on a ForkJoinPool from
+ * its own copy, checked and built as by Rome77Analyzer, so the
+ * statements before it are never walked again. The functions and main
+ * statements of all runs are joined in source order, so the program is
+ * the one Rome77Analyzer builds.
+ *
+ * Every run starts from the names a sequential analysis would know at
+ * that point, so the first run that fails reports the same error as
+ * Rome77Analyzer, and that error is thrown whatever order the runs
+ * finish in. Programs too short to fill two runs are analyzed in one
+ * piece.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxTree tree = new Rome77Syntax(code).parsed();
+ * Program program = new ParallelAnalyzer(tree).analyzed();
+ * </pre>
+ */
+public final class ParallelAnalyzer implements Analyzer {
+
+    private final SyntaxTree tree;
+
+    private final ForkJoinPool pool;
+
+    private final int grain;
+
+    /**
+     * Secondary constructor using the common pool.
+     *
+     * @param syntax Syntax tree with its pass-through rules, as parsed
+     */
+    public ParallelAnalyzer(final SyntaxTree syntax) {
+        this(syntax, ForkJoinPool.commonPool(), 64);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param syntax Syntax tree with its pass-through rules, as parsed
+     * @param workers Pool the runs are analyzed on
+     * @param least Smallest number of statements worth a run of its own
+     */
+    public ParallelAnalyzer(final SyntaxTree syntax, final ForkJoinPool workers, final int least) {
+        this.tree = syntax;
+        this.pool = workers;
+        this.grain = least;
+    }
+
+    @Override
+    public Program analyzed() throws ParsingException {
+        final List<SyntaxNode> statements = TreeStatements.statements(this.tree);
+        final List<Integer> cuts = this.cuts(statements.size());
+        final Program result;
+        if (cuts.size() > 2) {
+            result = this.joined(statements, cuts);
+        } else {
+            result = new Rome77Analyzer(this.tree).analyzed();
+        }
+        return result;
+    }
+
+    /**
+     * Chooses where the runs start.
+     *
+     * Runs hold at least the grain of statements, or more when the pool
+     * is small, so every worker gets a few runs to balance the load.
+     *
+     * @param total Number of statements
+     * @return Start index of every run, followed by the number of statements
+     */
+    private List<Integer> cuts(final int total) {
+        final int least = Math.max(
+            Math.max(1, this.grain), total / Math.max(1, this.pool.getParallelism() * 4)
+        );
+        final List<Integer> result = new ArrayList<>();
+        for (int idx = 0; idx < total; idx = idx + least) {
+            result.add(idx);
+        }
+        result.add(total);
+        return result;
+    }
+
+    /**
+     * Analyzes the runs in parallel and joins their IR.
+     *
+     * @param statements Top-level statements
+     * @param cuts Start index of every run, followed by the number of statements
+     * @return Program of all runs in source order
+     * @throws ParsingException from the first run that fails
+     */
+    private Program joined(
+        final List<SyntaxNode> statements,
+        final List<Integer> cuts
+    ) throws ParsingException {
+        final AntlrSymbols signed = TreeStatements.signed(statements);
+        final TreeStatements scan = new TreeStatements(signed);
+        final List<Callable<Program>> runs = new ArrayList<>(cuts.size() - 1);
+        for (int idx = 0; idx + 1 < cuts.size(); idx = idx + 1) {
+            final AntlrSymbols symbols = signed.copied();
+            final int start = cuts.get(idx);
+            final int end = cuts.get(idx + 1);
+            runs.add(() -> ParallelAnalyzer.run(symbols, statements, start, end));
+            for (int skip = start; skip < end; skip = skip + 1) {
+                scan.skipped(statements.get(skip));
+            }
+        }
+        final List<Function> functions = new ArrayList<>();
+        final List<Statement> body = new ArrayList<>(statements.size());
+        for (final Future<Program> done : this.pool.invokeAll(runs)) {
+            final Program run = ParallelAnalyzer.awaited(done);
+            run.functions().forEach(functions::add);
+            run.statements().forEach(body::add);
+        }
+        return new IrProgram(functions, body);
+    }
+
+    /**
+     * Analyzes one run of statements.
+     *
+     * @param symbols Own copy of the symbols as known at the start of the run
+     * @param statements Top-level statements
+     * @param start Index of the first statement of the run
+     * @param end Index past the last statement of the run
+     * @return Functions and main statements of the run
+     * @throws ParsingException if a statement of the run breaks a rule
+     */
+    private static Program run(
+        final AntlrSymbols symbols,
+        final List<SyntaxNode> statements,
+        final int start,
+        final int end
+    ) throws ParsingException {
+        final TreeStatements analysis = new TreeStatements(symbols);
+        final List<Function> functions = new ArrayList<>();
+        final List<Statement> body = new ArrayList<>(end - start);
+        final ProgramVisitor collected = new ProgramVisitor() {
+            @Override
+            public void function(final Function function) {
+                functions.add(function);
+            }
+
+            @Override
+            public void statement(final Statement statement) {
+                body.add(statement);
+            }
+        };
+        for (int idx = start; idx < end; idx = idx + 1) {
+            analysis.analyzed(statements.get(idx), collected);
+        }
+        return new IrProgram(functions, body);
+    }
+
+    /**
+     * Waits for a run to be analyzed.
+     *
+     * A ForkJoinPool hands a checked exception of a task back wrapped in
+     * a RuntimeException, so the cause chain is searched for the
+     * ParsingException the run threw.
+     *
+     * @param run Analysis of one run
+     * @return Program of the run
+     * @throws ParsingException if the run broke a rule
+     */
+    private static Program awaited(final Future<Program> run) throws ParsingException {
+        final Program result;
+        try {
+            result = run.get();
+        } catch (final ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            while (cause != null && !(cause instanceof ParsingException)) {
+                cause = cause.getCause();
+            }
+            if (cause != null) {
+                throw (ParsingException) cause;
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analyzing", ex);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,194 @@
+package rome77.antlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import parsing.ParsingException;
+import rome77.Rome77Parser;
+import syntax.Syntax;
+
+/**
+ * Rome77 syntax parser that parses runs of statements in parallel.
+ *
+ * This final class lexes the whole source once, then cuts the tokens
+ * before As, Munus and Grafo keywords, which can only start a top-level
+ * statement. Each run of statements is parsed by its own parser on a
+ * ForkJoinPool, and the statements are put together under one program
+ * node. Tokens are shared by all runs, so every node keeps its absolute
+ * line and column, and the tree is the one Rome77Syntax builds.
+ *
+ * When any run fails to parse, the whole source is parsed again in one
+ * piece, so errors are reported exactly as by Rome77Syntax. Sources
+ * too short to fill two runs are parsed in one piece from the start.
+ *
+ * Example usage:
+ * <pre>
+ * AntlrTree tree = new ParallelSyntax(code).parsed();
+ * </pre>
+ */
+public final class ParallelSyntax implements Syntax {
+
+    private final String source;
+
+    private final ForkJoinPool pool;
+
+    private final int grain;
+
+    /**
+     * Secondary constructor using the common pool.
+     *
+     * @param code Rome77 source code
+     */
+    public ParallelSyntax(final String code) {
+        this(code, ForkJoinPool.commonPool(), 4096);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     * @param workers Pool the runs are parsed on
+     * @param least Smallest number of tokens worth a run of its own
+     */
+    public ParallelSyntax(final String code, final ForkJoinPool workers, final int least) {
+        this.source = code;
+        this.pool = workers;
+        this.grain = least;
+    }
+
+    @Override
+    public AntlrTree parsed() throws ParsingException {
+        final Rome77Errors errors = new Rome77Errors();
+        final rome77.Rome77Lexer lexer = new rome77.Rome77Lexer(
+            CharStreams.fromString(this.source)
+        );
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errors);
+        final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        final AntlrListing listing = new AntlrListing(tokens, lexer.getVocabulary());
+        final List<Integer> cuts = this.cuts(tokens);
+        AntlrTree result = null;
+        if (cuts.size() > 2) {
+            result = this.stitched(tokens, listing, cuts);
+        }
+        if (result == null) {
+            final Rome77Parser parser = Rome77Syntax.parser(tokens);
+            result = new AntlrTree(
+                Rome77Syntax.program(parser, errors),
+                parser,
+                listing,
+                parser.getInterpreter().getPredictionMode()
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Chooses where the runs start.
+     *
+     * Runs hold at least the grain of tokens, or more when the pool is
+     * small, so every worker gets a few runs to balance the load.
+     *
+     * @param tokens Filled token stream
+     * @return Start index of every run, followed by the index of EOF
+     */
+    private List<Integer> cuts(final CommonTokenStream tokens) {
+        final int last = tokens.size() - 1;
+        final int least = Math.max(
+            this.grain, last / Math.max(1, this.pool.getParallelism() * 4)
+        );
+        final List<Integer> result = new ArrayList<>();
+        result.add(0);
+        int previous = 0;
+        for (int idx = 1; idx < last; idx = idx + 1) {
+            final int type = tokens.get(idx).getType();
+            final boolean keyword = type == Rome77Parser.AS
+                || type == Rome77Parser.MUNUS
+                || type == Rome77Parser.GRAFO;
+            if (keyword && idx - previous >= least) {
+                result.add(idx);
+                previous = idx;
+            }
+        }
+        result.add(last);
+        return result;
+    }
+
+    /**
+     * Parses the runs in parallel and joins their statements.
+     *
+     * @param tokens Filled token stream
+     * @param listing Packed tokens
+     * @param cuts Start index of every run, followed by the index of EOF
+     * @return Joined tree, or null if a run failed to parse
+     */
+    private AntlrTree stitched(
+        final CommonTokenStream tokens,
+        final AntlrListing listing,
+        final List<Integer> cuts
+    ) {
+        final List<Rome77Parser> parsers = new ArrayList<>(cuts.size() - 1);
+        final List<Callable<Rome77Parser.ProgramContext>> runs = new ArrayList<>(cuts.size() - 1);
+        for (int idx = 0; idx + 1 < cuts.size(); idx = idx + 1) {
+            final Rome77Parser parser = Rome77Syntax.parser(
+                new AntlrSlice(tokens, cuts.get(idx), cuts.get(idx + 1))
+            );
+            parsers.add(parser);
+            runs.add(() -> Rome77Syntax.program(parser, new Rome77Errors(true)));
+        }
+        final Rome77Parser.ProgramContext program = new Rome77Parser.ProgramContext(null, -1);
+        PredictionMode mode = PredictionMode.SLL;
+        boolean parsed = true;
+        final List<Future<Rome77Parser.ProgramContext>> done = this.pool.invokeAll(runs);
+        for (int idx = 0; idx < done.size() && parsed; idx = idx + 1) {
+            final Rome77Parser.ProgramContext run = ParallelSyntax.joined(done.get(idx));
+            parsed = run != null;
+            if (parsed) {
+                for (final Rome77Parser.StatementContext statement : run.statement()) {
+                    statement.setParent(program);
+                    program.addChild(statement);
+                }
+            }
+            if (parsers.get(idx).getInterpreter().getPredictionMode() == PredictionMode.LL) {
+                mode = PredictionMode.LL;
+            }
+        }
+        AntlrTree result = null;
+        if (parsed) {
+            final Token eof = tokens.get(tokens.size() - 1);
+            program.start = tokens.get(0);
+            program.stop = eof;
+            program.addChild(new TerminalNodeImpl(eof));
+            result = new AntlrTree(program, parsers.get(0), listing, mode);
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a run to be parsed.
+     *
+     * @param run Parse of one run
+     * @return Program of the run, or null if it failed or was interrupted
+     */
+    private static Rome77Parser.ProgramContext joined(
+        final Future<Rome77Parser.ProgramContext> run
+    ) {
+        Rome77Parser.ProgramContext result = null;
+        try {
+            result = run.get();
+        } catch (final ExecutionException ex) {
+            result = null;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
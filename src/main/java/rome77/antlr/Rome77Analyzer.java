@@ -0,0 +1,74 @@
+package rome77.antlr;
+
+import ir.Function;
+import ir.Program;
+import ir.ProgramVisitor;
+import ir.Statement;
+import ir.simple.IrProgram;
+import java.util.ArrayList;
+import java.util.List;
+import parsing.ParsingException;
+import semantic.Analyzer;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Rome77 analyzer over a syntax tree.
+ *
+ * This final class turns any SyntaxTree of the Rome77 grammar into
+ * ir.simple objects, with the same rules as AntlrAnalyzer: functions
+ * are known by name and arity from the start, variables must be
+ * declared before use, function bodies see only their own parameters,
+ * and functions and variables share one namespace.
+ *
+ * Identifiers are interned once in AntlrSymbols and resolved by number,
+ * so every check is a probe of an open-addressing table or an array
+ * access, and a known name is never copied out of the source again.
+ * A first pass over the top-level statements records the arity of
+ * every function; a second builds the IR through TreeStatements, with
+ * every variable resolved to its slot: globals in declaration order,
+ * parameters by position. Both passes are linear in the size of the tree, however many
+ * functions and variables the program has.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxTree tree = new Rome77Syntax(code).parsed();
+ * Program program = new Rome77Analyzer(tree).analyzed();
+ * </pre>
+ */
+public final class Rome77Analyzer implements Analyzer {
+
+    private final SyntaxTree tree;
+
+    /**
+     * Primary constructor.
+     *
+     * @param syntax Syntax tree with its pass-through rules, as parsed
+     */
+    public Rome77Analyzer(final SyntaxTree syntax) {
+        this.tree = syntax;
+    }
+
+    @Override
+    public Program analyzed() throws ParsingException {
+        final List<SyntaxNode> statements = TreeStatements.statements(this.tree);
+        final TreeStatements analysis = new TreeStatements(TreeStatements.signed(statements));
+        final List<Function> functions = new ArrayList<>();
+        final List<Statement> body = new ArrayList<>(statements.size());
+        final ProgramVisitor collected = new ProgramVisitor() {
+            @Override
+            public void function(final Function function) {
+                functions.add(function);
+            }
+
+            @Override
+            public void statement(final Statement statement) {
+                body.add(statement);
+            }
+        };
+        for (final SyntaxNode statement : statements) {
+            analysis.analyzed(statement, collected);
+        }
+        return new IrProgram(functions, body);
+    }
+}
@@ -5,6 +5,7 @@ import lexical.LexicalException;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import syntax.SyntaxException;
 
 /**
@@ -12,6 +13,9 @@ import syntax.SyntaxException;
  *
  * This final class implements ANTLRErrorListener to capture
  * the first error as either SyntaxException or LexicalException.
+ * An aborting listener also stops the recognizer at that error by
+ * throwing ParseCancellationException carrying the exception, so no
+ * error recovery runs after it.
  *
  * Example usage:
  * <pre>
@@ -23,9 +27,26 @@ import syntax.SyntaxException;
  */
 public final class Rome77Errors extends BaseErrorListener {
 
+    private final boolean abort;
     private SyntaxException error;
     private LexicalException lexerror;
 
+    /**
+     * Secondary constructor for a listener that lets recognition go on.
+     */
+    public Rome77Errors() {
+        this(false);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param bail Whether to stop the recognizer at the first error
+     */
+    public Rome77Errors(final boolean bail) {
+        this.abort = bail;
+    }
+
     @Override
     public void syntaxError(
         final Recognizer<?, ?> recognizer,
@@ -39,10 +60,16 @@ public final class Rome77Errors extends BaseErrorListener {
             if (this.lexerror == null) {
                 this.lexerror = new LexicalException(ln, col, msg);
             }
+            if (this.abort) {
+                throw new ParseCancellationException(this.lexerror);
+            }
         } else {
             if (this.error == null) {
                 this.error = new SyntaxException(ln, col, msg);
             }
+            if (this.abort) {
+                throw new ParseCancellationException(this.error);
+            }
         }
     }
 
@@ -5,7 +5,6 @@ import lexical.LexicalException;
 import lexical.Listing;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
-import rome77.Rome77Parser;
 
 /**
  * Rome77 lexer using ANTLR-generated lexer.
@@ -44,7 +43,6 @@ public final class Rome77Lexer implements Lexer {
         if (errors.lexical().isPresent()) {
             throw errors.lexical().get();
         }
-        final Rome77Parser parser = new Rome77Parser(tokens);
-        return new AntlrListing(tokens, parser);
+        return new AntlrListing(tokens, lexer.getVocabulary());
     }
 }
@@ -1,13 +1,17 @@
 package rome77.antlr;
 
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import rome77.Rome77Lexer;
 import rome77.Rome77Parser;
 import parsing.ParsingException;
 import syntax.Syntax;
 import syntax.SyntaxException;
-import syntax.SyntaxTree;
 
 /**
  * Rome77 syntax parser using ANTLR-generated lexer and parser.
@@ -15,40 +19,156 @@ import syntax.SyntaxTree;
  * This final class implements Syntax interface by wrapping ANTLR
  * runtime components. It creates immutable syntax tree from source code.
  *
+ * Parsing runs in two stages. The first stage uses SLL prediction
+ * with a bail-out error strategy, which is fast and succeeds for
+ * almost every valid program. Only when it fails the tokens are
+ * rewound and parsed again with full LL prediction and regular
+ * error reporting. The returned tree tells which stage succeeded.
+ *
+ * In fail-fast mode the lexer and the second stage stop at the first
+ * error instead of recovering and reading on, which saves the rest of
+ * the work when a source is to be rejected anyway. The first syntax
+ * error is reported as in the regular mode; a lexical error is reported
+ * at its own position as soon as the lexer meets it.
+ *
  * Example usage:
  * <pre>
- * SyntaxTree tree = new Rome77Syntax("Grafo XIV").parsed();
+ * AntlrTree tree = new Rome77Syntax("Grafo XIV").parsed();
+ * PredictionMode stage = tree.prediction();
+ * new Rome77Syntax(untrusted, true).parsed();
  * </pre>
  */
 public final class Rome77Syntax implements Syntax {
 
     private final String source;
 
+    private final boolean failfast;
+
     /**
-     * Primary constructor.
+     * Secondary constructor for the regular mode.
      *
      * @param code Rome77 source code
      */
     public Rome77Syntax(final String code) {
+        this(code, false);
+    }
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     * @param bail Whether to stop at the first lexical or syntax error
+     */
+    public Rome77Syntax(final String code, final boolean bail) {
         this.source = code;
+        this.failfast = bail;
     }
 
     @Override
-    public SyntaxTree parsed() throws ParsingException {
+    public AntlrTree parsed() throws ParsingException {
+        final Rome77Errors errors = new Rome77Errors(this.failfast);
+        final Rome77Parser parser = Rome77Syntax.parser(this.tokens(errors));
+        final Rome77Parser.ProgramContext program = Rome77Syntax.program(parser, errors);
+        return new AntlrTree(program, parser, parser.getInterpreter().getPredictionMode());
+    }
+
+    /**
+     * Parses the source into the context of the generated parser.
+     *
+     * Runs the same two stages as parsed(), but hands out the ANTLR
+     * parse tree itself, for consumers that visit it directly.
+     *
+     * @return Program context
+     * @throws ParsingException if the source has lexical or syntax errors
+     */
+    public Rome77Parser.ProgramContext program() throws ParsingException {
+        final Rome77Errors errors = new Rome77Errors(this.failfast);
+        return Rome77Syntax.program(Rome77Syntax.parser(this.tokens(errors)), errors);
+    }
+
+    /**
+     * Creates a token stream over the source.
+     *
+     * @param errors Listener capturing lexical errors
+     * @return Token stream, filled as the parser asks for tokens
+     */
+    private CommonTokenStream tokens(final Rome77Errors errors) {
         final Rome77Lexer lexer = new Rome77Lexer(
             CharStreams.fromString(this.source)
         );
-        final Rome77Errors errors = new Rome77Errors();
         lexer.removeErrorListeners();
         lexer.addErrorListener(errors);
-        final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        return new CommonTokenStream(lexer);
+    }
+
+    /**
+     * Creates a parser over tokens for the SLL stage.
+     *
+     * @param tokens Tokens of the source
+     * @return Parser with a bail-out error strategy
+     */
+    static Rome77Parser parser(final TokenStream tokens) {
         final Rome77Parser parser = new Rome77Parser(tokens);
         parser.removeErrorListeners();
-        parser.addErrorListener(errors);
-        final Rome77Parser.ProgramContext program = parser.program();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        return parser;
+    }
+
+    /**
+     * Parses in the SLL stage, falling back to the LL stage.
+     *
+     * The prediction mode of the parser tells afterwards which stage
+     * succeeded.
+     *
+     * @param parser Parser prepared for the SLL stage
+     * @param errors Listener capturing errors, possibly aborting at the first
+     * @return Program context
+     * @throws ParsingException if the LL stage reports an error,
+     *  or the listener aborts at an error
+     */
+    static Rome77Parser.ProgramContext program(
+        final Rome77Parser parser,
+        final Rome77Errors errors
+    ) throws ParsingException {
+        final Rome77Parser.ProgramContext program;
+        try {
+            program = Rome77Syntax.staged(parser, errors);
+        } catch (final ParseCancellationException ex) {
+            throw (ParsingException) ex.getCause();
+        }
         if (errors.captured().isPresent()) {
             throw errors.captured().get();
         }
-        return new AntlrTree(program, parser);
+        return program;
+    }
+
+    /**
+     * Runs the SLL stage and, if it bails out, the LL stage.
+     *
+     * An error the listener aborted at leaves both stages at once.
+     *
+     * @param parser Parser prepared for the SLL stage
+     * @param errors Listener capturing errors
+     * @return Program context
+     */
+    private static Rome77Parser.ProgramContext staged(
+        final Rome77Parser parser,
+        final Rome77Errors errors
+    ) {
+        Rome77Parser.ProgramContext program;
+        try {
+            program = parser.program();
+        } catch (final ParseCancellationException ex) {
+            if (ex.getCause() instanceof ParsingException) {
+                throw ex;
+            }
+            parser.reset();
+            parser.addErrorListener(errors);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            program = parser.program();
+        }
+        return program;
     }
 }
@@ -0,0 +1,96 @@
+package rome77.antlr;
+
+import lexical.Lexer;
+import lexical.LexicalException;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import parsing.ParsingException;
+import rome77.Rome77Parser;
+import syntax.Syntax;
+
+/**
+ * Rome77 compilation unit that lexes its source once.
+ *
+ * This final class serves both the token listing and the syntax tree
+ * of one source. The source is lexed on the first request for either,
+ * and the filled token stream is kept. The listing packs it, and the
+ * parser reads it and shares the packed listing with the tree it
+ * builds. Each result is computed on first use and then returned again,
+ * so asking for both costs one lexing pass and one parser. A unit is
+ * not meant to be shared between threads.
+ *
+ * The listing and the tree are the ones Rome77Lexer and Rome77Syntax
+ * would give for the same source.
+ *
+ * Example usage:
+ * <pre>
+ * Rome77Unit unit = new Rome77Unit("Grafo XIV");
+ * Listing listing = unit.tokenized();
+ * AntlrTree tree = unit.parsed();
+ * </pre>
+ */
+public final class Rome77Unit implements Lexer, Syntax {
+
+    private final String source;
+
+    private final Rome77Errors errors;
+
+    private CommonTokenStream stream;
+
+    private AntlrListing listing;
+
+    private AntlrTree tree;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     */
+    public Rome77Unit(final String code) {
+        this.source = code;
+        this.errors = new Rome77Errors();
+    }
+
+    @Override
+    public AntlrListing tokenized() throws LexicalException {
+        final AntlrListing result = this.packed();
+        if (this.errors.lexical().isPresent()) {
+            throw this.errors.lexical().get();
+        }
+        return result;
+    }
+
+    @Override
+    public AntlrTree parsed() throws ParsingException {
+        if (this.tree == null) {
+            final AntlrListing tokens = this.packed();
+            final Rome77Parser parser = Rome77Syntax.parser(this.stream);
+            this.tree = new AntlrTree(
+                Rome77Syntax.program(parser, this.errors),
+                parser,
+                tokens,
+                parser.getInterpreter().getPredictionMode()
+            );
+        }
+        return this.tree;
+    }
+
+    /**
+     * Lexes the source once and packs its tokens.
+     *
+     * @return Listing of all tokens, lexical errors not checked
+     */
+    private AntlrListing packed() {
+        if (this.listing == null) {
+            final rome77.Rome77Lexer lexer = new rome77.Rome77Lexer(
+                CharStreams.fromString(this.source)
+            );
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(this.errors);
+            this.stream = new CommonTokenStream(lexer);
+            this.stream.fill();
+            this.listing = new AntlrListing(this.stream, lexer.getVocabulary());
+        }
+        return this.listing;
+    }
+}
@@ -0,0 +1,97 @@
+package rome77.antlr;
+
+import java.util.Iterator;
+import syntax.SyntaxNode;
+
+/**
+ * Syntax node view moved to another place in the source.
+ *
+ * This final class wraps a node parsed from a piece of source as if
+ * the piece started at line 1, column 0. Lines are moved by the line
+ * the piece starts on, and columns on the first line of the piece by
+ * the column it starts at; everything else is the wrapped node's.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxNode node = new ShiftedNode(piece.root(), 12, 0);
+ * </pre>
+ */
+final class ShiftedNode implements SyntaxNode {
+
+    private final SyntaxNode node;
+
+    private final int line;
+
+    private final int column;
+
+    /**
+     * Primary constructor.
+     *
+     * @param origin Node with positions relative to its piece
+     * @param row Line the piece starts on
+     * @param col Column the piece starts at
+     */
+    ShiftedNode(final SyntaxNode origin, final int row, final int col) {
+        this.node = origin;
+        this.line = row;
+        this.column = col;
+    }
+
+    @Override
+    public String name() {
+        return this.node.name();
+    }
+
+    @Override
+    public String text() {
+        return this.node.text();
+    }
+
+    @Override
+    public CharSequence span() {
+        return this.node.span();
+    }
+
+    @Override
+    public int line() {
+        return this.node.line() + this.line - 1;
+    }
+
+    @Override
+    public int column() {
+        int result = this.node.column();
+        if (this.node.line() == 1) {
+            result = result + this.column;
+        }
+        return result;
+    }
+
+    @Override
+    public Iterable<SyntaxNode> children() {
+        return () -> new Iterator<>() {
+            private final Iterator<SyntaxNode> origin = ShiftedNode.this.node.children().iterator();
+
+            @Override
+            public boolean hasNext() {
+                return this.origin.hasNext();
+            }
+
+            @Override
+            public SyntaxNode next() {
+                return new ShiftedNode(
+                    this.origin.next(), ShiftedNode.this.line, ShiftedNode.this.column
+                );
+            }
+        };
+    }
+
+    @Override
+    public int childCount() {
+        return this.node.childCount();
+    }
+
+    @Override
+    public SyntaxNode child(final int position) {
+        return new ShiftedNode(this.node.child(position), this.line, this.column);
+    }
+}
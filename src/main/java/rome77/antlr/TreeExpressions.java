@@ -0,0 +1,368 @@
+package rome77.antlr;
+
+import ir.Expression;
+import ir.Frame;
+import ir.Operator;
+import ir.Value;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrConditional;
+import ir.simple.IrInput;
+import ir.simple.IrLiteral;
+import ir.simple.IrUnaryOp;
+import ir.simple.IrVariable;
+import java.util.ArrayList;
+import java.util.List;
+import lexical.RomanCodec;
+import semantic.SemanticException;
+import syntax.SyntaxNode;
+
+/**
+ * Builds IR expressions from the nodes of a Rome77 syntax tree.
+ *
+ * This final class is the SyntaxNode counterpart of AntlrExpressions:
+ * it dispatches on node names instead of context classes and reads the
+ * same programs the same way, including applications of a variable read
+ * back as arithmetic. Identifiers are resolved through the interned
+ * symbols, one probe each: inside a function against its parameters,
+ * outside against the globals declared so far, and as calls against the
+ * arities of all functions. A variable comes out with its frame and
+ * slot, a call with its target. The tree must keep the pass-through rules,
+ * as a parsed tree does; a collapsed one loses the parentheses that
+ * tell "f (-I)" from "f -I".
+ *
+ * Example usage:
+ * <pre>
+ * Expression body = new TreeExpressions(symbols, Frame.PARAMETER).built(node);
+ * </pre>
+ */
+final class TreeExpressions {
+
+    /**
+     * Decoder of numeral literals, accepting any run of digits.
+     */
+    private static final RomanCodec NUMERALS = new RomanCodec();
+
+    private final AntlrSymbols symbols;
+
+    private final Frame frame;
+
+    /**
+     * Primary constructor.
+     *
+     * @param table Interned names of the program
+     * @param storage PARAMETER to resolve names against the parameters of
+     *  the current function, GLOBAL against the globals
+     */
+    TreeExpressions(final AntlrSymbols table, final Frame storage) {
+        this.symbols = table;
+        this.frame = storage;
+    }
+
+    /**
+     * Builds the expression of a node.
+     *
+     * @param node Expression node of any of the expression rules
+     * @return IR expression
+     * @throws SemanticException if a name is unknown or a call has the wrong arity
+     */
+    Expression built(final SyntaxNode node) throws SemanticException {
+        final String name = node.name();
+        final Expression result;
+        if ("arithmetic".equals(name) || "toMult".equals(name)
+            || "toUnary".equals(name) || "toPrimary".equals(name)) {
+            result = this.built(node.child(0));
+        } else if ("parens".equals(name)) {
+            result = this.built(node.child(1));
+        } else if ("addSub".equals(name) || "mulDiv".equals(name)) {
+            result = this.chained(node);
+        } else if ("unaryOp".equals(name)) {
+            result = new IrUnaryOp(
+                TreeExpressions.operator(node.child(0)),
+                this.built(node.child(1))
+            );
+        } else if ("romanLiteral".equals(name)) {
+            result = new IrLiteral(
+                Value.of(TreeExpressions.NUMERALS.decodedLong(node.child(0).span()))
+            );
+        } else if ("variable".equals(name)) {
+            result = this.variable(node.child(0));
+        } else if ("readInput".equals(name)) {
+            result = new IrInput();
+        } else if ("conditional".equals(name)) {
+            final Expression condition = this.built(node.child(1));
+            final Expression then = this.built(node.child(2));
+            result = new IrConditional(condition, then, this.built(node.child(3)));
+        } else if ("funcCall".equals(name)) {
+            final List<Expression> values = this.applied(node);
+            if (values.size() != 1) {
+                throw TreeExpressions.failure(
+                    node.child(0), "Undefined function: %s", node.child(0).text()
+                );
+            }
+            result = values.get(0);
+        } else {
+            throw new IllegalArgumentException(
+                String.format("Not an expression node: %s", name)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a chain of binary operations.
+     *
+     * A sum or product of many terms nests to the left as deep as it is
+     * long, so the chain is walked down in a loop and built back up
+     * from its leftmost operand, instead of with one call per level.
+     *
+     * @param node AddSub or mulDiv node
+     * @return IR expression
+     * @throws SemanticException if a name in an operand is unknown
+     */
+    private Expression chained(final SyntaxNode node) throws SemanticException {
+        final List<SyntaxNode> chain = new ArrayList<>();
+        SyntaxNode current = node;
+        while ("addSub".equals(current.name()) || "mulDiv".equals(current.name())) {
+            chain.add(current);
+            current = current.child(0);
+        }
+        Expression result = this.built(current);
+        for (int idx = chain.size() - 1; idx >= 0; idx = idx - 1) {
+            final SyntaxNode operation = chain.get(idx);
+            result = new IrBinaryOp(
+                TreeExpressions.operator(operation.child(1)),
+                result,
+                this.built(operation.child(2))
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a bare name.
+     *
+     * @param identifier Identifier token
+     * @return Variable reference
+     * @throws SemanticException if the name is neither in scope nor a function
+     *  without parameters
+     */
+    private Expression variable(final SyntaxNode identifier) throws SemanticException {
+        final int symbol = this.symbols.symbol(identifier.span());
+        final int slot = this.slot(symbol);
+        final IrVariable result;
+        if (slot < 0) {
+            this.checked(identifier, symbol, 0, "Undefined variable: %s");
+            result = new IrVariable(this.symbols.name(symbol));
+        } else {
+            result = new IrVariable(this.symbols.name(symbol), this.frame, slot);
+        }
+        return result;
+    }
+
+    /**
+     * Builds the values an application contributes to an argument list.
+     *
+     * A call of a function gives one value. An application of a variable
+     * gives the variable, extended by the arguments that start with a
+     * sign, followed by the other arguments as separate values.
+     *
+     * @param node Application node
+     * @return Values in source order
+     * @throws SemanticException if a name is unknown or a call has the wrong arity
+     */
+    private List<Expression> applied(final SyntaxNode node) throws SemanticException {
+        final SyntaxNode identifier = node.child(0);
+        final int symbol = this.symbols.symbol(identifier.span());
+        final int slot = this.slot(symbol);
+        final boolean variable = slot >= 0;
+        final String undefined;
+        if (TreeExpressions.signed(node.child(1))) {
+            undefined = "Undefined variable: %s";
+        } else {
+            undefined = "Undefined function: %s";
+        }
+        if (!variable && !this.symbols.callable(symbol)) {
+            throw TreeExpressions.failure(identifier, undefined, this.symbols.name(symbol));
+        }
+        final List<Expression> values = new ArrayList<>(node.childCount());
+        if (variable) {
+            values.add(new IrVariable(this.symbols.name(symbol), this.frame, slot));
+        }
+        boolean first = true;
+        for (final SyntaxNode arg : node.children()) {
+            if (first) {
+                first = false;
+            } else if (TreeExpressions.signed(arg) && !values.isEmpty()) {
+                final Expression left = values.remove(values.size() - 1);
+                values.add(this.extended(arg.child(0), left));
+            } else if ("funcCall".equals(arg.name())) {
+                values.addAll(this.applied(arg));
+            } else {
+                values.add(this.built(arg));
+            }
+        }
+        final List<Expression> result;
+        if (variable) {
+            result = values;
+        } else {
+            this.checked(identifier, symbol, values.size(), undefined);
+            result = List.of(
+                new IrCall(this.symbols.name(symbol), this.symbols.target(symbol), values)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a signed sum as the continuation of a value before it.
+     *
+     * @param node Additive node whose leftmost operand starts with a sign
+     * @param left Value before the sum
+     * @return Expression with the value as leftmost operand
+     * @throws SemanticException if a name in the sum is unknown
+     */
+    private Expression extended(final SyntaxNode node, final Expression left)
+        throws SemanticException {
+        final Expression result;
+        if ("addSub".equals(node.name())) {
+            result = new IrBinaryOp(
+                TreeExpressions.operator(node.child(1)),
+                this.extended(node.child(0), left),
+                this.built(node.child(2))
+            );
+        } else {
+            SyntaxNode first = node.child(0);
+            while ("mulDiv".equals(first.name())) {
+                first = first.child(0);
+            }
+            result = new IrBinaryOp(
+                TreeExpressions.operator(first.child(0).child(0)),
+                left,
+                this.unsigned(node.child(0))
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Builds a product without the sign of its leftmost operand.
+     *
+     * @param node Multiplicative node whose leftmost operand starts with a sign
+     * @return Expression of the product with the sign dropped
+     * @throws SemanticException if a name in the product is unknown
+     */
+    private Expression unsigned(final SyntaxNode node) throws SemanticException {
+        final Expression result;
+        if ("mulDiv".equals(node.name())) {
+            result = new IrBinaryOp(
+                TreeExpressions.operator(node.child(1)),
+                this.unsigned(node.child(0)),
+                this.built(node.child(2))
+            );
+        } else {
+            result = this.built(node.child(0).child(1));
+        }
+        return result;
+    }
+
+    /**
+     * Checks a reference against the arity of the function it names.
+     *
+     * @param identifier Identifier token
+     * @param symbol Interned name
+     * @param count Number of arguments given
+     * @param undefined Error message format for an unknown name
+     * @throws SemanticException if no function has that name or the arity differs
+     */
+    private void checked(
+        final SyntaxNode identifier,
+        final int symbol,
+        final int count,
+        final String undefined
+    ) throws SemanticException {
+        final int arity = this.symbols.arity(symbol);
+        if (arity < 0) {
+            throw TreeExpressions.failure(identifier, undefined, this.symbols.name(symbol));
+        }
+        if (arity != count) {
+            throw new SemanticException(
+                identifier.line(),
+                identifier.column(),
+                String.format(
+                    "Function %s expects %d arguments, got %d",
+                    this.symbols.name(symbol), arity, count
+                )
+            );
+        }
+    }
+
+    /**
+     * Returns the slot of a variable in scope.
+     *
+     * @param symbol Interned name
+     * @return Slot in the frame, negative if the name is not in scope
+     */
+    private int slot(final int symbol) {
+        final int result;
+        if (this.frame == Frame.PARAMETER) {
+            result = this.symbols.parameter(symbol);
+        } else {
+            result = this.symbols.global(symbol);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a semantic error at a node.
+     *
+     * @param node Node the error is reported at
+     * @param msg Error message format taking the name
+     * @param name Name in the message
+     * @return Exception to throw
+     */
+    static SemanticException failure(final SyntaxNode node, final String msg, final String name) {
+        return new SemanticException(node.line(), node.column(), String.format(msg, name));
+    }
+
+    /**
+     * Checks whether an expression starts with a sign.
+     *
+     * @param node Expression node
+     * @return True if it is arithmetic whose leftmost operand is a unary
+     *  plus or minus
+     */
+    private static boolean signed(final SyntaxNode node) {
+        boolean result = false;
+        if ("arithmetic".equals(node.name())) {
+            SyntaxNode current = node.child(0);
+            while ("addSub".equals(current.name()) || "mulDiv".equals(current.name())
+                || "toMult".equals(current.name()) || "toUnary".equals(current.name())) {
+                current = current.child(0);
+            }
+            result = "unaryOp".equals(current.name());
+        }
+        return result;
+    }
+
+    /**
+     * Maps an operator token to its operator.
+     *
+     * @param token PLUS, MINUS, MULT or DIV token
+     * @return Operator
+     */
+    private static Operator operator(final SyntaxNode token) {
+        final String name = token.name();
+        final Operator result;
+        if ("PLUS".equals(name)) {
+            result = Operator.ADD;
+        } else if ("MINUS".equals(name)) {
+            result = Operator.SUB;
+        } else if ("MULT".equals(name)) {
+            result = Operator.MUL;
+        } else {
+            result = Operator.DIV;
+        }
+        return result;
+    }
+}
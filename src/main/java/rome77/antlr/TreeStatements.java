@@ -0,0 +1,163 @@
+package rome77.antlr;
+
+import ir.Expression;
+import ir.Frame;
+import ir.ProgramVisitor;
+import ir.simple.IrDeclaration;
+import ir.simple.IrFunction;
+import ir.simple.IrOutput;
+import java.util.ArrayList;
+import java.util.List;
+import parsing.ParsingException;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Analyzes top-level statement nodes of a program in source order.
+ *
+ * This final class is the SyntaxNode counterpart of AntlrStatements.
+ * It keeps the names defined so far in AntlrSymbols, so each statement
+ * is checked against the ones before it and then handed out as IR.
+ * The symbols must know the signature of every function of the program
+ * before the first statement; signed() gives such a table. A statement
+ * can also be skipped(): its names are recorded as if it had been
+ * analyzed, but nothing is built or checked, so analysis can start in
+ * the middle of a program.
+ *
+ * Example usage:
+ * <pre>
+ * List&lt;SyntaxNode&gt; statements = TreeStatements.statements(tree);
+ * TreeStatements analysis = new TreeStatements(TreeStatements.signed(statements));
+ * analysis.analyzed(statements.get(0), visitor);
+ * </pre>
+ */
+final class TreeStatements {
+
+    private final AntlrSymbols symbols;
+
+    private final TreeExpressions main;
+
+    private final TreeExpressions local;
+
+    /**
+     * Primary constructor.
+     *
+     * @param table Interned names knowing every function signature
+     */
+    TreeStatements(final AntlrSymbols table) {
+        this.symbols = table;
+        this.main = new TreeExpressions(table, Frame.GLOBAL);
+        this.local = new TreeExpressions(table, Frame.PARAMETER);
+    }
+
+    /**
+     * Lists the top-level statements of a tree.
+     *
+     * @param tree Syntax tree of a program
+     * @return Function definition, declaration and output nodes, in order
+     */
+    static List<SyntaxNode> statements(final SyntaxTree tree) {
+        final List<SyntaxNode> result = new ArrayList<>();
+        for (final SyntaxNode child : tree.root().children()) {
+            if ("statement".equals(child.name())) {
+                result.add(child.child(0));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Interns the signature of every function defined by the statements.
+     *
+     * Functions take their targets in order of definition.
+     *
+     * @param statements Top-level statements
+     * @return Symbols holding the arity and target of every function
+     */
+    static AntlrSymbols signed(final List<SyntaxNode> statements) {
+        final AntlrSymbols result = new AntlrSymbols(statements.size());
+        for (final SyntaxNode statement : statements) {
+            if ("functionDef".equals(statement.name())) {
+                result.define(
+                    result.symbol(statement.child(1).span()),
+                    statement.child(2).childCount()
+                );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Analyzes one statement and hands out its IR.
+     *
+     * @param statement Function definition, declaration or output node
+     * @param visitor Receiver of the IR
+     * @throws ParsingException if the statement breaks a rule
+     */
+    void analyzed(
+        final SyntaxNode statement,
+        final ProgramVisitor visitor
+    ) throws ParsingException {
+        final String name = statement.name();
+        if ("functionDef".equals(name)) {
+            final int symbol = this.claimed(statement.child(1), "Function %s is already defined");
+            this.symbols.enter();
+            final List<String> params = new ArrayList<>(statement.child(2).childCount());
+            for (final SyntaxNode param : statement.child(2).children()) {
+                final int bound = this.symbols.symbol(param.span());
+                if (!this.symbols.bind(bound, params.size())) {
+                    throw TreeExpressions.failure(
+                        param, "Duplicate parameter name: %s", this.symbols.name(bound)
+                    );
+                }
+                params.add(this.symbols.name(bound));
+            }
+            visitor.function(
+                new IrFunction(
+                    this.symbols.name(symbol), params, this.local.built(statement.child(4))
+                )
+            );
+        } else if ("variableDecl".equals(name)) {
+            final Expression value = this.main.built(statement.child(3));
+            final int symbol = this.claimed(statement.child(1), "Variable %s is already defined");
+            visitor.statement(
+                new IrDeclaration(this.symbols.name(symbol), this.symbols.declare(symbol), value)
+            );
+        } else {
+            visitor.statement(new IrOutput(this.main.built(statement.child(1))));
+        }
+    }
+
+    /**
+     * Records the names a statement defines without analyzing it.
+     *
+     * @param statement Function definition, declaration or output node
+     */
+    void skipped(final SyntaxNode statement) {
+        final String name = statement.name();
+        if ("functionDef".equals(name)) {
+            this.symbols.claimed(this.symbols.symbol(statement.child(1).span()));
+        } else if ("variableDecl".equals(name)) {
+            final int symbol = this.symbols.symbol(statement.child(1).span());
+            if (this.symbols.claimed(symbol)) {
+                this.symbols.declare(symbol);
+            }
+        }
+    }
+
+    /**
+     * Defines a top-level name.
+     *
+     * @param identifier Identifier token of the definition
+     * @param msg Error message format taking the name
+     * @return Interned name
+     * @throws ParsingException if the name is defined already
+     */
+    private int claimed(final SyntaxNode identifier, final String msg) throws ParsingException {
+        final int result = this.symbols.symbol(identifier.span());
+        if (!this.symbols.claimed(result)) {
+            throw TreeExpressions.failure(identifier, msg, this.symbols.name(result));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package rome77.arena;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import syntax.SyntaxNode;
+
+/**
+ * Syntax node view into an arena tree.
+ *
+ * This final class holds only the tree and the node index; every
+ * answer is read from the arrays of the tree. Children sit at
+ * consecutive indexes, so they are walked lazily and reached by
+ * position in constant time, without building a list.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxNode node = new ArenaNode(tree, 0);
+ * </pre>
+ */
+final class ArenaNode implements SyntaxNode {
+
+    private final ArenaTree tree;
+
+    private final int index;
+
+    /**
+     * Primary constructor.
+     *
+     * @param arena Tree the node belongs to
+     * @param node Node index
+     */
+    ArenaNode(final ArenaTree arena, final int node) {
+        this.tree = arena;
+        this.index = node;
+    }
+
+    @Override
+    public String name() {
+        return this.tree.name(this.index);
+    }
+
+    @Override
+    public String text() {
+        return this.tree.text(this.index);
+    }
+
+    @Override
+    public CharSequence span() {
+        return this.tree.span(this.index);
+    }
+
+    @Override
+    public int line() {
+        return this.tree.line(this.index);
+    }
+
+    @Override
+    public int column() {
+        return this.tree.column(this.index);
+    }
+
+    @Override
+    public Iterable<SyntaxNode> children() {
+        return () -> new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < ArenaNode.this.tree.childCount(ArenaNode.this.index);
+            }
+
+            @Override
+            public SyntaxNode next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final SyntaxNode node = ArenaNode.this.child(this.position);
+                this.position = this.position + 1;
+                return node;
+            }
+        };
+    }
+
+    @Override
+    public int childCount() {
+        return this.tree.childCount(this.index);
+    }
+
+    @Override
+    public SyntaxNode child(final int position) {
+        Objects.checkIndex(position, this.tree.childCount(this.index));
+        return new ArenaNode(this.tree, this.tree.first(this.index) + position);
+    }
+}
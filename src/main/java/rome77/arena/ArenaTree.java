@@ -0,0 +1,270 @@
+package rome77.arena;
+
+import java.util.Arrays;
+import java.util.Set;
+import lexical.PackedListing;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Syntax tree stored in parallel int arrays.
+ *
+ * Every node is one index into the arrays: its interned name, its first
+ * child, its number of children and the span of tokens it covers. The
+ * children of a node have consecutive indexes, so any child is one
+ * addition away. Names live once in a small table, and text and
+ * positions come from the packed token listing, so the tree holds no
+ * object per node and the text of any node is a slice of the source.
+ * SyntaxNode views are created only when a node is reached. The root is
+ * the node at index 0.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxTree tree = new ArenaTree(listing, names, size, kinds, firsts,
+ *     counts, starts, stops);
+ * SyntaxNode statement = tree.root().child(0);
+ * </pre>
+ */
+public final class ArenaTree implements SyntaxTree {
+
+    /**
+     * Marker for a missing child.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Rules of the Rome77 grammar that only pass their meaningful child
+     * through, as collapsed by both front ends.
+     */
+    public static final Set<String> PASSING = Set.of(
+        "arithmetic", "toMult", "toUnary", "toPrimary", "parens"
+    );
+
+    private final PackedListing listing;
+    private final String[] names;
+    private final int count;
+    private final int[] kinds;
+    private final int[] firsts;
+    private final int[] counts;
+    private final int[] starts;
+    private final int[] stops;
+
+    /**
+     * Primary constructor.
+     *
+     * Arrays are owned by the tree and must not be changed afterwards.
+     *
+     * @param tokens Tokens the spans refer to
+     * @param table Interned node names
+     * @param size Number of nodes stored in the arrays
+     * @param names Indexes into the name table
+     * @param children First child indexes, NONE for terminals; the other
+     *  children follow the first one
+     * @param sizes Numbers of children
+     * @param begins Indexes of the first covered tokens
+     * @param finishes Indexes of the last covered tokens, inclusive
+     */
+    public ArenaTree(
+        final PackedListing tokens,
+        final String[] table,
+        final int size,
+        final int[] names,
+        final int[] children,
+        final int[] sizes,
+        final int[] begins,
+        final int[] finishes
+    ) {
+        this.listing = tokens;
+        this.names = table;
+        this.count = size;
+        this.kinds = names;
+        this.firsts = children;
+        this.counts = sizes;
+        this.starts = begins;
+        this.stops = finishes;
+    }
+
+    @Override
+    public SyntaxNode root() {
+        return new ArenaNode(this, 0);
+    }
+
+    /**
+     * Number of nodes in the tree.
+     *
+     * @return Node count
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Builds the tree without pass-through nodes.
+     *
+     * A node named in the given set that has exactly one rule child is
+     * replaced by that child, repeatedly, so chains of single-child
+     * rules shrink to the node that carries meaning. Terminals around
+     * the kept child, such as parentheses, are dropped with the node.
+     *
+     * @param passing Names of the rules to collapse
+     * @return Tree over the same tokens with fewer nodes
+     */
+    public ArenaTree collapsed(final Set<String> passing) {
+        final boolean[] through = new boolean[this.names.length];
+        for (int idx = 0; idx < this.names.length; idx = idx + 1) {
+            through[idx] = passing.contains(this.names[idx]);
+        }
+        final int[] kinds = new int[this.count];
+        final int[] firsts = new int[this.count];
+        final int[] counts = new int[this.count];
+        final int[] starts = new int[this.count];
+        final int[] stops = new int[this.count];
+        final int[] pending = new int[this.count];
+        final int[] places = new int[this.count];
+        pending[0] = this.kept(0, through);
+        places[0] = 0;
+        int top = 1;
+        int size = 1;
+        while (top > 0) {
+            top = top - 1;
+            final int node = pending[top];
+            final int idx = places[top];
+            kinds[idx] = this.kinds[node];
+            counts[idx] = this.counts[node];
+            starts[idx] = this.starts[node];
+            stops[idx] = this.stops[node];
+            if (this.counts[node] == 0) {
+                firsts[idx] = NONE;
+            } else {
+                firsts[idx] = size;
+            }
+            for (int pos = 0; pos < this.counts[node]; pos = pos + 1) {
+                pending[top] = this.kept(this.firsts[node] + pos, through);
+                places[top] = size;
+                top = top + 1;
+                size = size + 1;
+            }
+        }
+        return new ArenaTree(
+            this.listing, this.names, size,
+            Arrays.copyOf(kinds, size), Arrays.copyOf(firsts, size),
+            Arrays.copyOf(counts, size), Arrays.copyOf(starts, size),
+            Arrays.copyOf(stops, size)
+        );
+    }
+
+    /**
+     * Returns the name of a node.
+     *
+     * @param node Node index
+     * @return Rule or token name from the interned table
+     */
+    String name(final int node) {
+        return this.names[this.kinds[node]];
+    }
+
+    /**
+     * Returns the source text of a node.
+     *
+     * @param node Node index
+     * @return Token text for terminals, covered source for rules
+     */
+    String text(final int node) {
+        final String result;
+        if (this.counts[node] == 0) {
+            result = this.listing.text(this.starts[node]);
+        } else {
+            result = this.span(node).toString();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the source covered by a node.
+     *
+     * @param node Node index
+     * @return View of the source, from the first to the last covered token
+     */
+    CharSequence span(final int node) {
+        return this.listing.span(this.starts[node], this.stops[node]);
+    }
+
+    /**
+     * Returns the line of a node.
+     *
+     * @param node Node index
+     * @return Line of the first covered token, 1-based
+     */
+    int line(final int node) {
+        return this.listing.line(this.starts[node]);
+    }
+
+    /**
+     * Returns the column of a node.
+     *
+     * @param node Node index
+     * @return Column of the first covered token, 0-based
+     */
+    int column(final int node) {
+        return this.listing.column(this.starts[node]);
+    }
+
+    /**
+     * Returns the number of children of a node.
+     *
+     * @param node Node index
+     * @return Number of children
+     */
+    int childCount(final int node) {
+        return this.counts[node];
+    }
+
+    /**
+     * Returns the first child of a node.
+     *
+     * @param node Node index
+     * @return Child index, NONE for terminals
+     */
+    int first(final int node) {
+        return this.firsts[node];
+    }
+
+    /**
+     * Follows a chain of pass-through nodes down to the first one kept.
+     *
+     * @param node Node index
+     * @param through Whether each name of the table is passed through
+     * @return Index of the node that stays in a collapsed tree
+     */
+    private int kept(final int node, final boolean[] through) {
+        int result = node;
+        int inner = this.inner(result);
+        while (through[this.kinds[result]] && inner != NONE) {
+            result = inner;
+            inner = this.inner(result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the only rule child of a node.
+     *
+     * @param node Node index
+     * @return Child index, NONE if there are no rule children or several
+     */
+    private int inner(final int node) {
+        int result = NONE;
+        int rules = 0;
+        for (int pos = 0; pos < this.counts[node]; pos = pos + 1) {
+            final int child = this.firsts[node] + pos;
+            if (this.counts[child] > 0) {
+                result = child;
+                rules = rules + 1;
+            }
+        }
+        if (rules != 1) {
+            result = NONE;
+        }
+        return result;
+    }
+}
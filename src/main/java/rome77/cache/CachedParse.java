@@ -0,0 +1,61 @@
+package rome77.cache;
+
+import parsing.ParsingException;
+import syntax.SyntaxTree;
+
+/**
+ * Outcome of parsing one source, as kept by a parse cache.
+ *
+ * This final class holds either the tree or the error the source
+ * parsed to, together with the weight the entry counts for against the
+ * bound of the cache.
+ *
+ * Example usage:
+ * <pre>
+ * CachedParse parse = new CachedParse(tree, null, code.length());
+ * SyntaxTree same = parse.tree();
+ * </pre>
+ */
+final class CachedParse {
+
+    private final SyntaxTree result;
+
+    private final ParsingException error;
+
+    private final long size;
+
+    /**
+     * Primary constructor.
+     *
+     * @param tree Parsed tree, null if parsing failed
+     * @param failure Parsing error, null if parsing succeeded
+     * @param weight Weight of the entry, the length of its source
+     */
+    CachedParse(final SyntaxTree tree, final ParsingException failure, final long weight) {
+        this.result = tree;
+        this.error = failure;
+        this.size = weight;
+    }
+
+    /**
+     * Returns the kept tree, or throws the kept error again.
+     *
+     * @return Parsed tree
+     * @throws ParsingException The error the source parsed to
+     */
+    SyntaxTree tree() throws ParsingException {
+        if (this.error != null) {
+            throw this.error;
+        }
+        return this.result;
+    }
+
+    /**
+     * Returns the weight of the entry.
+     *
+     * @return Length of the source
+     */
+    long weight() {
+        return this.size;
+    }
+}
@@ -0,0 +1,60 @@
+package rome77.cache;
+
+import parsing.ParsingException;
+import syntax.Syntax;
+import syntax.SyntaxTree;
+
+/**
+ * Syntax decorator that parses each distinct source only once.
+ *
+ * This final class looks its source up in a shared parse cache by the
+ * digest of its text. On a hit it returns the kept tree, or throws the
+ * kept error again, without touching the wrapped syntax. On a miss it
+ * parses with the wrapped syntax and keeps the outcome. Trees are
+ * immutable, so one tree can be handed to every caller.
+ *
+ * The wrapped syntax must parse the same source the decorator is given.
+ *
+ * Example usage:
+ * <pre>
+ * ParseCache cache = new ParseCache(512, 64L &lt;&lt; 20);
+ * Syntax syntax = new CachedSyntax(code, new Rome77Syntax(code), cache);
+ * SyntaxTree tree = syntax.parsed();
+ * </pre>
+ */
+public final class CachedSyntax implements Syntax {
+
+    private final String source;
+
+    private final Syntax origin;
+
+    private final ParseCache cache;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Source code the key is computed from
+     * @param syntax Syntax parsing that source on a miss
+     * @param store Cache shared by all decorators
+     */
+    public CachedSyntax(final String code, final Syntax syntax, final ParseCache store) {
+        this.source = code;
+        this.origin = syntax;
+        this.cache = store;
+    }
+
+    @Override
+    public SyntaxTree parsed() throws ParsingException {
+        final String key = ParseCache.digest(this.source);
+        CachedParse parse = this.cache.found(key);
+        if (parse == null) {
+            try {
+                parse = new CachedParse(this.origin.parsed(), null, this.source.length());
+            } catch (final ParsingException ex) {
+                parse = new CachedParse(null, ex, this.source.length());
+            }
+            this.cache.keep(key, parse);
+        }
+        return parse.tree();
+    }
+}
@@ -0,0 +1,157 @@
+package rome77.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded store of parse outcomes keyed by source content.
+ *
+ * This final class maps the SHA-256 digest of a source text to the tree
+ * or the error it parsed to, so equal sources share one entry whatever
+ * file they came from. Entries are kept in least-recently-used order.
+ * When the number of entries or their total weight, the summed length
+ * of their sources, goes past its bound, the least recently used ones
+ * are evicted; a source heavier than the whole bound is not kept at
+ * all. Trees grow with their source, so the weight bound stands in for
+ * a bound on memory.
+ *
+ * Hits, misses and evictions are counted. The cache may be shared by
+ * threads; parsing itself happens outside of it, so two threads missing
+ * the same source at once both parse it.
+ *
+ * Example usage:
+ * <pre>
+ * ParseCache cache = new ParseCache(512, 64L &lt;&lt; 20);
+ * SyntaxTree tree = new CachedSyntax(code, new Rome77Syntax(code), cache).parsed();
+ * long hits = cache.hits();
+ * </pre>
+ */
+public final class ParseCache {
+
+    private final int entries;
+
+    private final long weight;
+
+    private final LinkedHashMap<String, CachedParse> store;
+
+    private long total;
+
+    private long hit;
+
+    private long miss;
+
+    private long evicted;
+
+    /**
+     * Primary constructor.
+     *
+     * @param count Most entries kept at once
+     * @param chars Most source characters kept at once, over all entries
+     */
+    public ParseCache(final int count, final long chars) {
+        this.entries = count;
+        this.weight = chars;
+        this.store = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns how many lookups found their source.
+     *
+     * @return Number of hits
+     */
+    public synchronized long hits() {
+        return this.hit;
+    }
+
+    /**
+     * Returns how many lookups did not find their source.
+     *
+     * @return Number of misses
+     */
+    public synchronized long misses() {
+        return this.miss;
+    }
+
+    /**
+     * Returns how many entries were dropped to stay within the bounds.
+     *
+     * @return Number of evictions
+     */
+    public synchronized long evictions() {
+        return this.evicted;
+    }
+
+    /**
+     * Returns how many entries are kept now.
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return this.store.size();
+    }
+
+    /**
+     * Looks a source up and marks it as the most recently used.
+     *
+     * @param key Digest of the source
+     * @return Kept outcome, null on a miss
+     */
+    synchronized CachedParse found(final String key) {
+        final CachedParse result = this.store.get(key);
+        if (result == null) {
+            this.miss = this.miss + 1;
+        } else {
+            this.hit = this.hit + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the outcome of a source, evicting others beyond the bounds.
+     *
+     * An outcome heavier than the whole weight bound is dropped before
+     * it touches the store, so it cannot push out the entries kept.
+     *
+     * @param key Digest of the source
+     * @param parse Outcome to keep
+     */
+    synchronized void keep(final String key, final CachedParse parse) {
+        if (parse.weight() > this.weight) {
+            return;
+        }
+        final CachedParse previous = this.store.put(key, parse);
+        if (previous != null) {
+            this.total = this.total - previous.weight();
+        }
+        this.total = this.total + parse.weight();
+        final Iterator<Map.Entry<String, CachedParse>> eldest = this.store.entrySet().iterator();
+        while (this.store.size() > this.entries || this.total > this.weight) {
+            this.total = this.total - eldest.next().getValue().weight();
+            eldest.remove();
+            this.evicted = this.evicted + 1;
+        }
+    }
+
+    /**
+     * Computes the key of a source.
+     *
+     * @param code Source text
+     * @return Hex SHA-256 digest of its UTF-8 bytes
+     */
+    static String digest(final String code) {
+        final String result;
+        try {
+            result = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(code.getBytes(StandardCharsets.UTF_8))
+            );
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        return result;
+    }
+}
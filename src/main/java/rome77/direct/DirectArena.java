@@ -0,0 +1,203 @@
+package rome77.direct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lexical.PackedListing;
+import lexical.TokenCategory;
+import rome77.arena.ArenaTree;
+
+/**
+ * Collects the nodes of the hand-written parser into an arena tree.
+ *
+ * The parser finishes a node only after its children, so nodes are
+ * recorded as they complete, each with its children listed in a shared
+ * pool. Once the program node is done, the nodes are laid out again
+ * from the root so that the children of every node get consecutive
+ * indexes, as the arena tree expects. Names are interned into one table
+ * shared by all nodes; terminals are named after their token category.
+ *
+ * Example usage:
+ * <pre>
+ * DirectArena arena = new DirectArena(listing);
+ * int literal = arena.rule("romanLiteral", arena.terminal(1));
+ * ArenaTree tree = arena.tree(program);
+ * </pre>
+ */
+final class DirectArena {
+
+    private static final TokenCategory[] CATEGORIES = TokenCategory.values();
+
+    private final PackedListing listing;
+
+    private final List<String> table;
+
+    private final Map<String, Integer> interned;
+
+    private int size;
+
+    private int[] kinds;
+
+    private int[] starts;
+
+    private int[] stops;
+
+    private int[] offsets;
+
+    private int[] counts;
+
+    private int[] pool;
+
+    private int used;
+
+    /**
+     * Primary constructor.
+     *
+     * @param tokens Tokens the parser reads
+     */
+    DirectArena(final PackedListing tokens) {
+        this.listing = tokens;
+        this.table = new ArrayList<>(16);
+        this.interned = new HashMap<>();
+        final int capacity = Math.max(16, tokens.size() * 2);
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.stops = new int[capacity];
+        this.offsets = new int[capacity];
+        this.counts = new int[capacity];
+        this.pool = new int[capacity];
+    }
+
+    /**
+     * Records a terminal node.
+     *
+     * @param token Index of the token
+     * @return Handle of the node
+     */
+    int terminal(final int token) {
+        return this.added(
+            this.name(CATEGORIES[this.listing.kind(token)].name()), token, token, 0
+        );
+    }
+
+    /**
+     * Records a rule node over nodes recorded before.
+     *
+     * @param name Rule name
+     * @param children Handles of the children, at least one
+     * @return Handle of the node
+     */
+    int rule(final String name, final int... children) {
+        if (this.used + children.length > this.pool.length) {
+            this.pool = Arrays.copyOf(this.pool, (this.used + children.length) * 2);
+        }
+        System.arraycopy(children, 0, this.pool, this.used, children.length);
+        final int result = this.added(
+            this.name(name),
+            this.starts[children[0]],
+            this.stops[children[children.length - 1]],
+            children.length
+        );
+        this.used = this.used + children.length;
+        return result;
+    }
+
+    /**
+     * Lays the nodes out from the root.
+     *
+     * @param root Handle of the program node
+     * @return Arena tree with the children of every node side by side
+     */
+    ArenaTree tree(final int root) {
+        final int[] kinds = new int[this.size];
+        final int[] firsts = new int[this.size];
+        final int[] counts = new int[this.size];
+        final int[] starts = new int[this.size];
+        final int[] stops = new int[this.size];
+        final int[] pending = new int[this.size];
+        final int[] places = new int[this.size];
+        pending[0] = root;
+        places[0] = 0;
+        int top = 1;
+        int size = 1;
+        while (top > 0) {
+            top = top - 1;
+            final int node = pending[top];
+            final int idx = places[top];
+            kinds[idx] = this.kinds[node];
+            counts[idx] = this.counts[node];
+            starts[idx] = this.starts[node];
+            stops[idx] = this.stops[node];
+            if (this.counts[node] == 0) {
+                firsts[idx] = ArenaTree.NONE;
+            } else {
+                firsts[idx] = size;
+            }
+            for (int pos = 0; pos < this.counts[node]; pos = pos + 1) {
+                pending[top] = this.pool[this.offsets[node] + pos];
+                places[top] = size;
+                top = top + 1;
+                size = size + 1;
+            }
+        }
+        return new ArenaTree(
+            this.listing, this.table.toArray(new String[0]), size,
+            Arrays.copyOf(kinds, size), Arrays.copyOf(firsts, size),
+            Arrays.copyOf(counts, size), Arrays.copyOf(starts, size),
+            Arrays.copyOf(stops, size)
+        );
+    }
+
+    /**
+     * Records a node.
+     *
+     * @param name Index into the name table
+     * @param start Index of the first covered token
+     * @param stop Index of the last covered token, inclusive
+     * @param count Number of children, taken from the end of the pool
+     * @return Handle of the node
+     */
+    private int added(final int name, final int start, final int stop, final int count) {
+        final int result = this.size;
+        if (result == this.kinds.length) {
+            this.grow();
+        }
+        this.size = result + 1;
+        this.kinds[result] = name;
+        this.starts[result] = start;
+        this.stops[result] = stop;
+        this.offsets[result] = this.used;
+        this.counts[result] = count;
+        return result;
+    }
+
+    /**
+     * Interns a node name.
+     *
+     * @param name Rule or token category name
+     * @return Index into the name table
+     */
+    private int name(final String name) {
+        return this.interned.computeIfAbsent(
+            name,
+            key -> {
+                this.table.add(key);
+                return this.table.size() - 1;
+            }
+        );
+    }
+
+    /**
+     * Doubles the capacity of the node arrays.
+     */
+    private void grow() {
+        final int capacity = this.kinds.length * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.stops = Arrays.copyOf(this.stops, capacity);
+        this.offsets = Arrays.copyOf(this.offsets, capacity);
+        this.counts = Arrays.copyOf(this.counts, capacity);
+    }
+}
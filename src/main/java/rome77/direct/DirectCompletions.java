@@ -0,0 +1,326 @@
+package rome77.direct;
+
+import lexical.PackedListing;
+import lexical.TokenCategory;
+
+/**
+ * Table of ways to complete an expression region from every token.
+ *
+ * The grammar is ambiguous: an identifier may start a call or be a
+ * variable, a call may take one more argument or stop, and a plus or
+ * minus may continue the arithmetic or start a unary argument. ANTLR
+ * resolves every such choice to the first alternative that still lets
+ * the whole statement parse, so the parser needs to know in advance
+ * whether the rest of the tokens can be completed.
+ *
+ * Completion depends only on how many more expressions the enclosing
+ * conditionals and calls still need, and on whether an enclosing call
+ * can absorb extra arguments. When it can, any smaller need works too,
+ * so a single maximum per token is enough. When it cannot, the feasible
+ * needs always form one contiguous range. One backward pass over the
+ * region fills both, so every decision is answered in constant time.
+ *
+ * Example usage:
+ * <pre>
+ * DirectCompletions table = new DirectCompletions(listing);
+ * if (table.prepared(start, end) &amp;&amp; table.expression(start, 1, false)) {
+ *     // tokens from start to end form exactly one expression
+ * }
+ * </pre>
+ */
+final class DirectCompletions {
+
+    private static final int LPAREN = TokenCategory.LPAREN.ordinal();
+
+    private static final int RPAREN = TokenCategory.RPAREN.ordinal();
+
+    private static final TokenCategory[] CATEGORIES = TokenCategory.values();
+
+    private final PackedListing tokens;
+
+    /**
+     * Index of the first token of the prepared region.
+     */
+    private int base;
+
+    /**
+     * Matching closing parenthesis for every opening one.
+     */
+    private int[] closing;
+
+    /**
+     * Feasible needs without extra arguments, as ranges.
+     * The e arrays describe starting an expression at the token,
+     * the u arrays starting an operand, the a arrays continuing
+     * right after an operand.
+     */
+    private int[] elow;
+    private int[] ehigh;
+    private int[] ulow;
+    private int[] uhigh;
+    private int[] alow;
+    private int[] ahigh;
+
+    /**
+     * Largest feasible need when extra arguments are absorbed, or -1.
+     */
+    private int[] emax;
+    private int[] umax;
+    private int[] amax;
+
+    /**
+     * Primary constructor.
+     *
+     * @param listing Tokens to decide on
+     */
+    DirectCompletions(final PackedListing listing) {
+        this.tokens = listing;
+        this.resize(16);
+    }
+
+    /**
+     * Fills the table for one expression region.
+     *
+     * @param start Index of the first token of the region
+     * @param end Index of the token right after the region
+     * @return False if the parentheses in the region do not match
+     */
+    boolean prepared(final int start, final int end) {
+        if (end - start + 1 > this.emax.length) {
+            this.resize(Math.max(end - start + 1, this.emax.length * 2));
+        }
+        this.base = start;
+        final boolean balanced = this.matched(start, end);
+        if (balanced) {
+            for (int pos = end; pos >= start; pos = pos - 1) {
+                this.fill(pos, end);
+            }
+        }
+        return balanced;
+    }
+
+    /**
+     * Checks whether expressions can start at the given token.
+     *
+     * @param pos Token index within the prepared region
+     * @param need Number of expressions required before the region ends
+     * @param open Whether an enclosing call absorbs extra expressions
+     * @return True if the rest of the region can be completed
+     */
+    boolean expression(final int pos, final int need, final boolean open) {
+        final int idx = pos - this.base;
+        final boolean result;
+        if (open) {
+            result = need <= this.emax[idx];
+        } else {
+            result = this.elow[idx] <= need && need <= this.ehigh[idx];
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether an operand can start at the given token.
+     *
+     * @param pos Token index within the prepared region
+     * @param need Number of expressions required after the current one
+     * @param open Whether an enclosing call absorbs extra expressions
+     * @return True if the rest of the region can be completed
+     */
+    boolean operand(final int pos, final int need, final boolean open) {
+        final int idx = pos - this.base;
+        final boolean result;
+        if (open) {
+            result = need <= this.umax[idx];
+        } else {
+            result = this.ulow[idx] <= need && need <= this.uhigh[idx];
+        }
+        return result;
+    }
+
+    /**
+     * Pairs up parentheses of the region.
+     *
+     * @param start Index of the first token of the region
+     * @param end Index of the token right after the region
+     * @return False if some parenthesis has no pair
+     */
+    private boolean matched(final int start, final int end) {
+        final int[] open = new int[end - start + 1];
+        int depth = 0;
+        boolean result = true;
+        for (int pos = start; pos < end && result; pos = pos + 1) {
+            final int kind = this.tokens.kind(pos);
+            if (kind == LPAREN) {
+                open[depth] = pos;
+                depth = depth + 1;
+            } else if (kind == RPAREN) {
+                if (depth == 0) {
+                    result = false;
+                } else {
+                    depth = depth - 1;
+                    this.closing[open[depth] - start] = pos;
+                }
+            }
+        }
+        return result && depth == 0;
+    }
+
+    /**
+     * Fills the table entry for one token from the entries after it.
+     *
+     * A closing parenthesis or the region end closes a span
+     * in which nothing more is needed.
+     *
+     * @param pos Token index
+     * @param end Index of the token right after the region
+     */
+    private void fill(final int pos, final int end) {
+        final int idx = pos - this.base;
+        final TokenCategory kind;
+        if (pos == end) {
+            kind = TokenCategory.EOF;
+        } else {
+            kind = CATEGORIES[this.tokens.kind(pos)];
+        }
+        if (pos == end || kind == TokenCategory.RPAREN) {
+            this.elow[idx] = 0;
+            this.ehigh[idx] = 0;
+            this.emax[idx] = 0;
+            this.ulow[idx] = 1;
+            this.uhigh[idx] = 0;
+            this.umax[idx] = -1;
+            this.alow[idx] = 0;
+            this.ahigh[idx] = 0;
+            this.amax[idx] = 0;
+        } else {
+            this.fillOperand(idx, kind);
+            this.fillExpression(idx, kind);
+            this.fillAfter(idx, kind);
+        }
+    }
+
+    /**
+     * Fills the operand entry: unary operators, then a primary.
+     *
+     * @param idx Table index of the token
+     * @param kind Token category
+     */
+    private void fillOperand(final int idx, final TokenCategory kind) {
+        int low = 1;
+        int high = 0;
+        int max = -1;
+        if (kind == TokenCategory.PLUS || kind == TokenCategory.MINUS) {
+            low = this.ulow[idx + 1];
+            high = this.uhigh[idx + 1];
+            max = this.umax[idx + 1];
+        } else if (kind == TokenCategory.ROMAN || kind == TokenCategory.IDENTIFIER
+            || kind == TokenCategory.ANAGNOSI) {
+            low = this.alow[idx + 1];
+            high = this.ahigh[idx + 1];
+            max = this.amax[idx + 1];
+        } else if (kind == TokenCategory.LPAREN
+            && this.elow[idx + 1] <= 1 && 1 <= this.ehigh[idx + 1]) {
+            final int after = this.closing[idx] - this.base + 1;
+            low = this.alow[after];
+            high = this.ahigh[after];
+            max = this.amax[after];
+        }
+        this.ulow[idx] = low;
+        this.uhigh[idx] = high;
+        this.umax[idx] = max;
+    }
+
+    /**
+     * Fills the expression entry: conditional, call or arithmetic.
+     *
+     * Starting an expression uses up one need; a conditional adds
+     * three more, a call adds at least one and absorbs any extra.
+     *
+     * @param idx Table index of the token
+     * @param kind Token category
+     */
+    private void fillExpression(final int idx, final TokenCategory kind) {
+        int low = 1;
+        int high = 0;
+        int max = -1;
+        if (kind == TokenCategory.SINON) {
+            low = Math.max(this.elow[idx + 1] - 2, 1);
+            high = this.ehigh[idx + 1] - 2;
+            if (this.emax[idx + 1] >= 3) {
+                max = this.emax[idx + 1] - 2;
+            }
+        } else {
+            low = this.ulow[idx] + 1;
+            high = this.uhigh[idx] + 1;
+            if (this.umax[idx] >= 0) {
+                max = this.umax[idx] + 1;
+            }
+        }
+        if (kind == TokenCategory.IDENTIFIER && this.emax[idx + 1] >= 1) {
+            if (low > high) {
+                low = 1;
+                high = this.emax[idx + 1];
+            } else {
+                low = 1;
+                high = Math.max(high, this.emax[idx + 1]);
+            }
+            max = Math.max(max, this.emax[idx + 1]);
+        }
+        this.elow[idx] = low;
+        this.ehigh[idx] = high;
+        this.emax[idx] = max;
+    }
+
+    /**
+     * Fills the entry for continuing right after an operand.
+     *
+     * A binary operator continues the arithmetic; plus and minus may
+     * also start the next expression instead.
+     *
+     * @param idx Table index of the token
+     * @param kind Token category
+     */
+    private void fillAfter(final int idx, final TokenCategory kind) {
+        if (kind == TokenCategory.MULT || kind == TokenCategory.DIV) {
+            this.alow[idx] = this.ulow[idx + 1];
+            this.ahigh[idx] = this.uhigh[idx + 1];
+            this.amax[idx] = this.umax[idx + 1];
+        } else if (kind == TokenCategory.PLUS || kind == TokenCategory.MINUS) {
+            final boolean binary = this.ulow[idx + 1] <= this.uhigh[idx + 1];
+            final boolean split = this.elow[idx] <= this.ehigh[idx];
+            if (binary && split) {
+                this.alow[idx] = Math.min(this.ulow[idx + 1], this.elow[idx]);
+                this.ahigh[idx] = Math.max(this.uhigh[idx + 1], this.ehigh[idx]);
+            } else if (binary) {
+                this.alow[idx] = this.ulow[idx + 1];
+                this.ahigh[idx] = this.uhigh[idx + 1];
+            } else {
+                this.alow[idx] = this.elow[idx];
+                this.ahigh[idx] = this.ehigh[idx];
+            }
+            this.amax[idx] = Math.max(this.umax[idx + 1], this.emax[idx]);
+        } else {
+            this.alow[idx] = this.elow[idx];
+            this.ahigh[idx] = this.ehigh[idx];
+            this.amax[idx] = this.emax[idx];
+        }
+    }
+
+    /**
+     * Reallocates the table for regions of the given size.
+     *
+     * @param size Number of entries
+     */
+    private void resize(final int size) {
+        this.closing = new int[size];
+        this.elow = new int[size];
+        this.ehigh = new int[size];
+        this.ulow = new int[size];
+        this.uhigh = new int[size];
+        this.alow = new int[size];
+        this.ahigh = new int[size];
+        this.emax = new int[size];
+        this.umax = new int[size];
+        this.amax = new int[size];
+    }
+}
@@ -0,0 +1,37 @@
+package rome77.direct;
+
+import lexical.Lexer;
+import lexical.LexicalException;
+import lexical.PackedListing;
+
+/**
+ * Rome77 lexer written by hand, without the ANTLR runtime.
+ *
+ * This final class implements Lexer interface with a table-driven
+ * scanner that records tokens into parallel int arrays. It produces
+ * the same tokens, positions and first LexicalException as the
+ * ANTLR-based rome77.antlr.Rome77Lexer.
+ *
+ * Example usage:
+ * <pre>
+ * Listing listing = new DirectLexer("As x = V").tokenized();
+ * </pre>
+ */
+public final class DirectLexer implements Lexer {
+
+    private final String source;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     */
+    public DirectLexer(final String code) {
+        this.source = code;
+    }
+
+    @Override
+    public PackedListing tokenized() throws LexicalException {
+        return new DirectScanner(this.source).listing();
+    }
+}
@@ -0,0 +1,290 @@
+package rome77.direct;
+
+import java.util.Arrays;
+import lexical.TokenCategory;
+
+/**
+ * Augmented transition network of the Rome77 grammar.
+ *
+ * A copy of the network ANTLR builds from Rome77.g4, with the same
+ * state numbers, so that its prediction can be replayed without the
+ * ANTLR runtime. Every state lists its edges: epsilon edges, rule calls
+ * with the state to return to, and token edges with the categories
+ * they take. The stop state of a rule has an epsilon edge back to every
+ * state the rule returns to, which is how prediction goes on past the
+ * end of a rule when it does not know who called it.
+ *
+ * Example usage:
+ * <pre>
+ * DirectNetwork network = new DirectNetwork();
+ * int[] edges = network.edges(DirectNetwork.CALL);
+ * </pre>
+ */
+final class DirectNetwork {
+
+    /**
+     * Edge kinds; every edge is a kind, a target and an argument.
+     * The argument of a call is the state to return to, the argument
+     * of a token edge the mask of categories it takes.
+     */
+    static final int EPSILON = 0;
+    static final int RULE = 1;
+    static final int TOKEN = 2;
+
+    /**
+     * Decision whether a name starts a call or an arithmetic operand.
+     */
+    static final int CALL = 66;
+
+    /**
+     * Decision whether a call takes one more argument.
+     */
+    static final int ARGUMENTS = 63;
+
+    /**
+     * Decision whether a plus or minus continues a sum.
+     */
+    static final int SUM = 76;
+
+    /**
+     * States the rules return to, named after their call sites.
+     */
+    static final int STATEMENT = 24;
+    static final int DECLARATION = 34;
+    static final int FUNCTION = 40;
+    static final int VARIABLE = 50;
+    static final int OUTPUT = 53;
+    static final int CONDITION = 56;
+    static final int CHOICE = 57;
+    static final int OTHERWISE = 58;
+    static final int ARGUMENT = 62;
+    static final int ARITHMETIC = 67;
+    static final int TERM = 70;
+    static final int NEXT_TERM = 75;
+    static final int FACTOR = 81;
+    static final int NEXT_FACTOR = 86;
+    static final int OPERAND = 94;
+    static final int PARENS = 100;
+
+    /**
+     * Rule start states; the stop state of a rule follows its start.
+     */
+    private static final int STATEMENTS = 2;
+    private static final int FUNCTIONS = 4;
+    private static final int PARAMS = 6;
+    private static final int VARIABLES = 8;
+    private static final int OUTPUTS = 10;
+    private static final int EXPR = 12;
+    private static final int ADDITIVE = 14;
+    private static final int MULTIPLICATIVE = 16;
+    private static final int UNARY = 18;
+    private static final int PRIMARY = 20;
+
+    private static final int RULES = 22;
+
+    private final int[][] table;
+
+    /**
+     * Primary constructor.
+     */
+    DirectNetwork() {
+        this.table = new int[104][];
+        Arrays.fill(this.table, new int[0]);
+        // program : statement* EOF
+        this.epsilon(0, 25);
+        this.call(22, DirectNetwork.STATEMENTS, DirectNetwork.STATEMENT);
+        this.epsilon(23, 22);
+        this.epsilon(24, 27);
+        this.epsilon(25, 23);
+        this.epsilon(25, 26);
+        this.epsilon(26, 28);
+        this.epsilon(27, 25);
+        this.token(28, 29, TokenCategory.EOF);
+        this.epsilon(29, 1);
+        // statement : functionDef | variableDecl | outputStmt
+        this.epsilon(2, 33);
+        this.call(30, DirectNetwork.FUNCTIONS, DirectNetwork.DECLARATION);
+        this.call(31, DirectNetwork.VARIABLES, DirectNetwork.DECLARATION);
+        this.call(32, DirectNetwork.OUTPUTS, DirectNetwork.DECLARATION);
+        this.epsilon(33, 30);
+        this.epsilon(33, 31);
+        this.epsilon(33, 32);
+        this.epsilon(34, 3);
+        // functionDef : 'Munus' IDENTIFIER params '=' expr
+        this.epsilon(4, 35);
+        this.token(35, 36, TokenCategory.MUNUS);
+        this.token(36, 37, TokenCategory.IDENTIFIER);
+        this.call(37, DirectNetwork.PARAMS, 38);
+        this.token(38, 39, TokenCategory.EQUALS);
+        this.call(39, DirectNetwork.EXPR, DirectNetwork.FUNCTION);
+        this.epsilon(40, 5);
+        // params : IDENTIFIER+
+        this.epsilon(6, 42);
+        this.token(41, 43, TokenCategory.IDENTIFIER);
+        this.epsilon(42, 41);
+        this.epsilon(43, 44);
+        this.epsilon(44, 42);
+        this.epsilon(44, 45);
+        this.epsilon(45, 7);
+        // variableDecl : 'As' IDENTIFIER '=' expr
+        this.epsilon(8, 46);
+        this.token(46, 47, TokenCategory.AS);
+        this.token(47, 48, TokenCategory.IDENTIFIER);
+        this.token(48, 49, TokenCategory.EQUALS);
+        this.call(49, DirectNetwork.EXPR, DirectNetwork.VARIABLE);
+        this.epsilon(50, 9);
+        // outputStmt : 'Grafo' expr
+        this.epsilon(10, 51);
+        this.token(51, 52, TokenCategory.GRAFO);
+        this.call(52, DirectNetwork.EXPR, DirectNetwork.OUTPUT);
+        this.epsilon(53, 11);
+        // expr : 'Sinon' expr expr expr | IDENTIFIER expr+ | additive
+        this.epsilon(12, 66);
+        this.token(54, 55, TokenCategory.SINON);
+        this.call(55, DirectNetwork.EXPR, DirectNetwork.CONDITION);
+        this.call(56, DirectNetwork.EXPR, DirectNetwork.CHOICE);
+        this.call(57, DirectNetwork.EXPR, DirectNetwork.OTHERWISE);
+        this.epsilon(58, 67);
+        this.token(59, 61, TokenCategory.IDENTIFIER);
+        this.call(60, DirectNetwork.EXPR, DirectNetwork.ARGUMENT);
+        this.epsilon(61, 60);
+        this.epsilon(62, 63);
+        this.epsilon(63, 61);
+        this.epsilon(63, 64);
+        this.epsilon(64, 67);
+        this.call(65, DirectNetwork.ADDITIVE, DirectNetwork.ARITHMETIC);
+        this.epsilon(66, 54);
+        this.epsilon(66, 59);
+        this.epsilon(66, 65);
+        this.epsilon(67, 13);
+        // additive : additive ('+' | '-') multiplicative | multiplicative
+        this.epsilon(14, 68);
+        this.epsilon(68, 69);
+        this.call(69, DirectNetwork.MULTIPLICATIVE, DirectNetwork.TERM);
+        this.epsilon(70, 76);
+        this.epsilon(71, 72);
+        this.token(72, 73, TokenCategory.PLUS, TokenCategory.MINUS);
+        this.call(73, DirectNetwork.MULTIPLICATIVE, DirectNetwork.NEXT_TERM);
+        this.epsilon(74, 71);
+        this.epsilon(75, 78);
+        this.epsilon(76, 74);
+        this.epsilon(76, 77);
+        this.epsilon(77, 15);
+        this.epsilon(78, 76);
+        // multiplicative : multiplicative ('*' | '/') unary | unary
+        this.epsilon(16, 79);
+        this.epsilon(79, 80);
+        this.call(80, DirectNetwork.UNARY, DirectNetwork.FACTOR);
+        this.epsilon(81, 87);
+        this.epsilon(82, 83);
+        this.token(83, 84, TokenCategory.MULT, TokenCategory.DIV);
+        this.call(84, DirectNetwork.UNARY, DirectNetwork.NEXT_FACTOR);
+        this.epsilon(85, 82);
+        this.epsilon(86, 89);
+        this.epsilon(87, 85);
+        this.epsilon(87, 88);
+        this.epsilon(88, 17);
+        this.epsilon(89, 87);
+        // unary : ('+' | '-') unary | primary
+        this.epsilon(18, 93);
+        this.token(90, 91, TokenCategory.PLUS, TokenCategory.MINUS);
+        this.call(91, DirectNetwork.UNARY, DirectNetwork.OPERAND);
+        this.call(92, DirectNetwork.PRIMARY, DirectNetwork.OPERAND);
+        this.epsilon(93, 90);
+        this.epsilon(93, 92);
+        this.epsilon(94, 19);
+        // primary : ROMAN | IDENTIFIER | 'Anagnosi' | '(' expr ')'
+        this.epsilon(20, 102);
+        this.token(95, 103, TokenCategory.ROMAN);
+        this.token(96, 103, TokenCategory.IDENTIFIER);
+        this.token(97, 103, TokenCategory.ANAGNOSI);
+        this.token(98, 99, TokenCategory.LPAREN);
+        this.call(99, DirectNetwork.EXPR, DirectNetwork.PARENS);
+        this.token(100, 101, TokenCategory.RPAREN);
+        this.epsilon(101, 103);
+        this.epsilon(102, 95);
+        this.epsilon(102, 96);
+        this.epsilon(102, 97);
+        this.epsilon(102, 98);
+        this.epsilon(103, 21);
+    }
+
+    /**
+     * Returns the edges of a state.
+     *
+     * @param state State number
+     * @return Kind, target and argument of every edge, in order
+     */
+    int[] edges(final int state) {
+        return this.table[state];
+    }
+
+    /**
+     * Checks whether a state ends a rule.
+     *
+     * @param state State number
+     * @return True for rule stop states
+     */
+    boolean stop(final int state) {
+        return state < DirectNetwork.RULES && state % 2 == 1;
+    }
+
+    /**
+     * Checks whether prediction keeps a state in its sets.
+     *
+     * @param state State number
+     * @return True unless the state only has epsilon edges and calls
+     */
+    boolean consuming(final int state) {
+        return this.table[state].length == 0 || this.table[state][0] == DirectNetwork.TOKEN;
+    }
+
+    /**
+     * Returns the stop state of the left-recursive rule whose loop a
+     * decision continues.
+     *
+     * @param decision Decision state
+     * @return Stop state, or -1 if the decision is no such loop
+     */
+    int recursive(final int decision) {
+        final int result;
+        if (decision == DirectNetwork.SUM) {
+            result = DirectNetwork.ADDITIVE + 1;
+        } else {
+            result = -1;
+        }
+        return result;
+    }
+
+    private void epsilon(final int from, final int to) {
+        this.added(from, DirectNetwork.EPSILON, to, 0);
+    }
+
+    /**
+     * Adds a rule call and the way back from the end of the rule.
+     *
+     * @param from Calling state
+     * @param rule Start state of the called rule
+     * @param follow State to return to
+     */
+    private void call(final int from, final int rule, final int follow) {
+        this.added(from, DirectNetwork.RULE, rule, follow);
+        this.added(rule + 1, DirectNetwork.EPSILON, follow, 0);
+    }
+
+    private void token(final int from, final int to, final TokenCategory... categories) {
+        int mask = 0;
+        for (final TokenCategory category : categories) {
+            mask = mask | 1 << category.ordinal();
+        }
+        this.added(from, DirectNetwork.TOKEN, to, mask);
+    }
+
+    private void added(final int from, final int kind, final int target, final int argument) {
+        final int[] edges = Arrays.copyOf(this.table[from], this.table[from].length + 3);
+        edges[edges.length - 3] = kind;
+        edges[edges.length - 2] = target;
+        edges[edges.length - 1] = argument;
+        this.table[from] = edges;
+    }
+}
@@ -0,0 +1,432 @@
+package rome77.direct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lexical.PackedListing;
+import lexical.TokenCategory;
+import rome77.arena.ArenaTree;
+import syntax.SyntaxException;
+
+/**
+ * Recursive-descent parser for Rome77 token listings.
+ *
+ * Statements are chosen by their first token. Expressions follow the
+ * grammar rules one method per rule, with additive and multiplicative
+ * chains parsed as loops and folded to the left. Where the grammar is
+ * ambiguous, the completion table tells which alternatives still let
+ * the statement parse, and the first of them is taken, as ANTLR does.
+ *
+ * When the table finds no way to parse an expression, the decisions
+ * are predicted the way the generated parser predicts them, so the
+ * parser takes the same path and reports the same token: the first one
+ * it cannot match, or the one where prediction runs out of viable
+ * alternatives. For that, the parser keeps the states of the grammar
+ * network that every rule being parsed returns to.
+ *
+ * Nodes are recorded in an arena as they complete, and the tree is
+ * handed out as an arena tree, the same kind the ANTLR front end builds.
+ *
+ * Example usage:
+ * <pre>
+ * ArenaTree program = new DirectParser(listing).program();
+ * </pre>
+ */
+final class DirectParser {
+
+    private static final int AS = TokenCategory.AS.ordinal();
+    private static final int MUNUS = TokenCategory.MUNUS.ordinal();
+    private static final int GRAFO = TokenCategory.GRAFO.ordinal();
+    private static final int ANAGNOSI = TokenCategory.ANAGNOSI.ordinal();
+    private static final int SINON = TokenCategory.SINON.ordinal();
+    private static final int PLUS = TokenCategory.PLUS.ordinal();
+    private static final int MINUS = TokenCategory.MINUS.ordinal();
+    private static final int MULT = TokenCategory.MULT.ordinal();
+    private static final int DIV = TokenCategory.DIV.ordinal();
+    private static final int EQUALS = TokenCategory.EQUALS.ordinal();
+    private static final int LPAREN = TokenCategory.LPAREN.ordinal();
+    private static final int RPAREN = TokenCategory.RPAREN.ordinal();
+    private static final int ROMAN = TokenCategory.ROMAN.ordinal();
+    private static final int IDENTIFIER = TokenCategory.IDENTIFIER.ordinal();
+    private static final int EOF = TokenCategory.EOF.ordinal();
+
+    private static final String STATEMENT = "a statement";
+
+    private final PackedListing tokens;
+
+    private final DirectCompletions table;
+
+    private final DirectArena arena;
+
+    private final DirectPrediction prediction;
+
+    /**
+     * States the rules being parsed return to, outermost first.
+     */
+    private int[] calls;
+
+    private int depth;
+
+    /**
+     * Index of the next token.
+     */
+    private int pos;
+
+    /**
+     * Whether the completion table decides the current expression,
+     * false while its decisions are predicted.
+     */
+    private boolean guided;
+
+    /**
+     * Primary constructor.
+     *
+     * @param listing Tokens ending with EOF
+     */
+    DirectParser(final PackedListing listing) {
+        this.tokens = listing;
+        this.table = new DirectCompletions(listing);
+        this.arena = new DirectArena(listing);
+        this.prediction = new DirectPrediction(listing);
+        this.calls = new int[16];
+    }
+
+    /**
+     * Parses the whole listing.
+     *
+     * @return Tree of the program
+     * @throws SyntaxException if tokens do not form a program
+     */
+    ArenaTree program() throws SyntaxException {
+        final List<Integer> nodes = new ArrayList<>();
+        int kind = this.kind();
+        while (kind == AS || kind == MUNUS || kind == GRAFO) {
+            this.enter(DirectNetwork.STATEMENT);
+            nodes.add(this.statement());
+            this.leave();
+            kind = this.kind();
+        }
+        if (kind != EOF) {
+            throw this.failure(STATEMENT);
+        }
+        nodes.add(this.terminal());
+        return this.arena.tree(this.arena.rule("program", DirectParser.handles(nodes)));
+    }
+
+    private int statement() throws SyntaxException {
+        final int kind = this.kind();
+        final int body;
+        this.enter(DirectNetwork.DECLARATION);
+        if (kind == MUNUS) {
+            body = this.function();
+        } else if (kind == AS) {
+            body = this.arena.rule(
+                "variableDecl",
+                this.terminal(),
+                this.match(IDENTIFIER, "a name"),
+                this.match(EQUALS, "'='"),
+                this.body(DirectNetwork.VARIABLE)
+            );
+        } else {
+            body = this.arena.rule(
+                "outputStmt", this.terminal(), this.body(DirectNetwork.OUTPUT)
+            );
+        }
+        this.leave();
+        return this.arena.rule("statement", body);
+    }
+
+    private int function() throws SyntaxException {
+        final int keyword = this.terminal();
+        final int name = this.match(IDENTIFIER, "a name");
+        final List<Integer> names = new ArrayList<>();
+        names.add(this.match(IDENTIFIER, "a parameter"));
+        while (this.kind() == IDENTIFIER) {
+            names.add(this.terminal());
+        }
+        final int params = this.arena.rule("params", DirectParser.handles(names));
+        final int equals = this.match(EQUALS, "'='");
+        return this.arena.rule(
+            "functionDef", keyword, name, params, equals, this.body(DirectNetwork.FUNCTION)
+        );
+    }
+
+    /**
+     * Parses the expression that ends a statement.
+     *
+     * The expression runs up to the next statement keyword or EOF,
+     * and the completion table is filled for exactly that region. If
+     * the region is no single expression, its decisions are predicted
+     * up to the token where that shows.
+     *
+     * @param follow State the expression returns to in the network
+     * @return Expression node
+     * @throws SyntaxException if the region is not a single expression
+     */
+    private int body(final int follow) throws SyntaxException {
+        int end = this.pos;
+        int kind = this.tokens.kind(end);
+        while (kind != AS && kind != MUNUS && kind != GRAFO && kind != EOF) {
+            end = end + 1;
+            kind = this.tokens.kind(end);
+        }
+        this.guided = this.table.prepared(this.pos, end)
+            && this.table.expression(this.pos, 1, false);
+        final int result = this.expression(follow, 0, false);
+        if (this.pos != end) {
+            throw this.failure(STATEMENT);
+        }
+        return result;
+    }
+
+    /**
+     * Parses one expression called from a state of the network.
+     *
+     * @param follow State the expression returns to
+     * @param need Number of expressions still needed after this one
+     * @param open Whether an enclosing call absorbs extra arguments
+     * @return Conditional, call or arithmetic node
+     * @throws SyntaxException if tokens do not form an expression
+     */
+    private int expression(final int follow, final int need, final boolean open)
+        throws SyntaxException {
+        this.enter(follow);
+        final int result = this.expression(need, open);
+        this.leave();
+        return result;
+    }
+
+    /**
+     * Parses one expression.
+     *
+     * @param need Number of expressions still needed after this one
+     * @param open Whether an enclosing call absorbs extra arguments
+     * @return Conditional, call or arithmetic node
+     * @throws SyntaxException if tokens do not form an expression
+     */
+    private int expression(final int need, final boolean open) throws SyntaxException {
+        final int kind = this.kind();
+        final int result;
+        if (kind == SINON) {
+            result = this.arena.rule(
+                "conditional",
+                this.terminal(),
+                this.expression(DirectNetwork.CONDITION, need + 2, open),
+                this.expression(DirectNetwork.CHOICE, need + 1, open),
+                this.expression(DirectNetwork.OTHERWISE, need, open)
+            );
+        } else if (kind == IDENTIFIER && this.call(need)) {
+            final List<Integer> nodes = new ArrayList<>();
+            nodes.add(this.terminal());
+            nodes.add(this.expression(DirectNetwork.ARGUMENT, need, true));
+            while (this.argument(need)) {
+                nodes.add(this.expression(DirectNetwork.ARGUMENT, need, true));
+            }
+            result = this.arena.rule("funcCall", DirectParser.handles(nodes));
+        } else {
+            this.enter(DirectNetwork.ARITHMETIC);
+            result = this.arena.rule("arithmetic", this.additive(need, open));
+            this.leave();
+        }
+        return result;
+    }
+
+    private int additive(final int need, final boolean open) throws SyntaxException {
+        int left = this.arena.rule("toMult", this.multiplicative(DirectNetwork.TERM));
+        int kind = this.kind();
+        while ((kind == PLUS || kind == MINUS) && this.operand(need, open)) {
+            left = this.arena.rule(
+                "addSub", left, this.terminal(), this.multiplicative(DirectNetwork.NEXT_TERM)
+            );
+            kind = this.kind();
+        }
+        return left;
+    }
+
+    private int multiplicative(final int follow) throws SyntaxException {
+        this.enter(follow);
+        int left = this.arena.rule("toUnary", this.unary(DirectNetwork.FACTOR));
+        int kind = this.kind();
+        while (kind == MULT || kind == DIV) {
+            left = this.arena.rule(
+                "mulDiv", left, this.terminal(), this.unary(DirectNetwork.NEXT_FACTOR)
+            );
+            kind = this.kind();
+        }
+        this.leave();
+        return left;
+    }
+
+    private int unary(final int follow) throws SyntaxException {
+        this.enter(follow);
+        final int kind = this.kind();
+        final int result;
+        if (kind == PLUS || kind == MINUS) {
+            result = this.arena.rule(
+                "unaryOp", this.terminal(), this.unary(DirectNetwork.OPERAND)
+            );
+        } else {
+            this.enter(DirectNetwork.OPERAND);
+            result = this.arena.rule("toPrimary", this.primary());
+            this.leave();
+        }
+        this.leave();
+        return result;
+    }
+
+    private int primary() throws SyntaxException {
+        final int kind = this.kind();
+        final int result;
+        if (kind == ROMAN) {
+            result = this.arena.rule("romanLiteral", this.terminal());
+        } else if (kind == IDENTIFIER) {
+            result = this.arena.rule("variable", this.terminal());
+        } else if (kind == ANAGNOSI) {
+            result = this.arena.rule("readInput", this.terminal());
+        } else if (kind == LPAREN) {
+            result = this.arena.rule(
+                "parens",
+                this.terminal(),
+                this.expression(DirectNetwork.PARENS, 0, false),
+                this.match(RPAREN, "')'")
+            );
+        } else {
+            throw this.failure("an expression");
+        }
+        return result;
+    }
+
+    /**
+     * Decides whether the name at the next token starts a call.
+     *
+     * @param need Number of expressions still needed after this one
+     * @return True if the name is called
+     * @throws SyntaxException if prediction finds no viable alternative
+     */
+    private boolean call(final int need) throws SyntaxException {
+        final boolean result;
+        if (this.guided) {
+            result = this.table.expression(this.pos + 1, need + 1, true);
+        } else {
+            result = this.predicted(DirectNetwork.CALL) == 2;
+        }
+        return result;
+    }
+
+    /**
+     * Decides whether a call takes one more argument.
+     *
+     * @param need Number of expressions still needed after the call
+     * @return True if the argument is taken
+     * @throws SyntaxException if prediction finds no viable alternative
+     */
+    private boolean argument(final int need) throws SyntaxException {
+        final boolean result;
+        if (this.guided) {
+            result = this.table.expression(this.pos, need + 1, true);
+        } else {
+            result = this.predicted(DirectNetwork.ARGUMENTS) == 1;
+        }
+        return result;
+    }
+
+    /**
+     * Decides whether the plus or minus at the next token continues
+     * the arithmetic.
+     *
+     * @param need Number of expressions still needed after this one
+     * @param open Whether an enclosing call absorbs extra arguments
+     * @return True if the operator is taken as binary
+     * @throws SyntaxException if prediction finds no viable alternative
+     */
+    private boolean operand(final int need, final boolean open) throws SyntaxException {
+        final boolean result;
+        if (this.guided) {
+            result = this.table.operand(this.pos + 1, need, open);
+        } else {
+            result = this.predicted(DirectNetwork.SUM) == 1;
+        }
+        return result;
+    }
+
+    private int predicted(final int decision) throws SyntaxException {
+        return this.prediction.predicted(decision, this.pos, this.calls, this.depth);
+    }
+
+    /**
+     * Records the state a rule call returns to.
+     *
+     * @param follow State in the network
+     */
+    private void enter(final int follow) {
+        if (this.depth == this.calls.length) {
+            this.calls = Arrays.copyOf(this.calls, this.depth * 2);
+        }
+        this.calls[this.depth] = follow;
+        this.depth = this.depth + 1;
+    }
+
+    private void leave() {
+        this.depth = this.depth - 1;
+    }
+
+    /**
+     * Consumes a token of the expected category.
+     *
+     * @param expected Token category ordinal
+     * @param description What is expected, for the error message
+     * @return Handle of the terminal node
+     * @throws SyntaxException if the next token is of another category
+     */
+    private int match(final int expected, final String description)
+        throws SyntaxException {
+        if (this.kind() != expected) {
+            throw this.failure(description);
+        }
+        return this.terminal();
+    }
+
+    private int terminal() {
+        final int idx = this.pos;
+        this.pos = this.pos + 1;
+        return this.arena.terminal(idx);
+    }
+
+    private int kind() {
+        return this.tokens.kind(this.pos);
+    }
+
+    /**
+     * Builds the error for the next token.
+     *
+     * @param expected What was expected instead
+     * @return Exception at the position of the token
+     */
+    private SyntaxException failure(final String expected) {
+        final String found;
+        if (this.kind() == EOF) {
+            found = "end of input";
+        } else {
+            found = String.format("'%s'", this.tokens.text(this.pos));
+        }
+        return new SyntaxException(
+            this.tokens.line(this.pos),
+            this.tokens.column(this.pos),
+            String.format("Expected %s, found %s", expected, found)
+        );
+    }
+
+    /**
+     * Unboxes the handles of a list of nodes.
+     *
+     * @param nodes Handles in source order
+     * @return Handles as an array
+     */
+    private static int[] handles(final List<Integer> nodes) {
+        final int[] result = new int[nodes.size()];
+        for (int idx = 0; idx < result.length; idx = idx + 1) {
+            result[idx] = nodes.get(idx);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,652 @@
+package rome77.direct;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lexical.PackedListing;
+import lexical.TokenCategory;
+import syntax.SyntaxException;
+
+/**
+ * Adaptive prediction of the generated parser, replayed without ANTLR.
+ *
+ * Three decisions of the grammar may need more than one token to make:
+ * whether a name starts a call, whether a call takes one more argument,
+ * and whether a plus or minus continues a sum. On input that does not
+ * parse, the token ANTLR reports depends on how it makes them. It first
+ * simulates the network with the callers of the rule unknown, so the
+ * end of a rule leads back to every call site. If alternatives still
+ * conflict, it starts over with the real stack of callers. It stops at
+ * the first token that leaves a single alternative. When a token leaves
+ * none, it takes the smallest alternative that had already left the
+ * rule, and if there is none either, it reports no viable alternative
+ * at that token.
+ *
+ * This class runs the same steps over a copy of the network, one
+ * configuration per state, alternative and stack of return states, so
+ * the hand-written parser takes the path the generated one takes and
+ * fails at the same token.
+ *
+ * Example usage:
+ * <pre>
+ * DirectPrediction prediction = new DirectPrediction(listing);
+ * if (prediction.predicted(DirectNetwork.CALL, pos, calls, depth) == 2) {
+ *     // the name at pos starts a call
+ * }
+ * </pre>
+ */
+final class DirectPrediction {
+
+    private static final DirectNetwork NETWORK = new DirectNetwork();
+
+    private static final int EOF = TokenCategory.EOF.ordinal();
+
+    private final PackedListing tokens;
+
+    /**
+     * Primary constructor.
+     *
+     * @param listing Tokens ending with EOF
+     */
+    DirectPrediction(final PackedListing listing) {
+        this.tokens = listing;
+    }
+
+    /**
+     * Predicts the alternative the generated parser takes.
+     *
+     * @param decision Decision state
+     * @param at Index of the first token to look at
+     * @param calls States the rules being parsed return to, outermost first
+     * @param depth Number of states in use
+     * @return Alternative, counted from 1
+     * @throws SyntaxException if no alternative is viable
+     */
+    int predicted(final int decision, final int at, final int[] calls, final int depth)
+        throws SyntaxException {
+        final int recursive = DirectPrediction.NETWORK.recursive(decision);
+        Configs previous = DirectPrediction.start(decision, Stack.EMPTY, false, recursive);
+        if (recursive >= 0) {
+            previous = previous.filtered();
+        }
+        boolean exact = false;
+        int idx = at;
+        int result = 0;
+        while (result == 0) {
+            final int kind = this.tokens.kind(idx);
+            final Configs reach = DirectPrediction.reach(previous, kind, recursive);
+            if (reach.empty()) {
+                result = previous.finished();
+                if (result == 0) {
+                    throw this.failure(idx);
+                }
+            } else {
+                result = reach.unique();
+                if (result == 0 && exact) {
+                    result = reach.resolved();
+                }
+            }
+            if (result == 0 && !exact && reach.conflicting()) {
+                Stack stack = Stack.EMPTY;
+                for (int call = 0; call < depth; call = call + 1) {
+                    stack = new Stack(calls[call], stack);
+                }
+                exact = true;
+                previous = DirectPrediction.start(decision, stack, true, recursive);
+                idx = at;
+            } else if (result == 0) {
+                previous = reach;
+                if (kind != DirectPrediction.EOF) {
+                    idx = idx + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the error for a token no alternative takes.
+     *
+     * @param idx Token index
+     * @return Exception at the position of the token
+     */
+    private SyntaxException failure(final int idx) {
+        final String found;
+        if (this.tokens.kind(idx) == DirectPrediction.EOF) {
+            found = "end of input";
+        } else {
+            found = String.format("'%s'", this.tokens.text(idx));
+        }
+        return new SyntaxException(
+            this.tokens.line(idx),
+            this.tokens.column(idx),
+            String.format("No viable alternative at %s", found)
+        );
+    }
+
+    /**
+     * Collects the configurations a decision starts with.
+     *
+     * @param decision Decision state
+     * @param stack Return states, empty while the callers are unknown
+     * @param exact Whether the stack is the real one
+     * @param recursive Stop state of the rule whose loop is decided, or -1
+     * @return Configurations of all alternatives
+     */
+    private static Configs start(
+        final int decision, final Stack stack, final boolean exact, final int recursive
+    ) {
+        final Configs result = new Configs(exact);
+        final int[] edges = DirectPrediction.NETWORK.edges(decision);
+        for (int idx = 0; idx < edges.length; idx = idx + 3) {
+            DirectPrediction.closure(
+                new Config(edges[idx + 1], idx / 3 + 1, stack, false, false),
+                result, new HashSet<>(), false, recursive
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Moves configurations over one token.
+     *
+     * @param previous Configurations before the token
+     * @param kind Token category ordinal
+     * @param recursive Stop state of the rule whose loop is decided, or -1
+     * @return Configurations after the token, empty if none takes it
+     */
+    private static Configs reach(final Configs previous, final int kind, final int recursive) {
+        final Configs taken = new Configs(previous.exact);
+        final List<Config> stopped = new ArrayList<>(0);
+        for (final Config config : previous.all()) {
+            if (DirectPrediction.NETWORK.stop(config.state)) {
+                if (previous.exact || kind == DirectPrediction.EOF) {
+                    stopped.add(config);
+                }
+            } else {
+                final int[] edges = DirectPrediction.NETWORK.edges(config.state);
+                for (int idx = 0; idx < edges.length; idx = idx + 3) {
+                    if (edges[idx] == DirectNetwork.TOKEN
+                        && (edges[idx + 2] & 1 << kind) != 0) {
+                        taken.add(config.moved(edges[idx + 1]));
+                    }
+                }
+            }
+        }
+        Configs result;
+        if (stopped.isEmpty() && kind != DirectPrediction.EOF
+            && (taken.size() == 1 || taken.unique() != 0)) {
+            result = taken;
+        } else {
+            result = new Configs(previous.exact);
+            final Set<Long> busy = new HashSet<>();
+            for (final Config config : taken.all()) {
+                DirectPrediction.closure(
+                    config, result, busy, kind == DirectPrediction.EOF, recursive
+                );
+            }
+        }
+        if (kind == DirectPrediction.EOF) {
+            result = result.stopped();
+        }
+        if (!stopped.isEmpty() && (!previous.exact || !result.stopping())) {
+            for (final Config config : stopped) {
+                result.add(config);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Follows epsilon edges, calls and returns from a configuration.
+     *
+     * Without the real stack, the end of a rule leads to every state the
+     * rule returns to; each such return is taken once per alternative
+     * and marks the configuration as having left the decision rule.
+     *
+     * @param first Configuration to start from
+     * @param into Set that collects configurations at consuming states
+     * @param busy Returns already taken past an unknown caller
+     * @param eof Whether an end of input edge counts as epsilon
+     * @param recursive Stop state of the rule whose loop is decided, or -1
+     */
+    private static void closure(
+        final Config first, final Configs into, final Set<Long> busy,
+        final boolean eof, final int recursive
+    ) {
+        final Deque<Config> pending = new ArrayDeque<>();
+        pending.push(first);
+        while (!pending.isEmpty()) {
+            final Config config = pending.pop();
+            final boolean stop = DirectPrediction.NETWORK.stop(config.state);
+            if (stop && config.stack != Stack.EMPTY) {
+                pending.push(
+                    new Config(
+                        config.stack.state, config.alt, config.stack.parent,
+                        config.outer, config.suppressed
+                    )
+                );
+            } else if (stop && into.exact) {
+                into.add(config);
+            } else {
+                if (DirectPrediction.NETWORK.consuming(config.state)) {
+                    into.add(config);
+                }
+                final int[] edges = DirectPrediction.NETWORK.edges(config.state);
+                for (int idx = 0; idx < edges.length; idx = idx + 3) {
+                    final Config next;
+                    if (stop) {
+                        next = new Config(
+                            edges[idx + 1], config.alt, Stack.EMPTY, true,
+                            config.suppressed || config.state == recursive
+                        );
+                    } else if (edges[idx] == DirectNetwork.RULE) {
+                        next = new Config(
+                            edges[idx + 1], config.alt,
+                            new Stack(edges[idx + 2], config.stack),
+                            config.outer, config.suppressed
+                        );
+                    } else if (edges[idx] == DirectNetwork.EPSILON
+                        || eof && (edges[idx + 2] & 1 << DirectPrediction.EOF) != 0) {
+                        next = config.moved(edges[idx + 1]);
+                    } else {
+                        next = null;
+                    }
+                    if (next != null && (!stop || busy.add(next.key()))) {
+                        pending.push(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stack of return states, shared between configurations.
+     */
+    private static final class Stack {
+
+        static final Stack EMPTY = new Stack(-1, null);
+
+        private final int state;
+
+        private final Stack parent;
+
+        private final int hash;
+
+        /**
+         * Primary constructor.
+         *
+         * @param top State to return to first
+         * @param below Rest of the stack, null only for the empty one
+         */
+        Stack(final int top, final Stack below) {
+            this.state = top;
+            this.parent = below;
+            if (below == null) {
+                this.hash = 0;
+            } else {
+                this.hash = below.hash * 31 + top + 1;
+            }
+        }
+
+        /**
+         * Checks whether this stack is the top of another one. The empty
+         * stack stands for any callers, so it covers every stack.
+         *
+         * @param other Other stack
+         * @return True if the other stack starts with these states
+         */
+        boolean covers(final Stack other) {
+            Stack mine = this;
+            Stack theirs = other;
+            while (mine != Stack.EMPTY && theirs != Stack.EMPTY
+                && mine.state == theirs.state) {
+                mine = mine.parent;
+                theirs = theirs.parent;
+            }
+            return mine == Stack.EMPTY;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            boolean result = other instanceof Stack && ((Stack) other).hash == this.hash;
+            Stack mine = this;
+            Stack theirs = this;
+            if (result) {
+                theirs = (Stack) other;
+            }
+            while (result && mine != theirs) {
+                result = mine != Stack.EMPTY && theirs != Stack.EMPTY
+                    && mine.state == theirs.state;
+                if (result) {
+                    mine = mine.parent;
+                    theirs = theirs.parent;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * State of the network reached by one alternative.
+     */
+    private static final class Config {
+
+        private final int state;
+
+        private final int alt;
+
+        private final Stack stack;
+
+        /**
+         * Whether the configuration went past the end of the decision
+         * rule into an unknown caller.
+         */
+        private final boolean outer;
+
+        /**
+         * Whether the configuration left the left-recursive rule being
+         * decided, which keeps it from being filtered as a duplicate of
+         * the first alternative.
+         */
+        private final boolean suppressed;
+
+        /**
+         * Primary constructor.
+         *
+         * @param state State number
+         * @param alt Alternative, counted from 1
+         * @param stack Return states
+         * @param outer Whether an unknown caller was entered
+         * @param suppressed Whether the precedence filter skips it
+         */
+        Config(
+            final int state, final int alt, final Stack stack,
+            final boolean outer, final boolean suppressed
+        ) {
+            this.state = state;
+            this.alt = alt;
+            this.stack = stack;
+            this.outer = outer;
+            this.suppressed = suppressed;
+        }
+
+        Config moved(final int target) {
+            return new Config(target, this.alt, this.stack, this.outer, this.suppressed);
+        }
+
+        /**
+         * Identifies a configuration with the empty stack.
+         *
+         * @return State, alternative and filter flag in one number
+         */
+        long key() {
+            long result = (long) this.state * 8 + this.alt * 2;
+            if (this.suppressed) {
+                result = result + 1;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Set of configurations, merged by state and alternative.
+     *
+     * Stacks of one state and alternative are kept together. Without the
+     * real callers, a stack that is the top of another one stands for
+     * it too, so only the shorter one is kept.
+     */
+    private static final class Configs {
+
+        private final boolean exact;
+
+        private final Map<Integer, Merged> merged;
+
+        /**
+         * Primary constructor.
+         *
+         * @param real Whether stacks are real, not just tops
+         */
+        Configs(final boolean real) {
+            this.exact = real;
+            this.merged = new LinkedHashMap<>();
+        }
+
+        void add(final Config config) {
+            final Merged known = this.merged.computeIfAbsent(
+                config.state * 4 + config.alt,
+                key -> new Merged(config.state, config.alt)
+            );
+            known.outer = known.outer || config.outer;
+            known.suppressed = known.suppressed || config.suppressed;
+            if (this.exact) {
+                known.stacks.add(config.stack);
+            } else {
+                boolean covered = false;
+                for (final Stack stack : known.stacks) {
+                    covered = covered || stack.covers(config.stack);
+                }
+                if (!covered) {
+                    known.stacks.removeIf(config.stack::covers);
+                    known.stacks.add(config.stack);
+                }
+            }
+        }
+
+        int size() {
+            return this.merged.size();
+        }
+
+        boolean empty() {
+            return this.merged.isEmpty();
+        }
+
+        List<Config> all() {
+            final List<Config> result = new ArrayList<>(this.merged.size());
+            for (final Merged known : this.merged.values()) {
+                for (final Stack stack : known.stacks) {
+                    result.add(
+                        new Config(known.state, known.alt, stack, known.outer, known.suppressed)
+                    );
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the alternative of all configurations.
+         *
+         * @return Alternative, or 0 if there are several or none
+         */
+        int unique() {
+            int result = 0;
+            for (final Merged known : this.merged.values()) {
+                if (result == 0) {
+                    result = known.alt;
+                } else if (result != known.alt) {
+                    return 0;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the smallest alternative of every group of
+         * configurations that share state and stacks, if it is the
+         * same for all groups.
+         *
+         * @return Alternative, or 0 if the groups disagree
+         */
+        int resolved() {
+            int result = 0;
+            for (final int alts : this.groups()) {
+                final int least = Integer.numberOfTrailingZeros(alts);
+                if (result == 0) {
+                    result = least;
+                } else if (result != least) {
+                    return 0;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Checks whether simulation without callers has to stop and
+         * start over with the real stack: every configuration ended the
+         * program, or some alternatives conflict and no state is reached
+         * by a single alternative.
+         *
+         * @return True if the real stack is needed
+         */
+        boolean conflicting() {
+            final Map<Integer, Integer> states = new HashMap<>();
+            for (final Merged known : this.merged.values()) {
+                states.merge(known.state, 1 << known.alt, (left, right) -> left | right);
+            }
+            boolean conflict = false;
+            for (final int alts : this.groups()) {
+                conflict = conflict || Integer.bitCount(alts) > 1;
+            }
+            boolean single = false;
+            for (final int alts : states.values()) {
+                single = single || Integer.bitCount(alts) == 1;
+            }
+            return this.ended() || conflict && !single;
+        }
+
+        /**
+         * Returns the smallest alternative that left the decision rule,
+         * by entering an unknown caller or ending the program.
+         *
+         * @return Alternative, or 0 if none did
+         */
+        int finished() {
+            int result = 0;
+            for (final Merged known : this.merged.values()) {
+                if ((known.outer || DirectPrediction.NETWORK.stop(known.state)
+                    && known.stacks.contains(Stack.EMPTY))
+                    && (result == 0 || known.alt < result)) {
+                    result = known.alt;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Drops configurations of later alternatives that reach a state
+         * with the same stacks as the first alternative, unless they left
+         * the left-recursive rule being decided.
+         *
+         * @return Filtered configurations
+         */
+        Configs filtered() {
+            final Map<Integer, Set<Stack>> first = new HashMap<>();
+            for (final Merged known : this.merged.values()) {
+                if (known.alt == 1) {
+                    first.put(known.state, known.stacks);
+                }
+            }
+            final Configs result = new Configs(this.exact);
+            for (final Merged known : this.merged.values()) {
+                if (known.alt == 1 || known.suppressed
+                    || !known.stacks.equals(first.get(known.state))) {
+                    result.merged.put(known.state * 4 + known.alt, known);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Keeps only configurations at the end of a rule.
+         *
+         * @return This set if all are, a smaller one otherwise
+         */
+        Configs stopped() {
+            Configs result = this;
+            if (!this.ended()) {
+                result = new Configs(this.exact);
+                for (final Map.Entry<Integer, Merged> entry : this.merged.entrySet()) {
+                    if (DirectPrediction.NETWORK.stop(entry.getValue().state)) {
+                        result.merged.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            return result;
+        }
+
+        boolean stopping() {
+            boolean result = false;
+            for (final Merged known : this.merged.values()) {
+                result = result || DirectPrediction.NETWORK.stop(known.state);
+            }
+            return result;
+        }
+
+        private boolean ended() {
+            boolean result = true;
+            for (final Merged known : this.merged.values()) {
+                result = result && DirectPrediction.NETWORK.stop(known.state);
+            }
+            return result;
+        }
+
+        /**
+         * Groups alternatives by state and stacks.
+         *
+         * @return Bit mask of alternatives for every group
+         */
+        private Iterable<Integer> groups() {
+            final Map<Integer, Map<Set<Stack>, Integer>> result = new HashMap<>();
+            for (final Merged known : this.merged.values()) {
+                result.computeIfAbsent(known.state, key -> new HashMap<>()).merge(
+                    known.stacks, 1 << known.alt, (left, right) -> left | right
+                );
+            }
+            final List<Integer> masks = new ArrayList<>(result.size());
+            for (final Map<Set<Stack>, Integer> groups : result.values()) {
+                masks.addAll(groups.values());
+            }
+            return masks;
+        }
+    }
+
+    /**
+     * Stacks of one state and alternative.
+     */
+    private static final class Merged {
+
+        private final int state;
+
+        private final int alt;
+
+        private final Set<Stack> stacks;
+
+        private boolean outer;
+
+        private boolean suppressed;
+
+        /**
+         * Primary constructor.
+         *
+         * @param state State number
+         * @param alt Alternative, counted from 1
+         */
+        Merged(final int state, final int alt) {
+            this.state = state;
+            this.alt = alt;
+            this.stacks = new LinkedHashSet<>();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package rome77.direct;
+
+import java.util.Arrays;
+import lexical.LexicalException;
+import lexical.PackedListing;
+import lexical.TokenCategory;
+
+/**
+ * Table-driven scanner for Rome77 source code.
+ *
+ * Classifies every character through a lookup table and matches
+ * the five keywords by their first character, so the hot loop does
+ * not allocate anything per token. Tokens are recorded into
+ * parallel int arrays: category ordinal, start and end offsets,
+ * line and column. Longest-match rules and error reporting follow
+ * the ANTLR lexer generated from Rome77.g4.
+ *
+ * Example usage:
+ * <pre>
+ * PackedListing listing = new DirectScanner("As x = V").listing();
+ * </pre>
+ */
+final class DirectScanner {
+
+    /**
+     * Character classes used by the lookup table.
+     */
+    private static final byte OTHER = 0;
+    private static final byte BLANK = 1;
+    private static final byte LOWER = 2;
+    private static final byte NUMERAL = 3;
+    private static final byte ZERO = 4;
+    private static final byte KEYWORD = 5;
+    private static final byte SINGLE = 6;
+    private static final byte SLASH = 7;
+
+    /**
+     * Character class for every ASCII character.
+     */
+    private static final byte[] CLASSES = DirectScanner.classes();
+
+    /**
+     * Token category ordinal for single-character punctuators.
+     */
+    private static final int[] SINGLES = DirectScanner.singles();
+
+    /**
+     * Keyword spellings, searched by first character.
+     */
+    private static final String[] KEYWORDS = {
+        "As", "Anagnosi", "Munus", "Grafo", "Sinon",
+    };
+
+    /**
+     * Token category ordinals matching KEYWORDS.
+     */
+    private static final int[] KEYWORD_KINDS = {
+        TokenCategory.AS.ordinal(),
+        TokenCategory.ANAGNOSI.ordinal(),
+        TokenCategory.MUNUS.ordinal(),
+        TokenCategory.GRAFO.ordinal(),
+        TokenCategory.SINON.ordinal(),
+    };
+
+    /**
+     * Indexes into KEYWORDS for every ASCII first character.
+     */
+    private static final int[][] STARTING = DirectScanner.starting();
+
+    private final String text;
+    private int count;
+    private int[] kinds;
+    private int[] starts;
+    private int[] ends;
+    private int[] lines;
+    private int[] columns;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     */
+    DirectScanner(final String code) {
+        this.text = code;
+        final int capacity = code.length() / 4 + 2;
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+    }
+
+    /**
+     * Scans the whole source and returns the token listing.
+     *
+     * Stops at the first unrecognized input, reporting the same
+     * position and message as the ANTLR lexer does.
+     *
+     * @return Token listing ending with EOF
+     * @throws LexicalException if source contains an unrecognized token
+     */
+    PackedListing listing() throws LexicalException {
+        return this.scanned(true);
+    }
+
+    /**
+     * Scans the whole source, skipping unrecognized input.
+     *
+     * Recovers the way the ANTLR lexer does: the failed token is
+     * dropped together with the character that could not be consumed
+     * and scanning resumes right after it.
+     *
+     * @return Token listing ending with EOF
+     */
+    PackedListing recovered() {
+        try {
+            return this.scanned(false);
+        } catch (final LexicalException ex) {
+            throw new IllegalStateException("Recovering scan cannot fail", ex);
+        }
+    }
+
+    /**
+     * Scans the whole source.
+     *
+     * @param strict Whether to stop at the first unrecognized input
+     * @return Token listing ending with EOF
+     * @throws LexicalException if strict and source contains an unrecognized token
+     */
+    private PackedListing scanned(final boolean strict) throws LexicalException {
+        final String src = this.text;
+        final int len = src.length();
+        int pos = 0;
+        int line = 1;
+        int col = 0;
+        while (pos < len) {
+            final char chr = src.charAt(pos);
+            final byte cls;
+            if (chr < CLASSES.length) {
+                cls = CLASSES[chr];
+            } else {
+                cls = OTHER;
+            }
+            final int start = pos;
+            if (cls == BLANK) {
+                while (pos < len && DirectScanner.blank(src.charAt(pos))) {
+                    if (src.charAt(pos) == '\n') {
+                        line = line + 1;
+                        col = 0;
+                    } else {
+                        col = col + 1;
+                    }
+                    pos = pos + 1;
+                }
+                continue;
+            }
+            if (cls == LOWER) {
+                pos = pos + 1;
+                while (pos < len && DirectScanner.lower(src.charAt(pos))) {
+                    pos = pos + 1;
+                }
+                this.add(TokenCategory.IDENTIFIER.ordinal(), start, pos, line, col);
+            } else if (cls == NUMERAL || cls == ZERO || cls == KEYWORD) {
+                final int word = this.keyword(chr, start);
+                if (word >= 0) {
+                    pos = start + KEYWORDS[word].length();
+                    this.add(KEYWORD_KINDS[word], start, pos, line, col);
+                } else if (cls == NUMERAL) {
+                    pos = pos + 1;
+                    while (pos < len && DirectScanner.numeral(src.charAt(pos))) {
+                        pos = pos + 1;
+                    }
+                    this.add(TokenCategory.ROMAN.ordinal(), start, pos, line, col);
+                } else if (cls == ZERO) {
+                    pos = pos + 1;
+                    this.add(TokenCategory.ROMAN.ordinal(), start, pos, line, col);
+                } else {
+                    final int stop = start + this.prefix(chr, start);
+                    if (strict) {
+                        throw this.failure(start, stop, line, col);
+                    }
+                    pos = this.resumed(stop);
+                    for (int idx = start; idx < pos; idx = idx + 1) {
+                        if (src.charAt(idx) == '\n') {
+                            line = line + 1;
+                            col = 0;
+                        } else if (!Character.isLowSurrogate(src.charAt(idx))) {
+                            col = col + 1;
+                        }
+                    }
+                    continue;
+                }
+            } else if (cls == SLASH) {
+                if (pos + 1 < len && src.charAt(pos + 1) == '/') {
+                    pos = pos + 2;
+                    while (pos < len && src.charAt(pos) != '\n' && src.charAt(pos) != '\r') {
+                        pos = pos + 1;
+                    }
+                    col = col + src.codePointCount(start, pos);
+                    continue;
+                }
+                pos = pos + 1;
+                this.add(TokenCategory.DIV.ordinal(), start, pos, line, col);
+            } else if (cls == SINGLE) {
+                pos = pos + 1;
+                this.add(SINGLES[chr], start, pos, line, col);
+            } else {
+                if (strict) {
+                    throw this.failure(start, start, line, col);
+                }
+                pos = this.resumed(start);
+                col = col + 1;
+                continue;
+            }
+            col = col + pos - start;
+        }
+        this.add(TokenCategory.EOF.ordinal(), len, len, line, col);
+        return new PackedListing(
+            src, this.count, this.kinds, this.starts, this.ends, this.lines, this.columns
+        );
+    }
+
+    /**
+     * Finds the keyword spelled at the given offset.
+     *
+     * @param first Character at the offset
+     * @param start Offset of the first character
+     * @return Index into KEYWORDS, or -1 if no keyword matches
+     */
+    private int keyword(final char first, final int start) {
+        int found = -1;
+        for (final int idx : STARTING[first]) {
+            if (this.text.startsWith(KEYWORDS[idx], start)) {
+                found = idx;
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the longest keyword prefix spelled at the given offset.
+     *
+     * The lexer gives up on the first character that no keyword
+     * can continue with, so this is where a failed keyword ends.
+     *
+     * @param first Character at the offset
+     * @param start Offset of the first character
+     * @return Number of characters matching some keyword
+     */
+    private int prefix(final char first, final int start) {
+        int longest = 0;
+        for (final int idx : STARTING[first]) {
+            final String word = KEYWORDS[idx];
+            int len = 0;
+            while (len < word.length() && start + len < this.text.length()
+                && this.text.charAt(start + len) == word.charAt(len)) {
+                len = len + 1;
+            }
+            if (len > longest) {
+                longest = len;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the offset right after the character that failed a token.
+     *
+     * @param stop Offset of the character that could not be consumed
+     * @return Offset to resume scanning from
+     */
+    private int resumed(final int stop) {
+        final int result;
+        if (stop < this.text.length()) {
+            result = stop + Character.charCount(this.text.codePointAt(stop));
+        } else {
+            result = stop;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the lexical error the ANTLR lexer would report.
+     *
+     * The offending text runs from the token start up to and
+     * including the character the lexer could not consume.
+     *
+     * @param start Offset where the failed token starts
+     * @param stop Offset of the character that could not be consumed
+     * @param line Line of the failed token
+     * @param col Column of the failed token
+     * @return Lexical exception
+     */
+    private LexicalException failure(
+        final int start,
+        final int stop,
+        final int line,
+        final int col
+    ) {
+        int end = Math.min(stop + 1, this.text.length());
+        if (end < this.text.length() && Character.isHighSurrogate(this.text.charAt(end - 1))) {
+            end = end + 1;
+        }
+        final StringBuilder shown = new StringBuilder(end - start);
+        for (int idx = start; idx < end; idx = idx + 1) {
+            final char chr = this.text.charAt(idx);
+            if (chr == '\n') {
+                shown.append("\\n");
+            } else if (chr == '\t') {
+                shown.append("\\t");
+            } else if (chr == '\r') {
+                shown.append("\\r");
+            } else {
+                shown.append(chr);
+            }
+        }
+        return new LexicalException(
+            line,
+            col,
+            String.format("token recognition error at: '%s'", shown)
+        );
+    }
+
+    /**
+     * Appends one token to the parallel arrays.
+     *
+     * @param kind Token category ordinal
+     * @param start Start offset, inclusive
+     * @param end End offset, exclusive
+     * @param line Line number, 1-based
+     * @param col Column position, 0-based
+     */
+    private void add(
+        final int kind,
+        final int start,
+        final int end,
+        final int line,
+        final int col
+    ) {
+        if (this.count == this.kinds.length) {
+            final int capacity = this.count * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.lines = Arrays.copyOf(this.lines, capacity);
+            this.columns = Arrays.copyOf(this.columns, capacity);
+        }
+        this.kinds[this.count] = kind;
+        this.starts[this.count] = start;
+        this.ends[this.count] = end;
+        this.lines[this.count] = line;
+        this.columns[this.count] = col;
+        this.count = this.count + 1;
+    }
+
+    private static boolean blank(final char chr) {
+        return chr == ' ' || chr == '\t' || chr == '\r' || chr == '\n';
+    }
+
+    private static boolean lower(final char chr) {
+        return chr >= 'a' && chr <= 'z';
+    }
+
+    private static boolean numeral(final char chr) {
+        return chr < CLASSES.length && CLASSES[chr] == NUMERAL;
+    }
+
+    /**
+     * Builds the character class table.
+     *
+     * @return Class for every ASCII character
+     */
+    private static byte[] classes() {
+        final byte[] table = new byte[128];
+        for (final char chr : " \t\r\n".toCharArray()) {
+            table[chr] = BLANK;
+        }
+        for (char chr = 'a'; chr <= 'z'; chr = (char) (chr + 1)) {
+            table[chr] = LOWER;
+        }
+        for (final char chr : "MDCLXVI".toCharArray()) {
+            table[chr] = NUMERAL;
+        }
+        table['N'] = ZERO;
+        for (final char chr : "AGS".toCharArray()) {
+            table[chr] = KEYWORD;
+        }
+        for (final char chr : "+-*=()".toCharArray()) {
+            table[chr] = SINGLE;
+        }
+        table['/'] = SLASH;
+        return table;
+    }
+
+    /**
+     * Builds the keyword lookup table by first character.
+     *
+     * @return Keyword indexes for every ASCII character
+     */
+    private static int[][] starting() {
+        final int[][] table = new int[128][];
+        Arrays.fill(table, new int[0]);
+        for (int idx = 0; idx < KEYWORDS.length; idx = idx + 1) {
+            final char first = KEYWORDS[idx].charAt(0);
+            final int[] known = table[first];
+            final int[] grown = Arrays.copyOf(known, known.length + 1);
+            grown[known.length] = idx;
+            table[first] = grown;
+        }
+        return table;
+    }
+
+    /**
+     * Builds the punctuator category table.
+     *
+     * @return Category ordinal for every single-character punctuator
+     */
+    private static int[] singles() {
+        final int[] table = new int[128];
+        table['+'] = TokenCategory.PLUS.ordinal();
+        table['-'] = TokenCategory.MINUS.ordinal();
+        table['*'] = TokenCategory.MULT.ordinal();
+        table['='] = TokenCategory.EQUALS.ordinal();
+        table['('] = TokenCategory.LPAREN.ordinal();
+        table[')'] = TokenCategory.RPAREN.ordinal();
+        return table;
+    }
+}
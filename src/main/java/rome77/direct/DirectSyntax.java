@@ -0,0 +1,42 @@
+package rome77.direct;
+
+import syntax.Syntax;
+import syntax.SyntaxException;
+
+/**
+ * Rome77 syntax parser written by hand, without the ANTLR runtime.
+ *
+ * This final class implements Syntax interface with the table-driven
+ * scanner and a recursive-descent parser. The tree has the same rule
+ * names, token names, texts and positions as the one built by
+ * rome77.antlr.Rome77Syntax, including how ambiguous function
+ * applications are resolved. A SyntaxException is reported at the
+ * token where Rome77Syntax reports its first error, with its own
+ * message. Like Rome77Syntax, unrecognized characters are skipped
+ * rather than reported.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxTree tree = new DirectSyntax("Grafo XIV").parsed();
+ * </pre>
+ */
+public final class DirectSyntax implements Syntax {
+
+    private final String source;
+
+    /**
+     * Primary constructor.
+     *
+     * @param code Rome77 source code
+     */
+    public DirectSyntax(final String code) {
+        this.source = code;
+    }
+
+    @Override
+    public DirectTree parsed() throws SyntaxException {
+        return new DirectTree(
+            new DirectParser(new DirectScanner(this.source).recovered()).program()
+        );
+    }
+}
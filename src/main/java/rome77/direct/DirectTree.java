@@ -0,0 +1,62 @@
+package rome77.direct;
+
+import rome77.arena.ArenaTree;
+import syntax.SyntaxNode;
+import syntax.SyntaxTree;
+
+/**
+ * Immutable syntax tree built by the hand-written parser.
+ *
+ * This final class holds the arena tree produced by DirectSyntax.
+ * The tree has the same shape as the one built by the ANTLR front end,
+ * and collapses the same way when asked.
+ *
+ * Example usage:
+ * <pre>
+ * SyntaxTree tree = new DirectSyntax("Grafo V").parsed();
+ * SyntaxTree compact = tree.collapsed();
+ * </pre>
+ */
+public final class DirectTree implements SyntaxTree {
+
+    /**
+     * Nodes of the tree.
+     */
+    private final ArenaTree arena;
+
+    /**
+     * Primary constructor.
+     *
+     * @param nodes Nodes of the tree
+     */
+    public DirectTree(final ArenaTree nodes) {
+        this.arena = nodes;
+    }
+
+    @Override
+    public SyntaxNode root() {
+        return this.arena.root();
+    }
+
+    /**
+     * Returns the tree without pass-through expression rules.
+     *
+     * Nodes of arithmetic, toMult, toUnary, toPrimary and parens are
+     * replaced by the expression they hold, as in
+     * rome77.antlr.AntlrTree#collapsed().
+     *
+     * @return Collapsed tree
+     */
+    public DirectTree collapsed() {
+        return new DirectTree(this.arena.collapsed(ArenaTree.PASSING));
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return Node count, terminals included
+     */
+    public int size() {
+        return this.arena.size();
+    }
+}
@@ -4,11 +4,12 @@ package syntax;
  * Single node in the syntax tree for program representation.
  *
  * Each node represents a grammar rule match or terminal token.
- * Nodes are immutable and form a tree structure via children.
+ * Nodes are immutable and form a tree structure via children,
+ * which can be iterated or reached by position.
  *
  * Example usage:
  * <pre>
- * SyntaxNode stmt = tree.root().children().iterator().next();
+ * SyntaxNode stmt = tree.root().child(0);
  * String rule = stmt.name();    // "variableDecl"
  * int location = stmt.line();   // 1
  * </pre>
@@ -28,13 +29,27 @@ public interface SyntaxNode {
     /**
      * Returns the source text matched by this node.
      *
-     * For terminal tokens, returns the exact matched text.
-     * For parser rules, returns concatenated text of all children.
+     * For terminal tokens, returns the exact matched text,
+     * and "&lt;EOF&gt;" for the end of input.
+     * For parser rules, returns the same characters as span().
      *
      * @return Matched source text, never null, may be empty
      */
     String text();
 
+    /**
+     * Returns the slice of the source covered by this node.
+     *
+     * The slice runs from the first character of the first token to
+     * the last character of the last token, with the whitespace and
+     * comments in between as written. The end of input is an empty
+     * token at the end of the source. The slice is a view: getting
+     * it does not copy characters, toString() does.
+     *
+     * @return Covered source, never null, may be empty
+     */
+    CharSequence span();
+
     /**
      * Returns the source line number where this node starts.
      *
@@ -65,4 +80,22 @@ public interface SyntaxNode {
      * @return Iterable of child nodes, never null, may be empty
      */
     Iterable<SyntaxNode> children();
+
+    /**
+     * Returns the number of child nodes.
+     *
+     * @return Number of children, zero for terminal tokens
+     */
+    int childCount();
+
+    /**
+     * Returns the child node at the given position.
+     *
+     * Positions follow the order of children().
+     *
+     * @param index Position among the children, 0-based
+     * @return Child node, never null
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    SyntaxNode child(int index);
 }
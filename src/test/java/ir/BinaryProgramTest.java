@@ -0,0 +1,243 @@
+package ir;
+
+import ir.binary.BinaryReader;
+import ir.binary.BinaryWriter;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrFunction;
+import ir.simple.IrLiteral;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import ir.simple.IrUnaryOp;
+import ir.simple.IrVariable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rome77.antlr.AntlrAnalyzer;
+import rome77.antlr.Rome77Syntax;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the binary program image.
+ */
+final class BinaryProgramTest {
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "Munus add a b = a + b",
+        "As n = Anagnosi",
+        "Grafo fib n",
+        "Grafo add n (-III * II)"
+    );
+
+    @Test
+    void readsBackWrittenProgram() throws Exception {
+        final Program program = new AntlrAnalyzer(new Rome77Syntax(CODE).program()).analyzed();
+        assertThat(
+            "Image should decode to the program it was written from",
+            new BinaryReader(new BinaryWriter(program).bytes()).program(),
+            is(equalTo(program))
+        );
+    }
+
+    @Test
+    void keepsFramesAndSlots() throws Exception {
+        final Program program = new BinaryReader(
+            new BinaryWriter(
+                new AntlrAnalyzer(
+                    new Rome77Syntax("As n = I\nMunus f n = n + I\nGrafo f n").program()
+                ).analyzed()
+            ).bytes()
+        ).program();
+        final Function function = program.functions().iterator().next();
+        final Variable parameter = (Variable) ((BinaryOp) function.body()).left();
+        final Iterator<Statement> statements = program.statements().iterator();
+        final Declaration declaration = (Declaration) statements.next();
+        final Output output = (Output) statements.next();
+        final Variable global = (Variable) ((Call) output.expression()).argument(0);
+        assertThat("Parameter should keep its frame", parameter.frame(), is(Frame.PARAMETER));
+        assertThat("Parameter should keep its slot", parameter.slot(), is(0));
+        assertThat("Declaration should keep its slot", declaration.slot(), is(0));
+        assertThat("Global should keep its frame", global.frame(), is(Frame.GLOBAL));
+        assertThat("Global should keep its slot", global.slot(), is(0));
+    }
+
+    @Test
+    void keepsCallTargets() throws Exception {
+        final Program program = new BinaryReader(
+            new BinaryWriter(
+                new AntlrAnalyzer(
+                    new Rome77Syntax("Munus f n = n\nMunus g n = (f n) + I\nGrafo g I").program()
+                ).analyzed()
+            ).bytes()
+        ).program();
+        final Iterator<Function> functions = program.functions().iterator();
+        functions.next();
+        final Call inner = (Call) ((BinaryOp) functions.next().body()).left();
+        final Call outer = (Call) ((Output) program.statements().iterator().next()).expression();
+        assertThat("Call in a body should keep its target", inner.target(), is(0));
+        assertThat("Call in a statement should keep its target", outer.target(), is(1));
+    }
+
+    @Test
+    void keepsLongLeftRecursiveSum() throws Exception {
+        final int terms = 20_000;
+        Expression sum = new IrLiteral(0);
+        for (int idx = 1; idx < terms; idx = idx + 1) {
+            sum = new IrBinaryOp(Operator.ADD, sum, new IrLiteral(idx));
+        }
+        final Program program = new BinaryReader(
+            new BinaryWriter(
+                new IrProgram(Collections.emptyList(), Collections.singletonList(new IrOutput(sum)))
+            ).bytes()
+        ).program();
+        Expression node = ((Output) program.statements().iterator().next()).expression();
+        int last = terms - 1;
+        while (node instanceof BinaryOp) {
+            final BinaryOp add = (BinaryOp) node;
+            assertThat(
+                "Right operand should be read back in place",
+                add.right(),
+                is(equalTo(new IrLiteral(last)))
+            );
+            node = add.left();
+            last = last - 1;
+        }
+        assertThat("Every term should be read back", last, is(0));
+        assertThat("First term should be read back", node, is(equalTo(new IrLiteral(0))));
+    }
+
+    @Test
+    void keepsNegativeAndLargeLiterals() throws Exception {
+        final Program program = new IrProgram(
+            Collections.emptyList(),
+            Arrays.asList(
+                new IrOutput(new IrLiteral(-3999)),
+                new IrOutput(new IrLiteral(Integer.MAX_VALUE)),
+                new IrOutput(new IrLiteral(Integer.MIN_VALUE))
+            )
+        );
+        assertThat(
+            "Literals should survive zigzag coding",
+            new BinaryReader(new BinaryWriter(program).bytes()).program(),
+            is(equalTo(program))
+        );
+    }
+
+    @Test
+    void keepsLiteralsPastInt() throws Exception {
+        final Program program = new IrProgram(
+            Collections.emptyList(),
+            Arrays.asList(
+                new IrOutput(new IrLiteral(new Value(-5_000_000_000L))),
+                new IrOutput(new IrLiteral(new Value(BigInteger.TEN.pow(30).negate())))
+            )
+        );
+        assertThat(
+            "Long and big literals should survive the image",
+            new BinaryReader(new BinaryWriter(program).bytes()).program(),
+            is(equalTo(program))
+        );
+    }
+
+    @Test
+    void readsFirstVersion() throws Exception {
+        final Program program = new IrProgram(
+            Collections.emptyList(),
+            Arrays.asList(
+                new IrOutput(new IrLiteral(-14)),
+                new IrOutput(new IrLiteral(Integer.MIN_VALUE))
+            )
+        );
+        final byte[] image = new BinaryWriter(program).bytes();
+        image[4] = 1;
+        assertThat(
+            "Image of the first version should still be read",
+            new BinaryReader(image).program(),
+            is(equalTo(program))
+        );
+    }
+
+    @Test
+    void findsOneFunctionByName() throws Exception {
+        final Program program = new AntlrAnalyzer(new Rome77Syntax(CODE).program()).analyzed();
+        assertThat(
+            "Function should be decoded through the index",
+            new BinaryReader(new BinaryWriter(program).bytes()).program().function("add"),
+            is(
+                equalTo(
+                    Optional.of(
+                        new IrFunction(
+                            "add",
+                            Arrays.asList("a", "b"),
+                            new IrBinaryOp(Operator.ADD, new IrVariable("a"), new IrVariable("b"))
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsMappedFile(@TempDir final Path dir) throws Exception {
+        final Program program = new IrProgram(
+            Collections.emptyList(),
+            Collections.singletonList(
+                new IrOutput(new IrUnaryOp(Operator.SUB, new IrLiteral(7)))
+            )
+        );
+        final Path image = dir.resolve("program.r77i");
+        Files.write(image, new BinaryWriter(program).bytes());
+        assertThat(
+            "Image file should be read through a mapping",
+            new BinaryReader(image).program(),
+            is(equalTo(program))
+        );
+    }
+
+    @Test
+    void rejectsForeignBytes() {
+        assertThrows(
+            IOException.class,
+            () -> new BinaryReader("Grafo I".getBytes()).program(),
+            "Bytes without the magic should be rejected"
+        );
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        final byte[] image = new BinaryWriter(
+            new IrProgram(Collections.emptyList(), Collections.emptyList())
+        ).bytes();
+        image[4] = 99;
+        assertThrows(
+            IOException.class,
+            () -> new BinaryReader(image).program(),
+            "Image of another version should be rejected"
+        );
+    }
+
+    @Test
+    void rejectsTruncatedImage() throws Exception {
+        final byte[] image = new BinaryWriter(
+            new AntlrAnalyzer(new Rome77Syntax(CODE).program()).analyzed()
+        ).bytes();
+        assertThrows(
+            IOException.class,
+            () -> new BinaryReader(Arrays.copyOf(image, image.length - 3)).program(),
+            "Image cut short should be rejected"
+        );
+    }
+}
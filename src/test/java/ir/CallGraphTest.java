@@ -0,0 +1,140 @@
+package ir;
+
+import ir.analysis.CallGraph;
+import ir.analysis.Recursion;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrFunction;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import ir.simple.IrVariable;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.Rome77Analyzer;
+import rome77.antlr.Rome77Syntax;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for the call graph and its strongly connected components.
+ */
+final class CallGraphTest {
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "Munus even n = Sinon n I (odd n - I)",
+        "Munus odd n = Sinon n N (even (twice n) - I)",
+        "Munus twice n = n + n",
+        "Grafo fib V",
+        "Grafo even X"
+    );
+
+    @Test
+    void classifiesRecursion() throws Exception {
+        final CallGraph graph = new CallGraph(
+            new Rome77Analyzer(new Rome77Syntax(CODE).parsed()).analyzed()
+        );
+        assertThat(
+            "Functions should be non-recursive, self-recursive or mutually recursive",
+            Arrays.asList(
+                graph.recursion(graph.index("fib")),
+                graph.recursion(graph.index("even")),
+                graph.recursion(graph.index("odd")),
+                graph.recursion(graph.index("twice"))
+            ),
+            is(
+                equalTo(
+                    Arrays.asList(
+                        Recursion.SELF, Recursion.MUTUAL, Recursion.MUTUAL, Recursion.NONE
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void numbersCalleesBeforeCallers() throws Exception {
+        final CallGraph graph = new CallGraph(
+            new Rome77Analyzer(new Rome77Syntax(CODE).parsed()).analyzed()
+        );
+        assertThat(
+            "Mutually recursive functions should share a component after their callees",
+            Arrays.asList(
+                graph.components(),
+                graph.component(graph.index("even")) == graph.component(graph.index("odd")),
+                graph.component(graph.index("twice")) < graph.component(graph.index("odd"))
+            ),
+            is(equalTo(Arrays.<Object>asList(3, true, true)))
+        );
+    }
+
+    @Test
+    void countsCallSites() throws Exception {
+        final CallGraph graph = new CallGraph(
+            new Rome77Analyzer(new Rome77Syntax(CODE).parsed()).analyzed()
+        );
+        final int fib = graph.index("fib");
+        assertThat(
+            "Edges should be distinct and carry their call sites",
+            Arrays.asList(
+                graph.callees(fib),
+                graph.callee(fib, 0),
+                graph.sites(fib, 0),
+                graph.calls(fib),
+                graph.callees(graph.main())
+            ),
+            is(equalTo(Arrays.asList(1, fib, 2, 3, 2)))
+        );
+    }
+
+    @Test
+    void followsNamesOfUnresolvedCalls() {
+        final CallGraph graph = new CallGraph(
+            new IrProgram(
+                Collections.singletonList(
+                    new IrFunction(
+                        "loop",
+                        Collections.singletonList("n"),
+                        new IrCall("loop", Collections.singletonList(new IrVariable("n")))
+                    )
+                ),
+                Collections.singletonList(
+                    new IrOutput(new IrCall("missing", Collections.emptyList()))
+                )
+            )
+        );
+        assertThat(
+            "Calls without targets should be linked by name, unknown names left out",
+            Arrays.asList(graph.recursion(0), graph.calls(0), graph.callees(graph.main())),
+            is(equalTo(Arrays.<Object>asList(Recursion.SELF, 1, 0)))
+        );
+    }
+
+    @Test
+    void walksLongLeftRecursiveSum() {
+        Expression body = new IrVariable("n");
+        for (int idx = 0; idx < 50_000; idx = idx + 1) {
+            body = new IrBinaryOp(
+                Operator.ADD, body, new IrCall("loop", Collections.singletonList(new IrVariable("n")))
+            );
+        }
+        final CallGraph graph = new CallGraph(
+            new IrProgram(
+                Collections.singletonList(
+                    new IrFunction("loop", Collections.singletonList("n"), body)
+                ),
+                Collections.emptyList()
+            )
+        );
+        assertThat(
+            "Every call of a long sum should be counted",
+            Arrays.<Object>asList(graph.recursion(0), graph.calls(0)),
+            is(equalTo(Arrays.<Object>asList(Recursion.SELF, 50_000)))
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package ir;
+
+import ir.analysis.Effect;
+import ir.analysis.Effects;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrFunction;
+import ir.simple.IrInput;
+import ir.simple.IrLiteral;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.Rome77Analyzer;
+import rome77.antlr.Rome77Syntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Tests for the purity and effect analysis.
+ */
+final class EffectsTest {
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "Munus ask n = n + Anagnosi",
+        "Munus even n = Sinon n I (odd n - I)",
+        "Munus odd n = Sinon n (ask n) (even n - I)",
+        "Grafo fib X",
+        "Grafo fib Anagnosi"
+    );
+
+    @Test
+    void findsFunctionsReachingInput() throws Exception {
+        final IrProgram program = EffectsTest.analyzed();
+        final Effects effects = program.effects();
+        assertThat(
+            "Input should spread to every caller, across mutual recursion",
+            Arrays.asList(effects.effect(0), effects.effect(1), effects.effect(2), effects.effect(3)),
+            is(equalTo(Arrays.asList(Effect.PURE, Effect.INPUT, Effect.INPUT, Effect.INPUT)))
+        );
+    }
+
+    @Test
+    void tagsExpressionsOfProgram() throws Exception {
+        final IrProgram program = EffectsTest.analyzed();
+        final List<Statement> body = new ArrayList<>();
+        program.statements().forEach(body::add);
+        final Call pure = (Call) ((Output) body.get(0)).expression();
+        final Call reading = (Call) ((Output) body.get(1)).expression();
+        assertThat(
+            "A call of a pure function should read input only through its arguments",
+            Arrays.asList(
+                program.effects().effect(pure),
+                program.effects().effect(reading),
+                program.effects().effect(reading.argument(0))
+            ),
+            is(equalTo(Arrays.asList(Effect.PURE, Effect.INPUT, Effect.INPUT)))
+        );
+    }
+
+    @Test
+    void worksOutExpressionsFromElsewhere() throws Exception {
+        final IrProgram program = EffectsTest.analyzed();
+        assertThat(
+            "An expression the program does not hold should be worked out",
+            Arrays.asList(
+                program.effects().effect(
+                    new IrCall("even", Collections.singletonList(new IrLiteral(1)))
+                ),
+                program.effects().effect(
+                    new IrCall("fib", Collections.singletonList(new IrLiteral(1)))
+                ),
+                program.effects().effect(new IrInput())
+            ),
+            is(equalTo(Arrays.asList(Effect.INPUT, Effect.PURE, Effect.INPUT)))
+        );
+    }
+
+    @Test
+    void cachesEffectsOnProgram() throws Exception {
+        final IrProgram program = EffectsTest.analyzed();
+        assertThat(
+            "Program should keep the effects it built",
+            program.effects(),
+            is(sameInstance(program.effects()))
+        );
+    }
+
+    @Test
+    void analyzesAnyProgram() throws Exception {
+        final Program program = new Rome77Analyzer(new Rome77Syntax(CODE).parsed()).analyzed();
+        final Effects effects = new Effects(program);
+        assertThat(
+            "Effects built outside the program should agree with the cached ones",
+            Arrays.asList(effects.effect(0), effects.effect(3)),
+            is(equalTo(Arrays.asList(Effect.PURE, Effect.INPUT)))
+        );
+    }
+
+    @Test
+    void walksLongLeftRecursiveSums() {
+        Expression body = new IrInput();
+        Expression elsewhere = new IrInput();
+        for (int idx = 0; idx < 50_000; idx = idx + 1) {
+            body = new IrBinaryOp(Operator.ADD, body, new IrLiteral(idx));
+            elsewhere = new IrBinaryOp(Operator.ADD, elsewhere, new IrLiteral(idx));
+        }
+        final Effects effects = new Effects(
+            new IrProgram(
+                Collections.singletonList(
+                    new IrFunction("ask", Collections.singletonList("n"), body)
+                ),
+                Collections.singletonList(new IrOutput(body))
+            )
+        );
+        assertThat(
+            "Input at the bottom of a long sum should reach the function and both sums",
+            Arrays.asList(effects.effect(0), effects.effect(body), effects.effect(elsewhere)),
+            is(equalTo(Arrays.asList(Effect.INPUT, Effect.INPUT, Effect.INPUT)))
+        );
+    }
+
+    /**
+     * Analyzes the program under test.
+     *
+     * @return Program as the analyzer builds it
+     * @throws Exception if analysis fails
+     */
+    private static IrProgram analyzed() throws Exception {
+        return (IrProgram) new Rome77Analyzer(new Rome77Syntax(CODE).parsed()).analyzed();
+    }
+}
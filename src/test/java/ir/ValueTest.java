@@ -0,0 +1,156 @@
+package ir;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for values of any size and the operators over them.
+ */
+final class ValueTest {
+
+    private static final Value LARGEST = new Value(Long.MAX_VALUE);
+
+    private static final Value LEAST = new Value(Long.MIN_VALUE);
+
+    @Test
+    void promotesOnOverflow() {
+        final BigInteger top = BigInteger.valueOf(Long.MAX_VALUE);
+        final BigInteger bottom = BigInteger.valueOf(Long.MIN_VALUE);
+        assertThat(
+            "Overflowing results should be exact",
+            List.of(
+                LARGEST.plus(new Value(1)).bigValue(),
+                LEAST.minus(new Value(1)).bigValue(),
+                LARGEST.times(LARGEST).bigValue(),
+                LEAST.over(new Value(-1)).bigValue(),
+                LEAST.negated().bigValue()
+            ),
+            is(
+                equalTo(
+                    List.of(
+                        top.add(BigInteger.ONE),
+                        bottom.subtract(BigInteger.ONE),
+                        top.multiply(top),
+                        bottom.negate(),
+                        bottom.negate()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void dropsBackToLong() {
+        assertThat(
+            "Result that fits again should be read as a long",
+            LARGEST.plus(new Value(1)).minus(new Value(2)).longValue(),
+            is(equalTo(Long.MAX_VALUE - 1))
+        );
+    }
+
+    @Test
+    void comparesAcrossRepresentations() {
+        assertThat(
+            "Values should be equal whatever holds them",
+            List.of(
+                new Value(BigInteger.valueOf(42)),
+                new Value(BigInteger.valueOf(42)).hashCode()
+            ),
+            is(equalTo(List.of(new Value(42), new Value(42).hashCode())))
+        );
+    }
+
+    @Test
+    void truncatesDivision() {
+        assertThat(
+            "Division should truncate toward zero",
+            List.of(new Value(-7).over(new Value(2)), new Value(7).over(new Value(-2))),
+            is(equalTo(List.of(new Value(-3), new Value(-3))))
+        );
+    }
+
+    @Test
+    void rejectsDivisionByZero() {
+        assertThrows(
+            ArithmeticException.class,
+            () -> new Value(1).over(new Value(0)),
+            "Division by zero should fail"
+        );
+    }
+
+    @Test
+    void rejectsNarrowingPastInt() {
+        assertThrows(
+            ArithmeticException.class,
+            () -> new Value(1L << 40).intValue(),
+            "Value past an int should not be cut to one"
+        );
+    }
+
+    @Test
+    void appliesOperators() {
+        assertThat(
+            "Operators should apply to values",
+            List.of(
+                Operator.ADD.applied(new Value(2), new Value(3)),
+                Operator.SUB.applied(new Value(2), new Value(3)),
+                Operator.MUL.applied(new Value(2), new Value(3)),
+                Operator.DIV.applied(new Value(7), new Value(3)),
+                Operator.SUB.applied(new Value(5)),
+                Operator.ADD.applied(new Value(5))
+            ),
+            is(
+                equalTo(
+                    List.of(
+                        new Value(5), new Value(-1), new Value(6),
+                        new Value(2), new Value(-5), new Value(5)
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void sharesSmallResults() {
+        assertThat(
+            "Small results should come from the shared table",
+            Operator.MUL.applied(Value.of(-32), Value.of(32)),
+            is(sameInstance(Value.of(-1024)))
+        );
+    }
+
+    @Test
+    void allocatesResultsPastSharedRange() {
+        assertThat(
+            "Results past the table should still be exact",
+            Operator.ADD.applied(Value.of(1023), Value.of(1)),
+            is(equalTo(new Value(1024)))
+        );
+    }
+
+    @Test
+    void rejectsUnaryMultiplication() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Operator.MUL.applied(Value.of(2)),
+            "Multiplication should have no unary form"
+        );
+    }
+
+    @Test
+    void failsExactOverflow() {
+        assertThrows(
+            ArithmeticException.class,
+            () -> Operator.MUL.exact(Long.MAX_VALUE, 2),
+            "Exact long arithmetic should fail on overflow"
+        );
+    }
+}
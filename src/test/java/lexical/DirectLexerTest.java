@@ -0,0 +1,90 @@
+package lexical;
+
+import org.junit.jupiter.api.Test;
+import rome77.antlr.Rome77Lexer;
+import rome77.direct.DirectLexer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the hand-written lexer.
+ *
+ * Each test verifies that the hand-written lexer agrees
+ * with the ANTLR-based lexer on one kind of input.
+ */
+final class DirectLexerTest {
+
+    @Test
+    void producesSameTokensAsAntlrForFibonacciProgram() throws Exception {
+        final String code = String.join(
+            "\n",
+            "// Fibonacci",
+            "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+            "As n = Anagnosi",
+            "Grafo fib n"
+        );
+        assertThat(
+            "Hand-written lexer should match ANTLR token by token",
+            this.rendered(new DirectLexer(code).tokenized()),
+            is(equalTo(this.rendered(new Rome77Lexer(code).tokenized())))
+        );
+    }
+
+    @Test
+    void splitsKeywordPrefixIntoNumeralAndIdentifier() throws Exception {
+        assertThat(
+            "Unfinished Munus should lex as numeral then identifier",
+            this.rendered(new DirectLexer("Mun MMunus").tokenized()),
+            is(equalTo(this.rendered(new Rome77Lexer("Mun MMunus").tokenized())))
+        );
+    }
+
+    @Test
+    void returnsEofTextForEmptySource() throws Exception {
+        assertThat(
+            "Empty source should produce only EOF token",
+            new DirectLexer("").tokenized().tokens().iterator().next().text(),
+            is(equalTo("<EOF>"))
+        );
+    }
+
+    @Test
+    void reportsUnfinishedKeywordAtItsStart() {
+        final LexicalException error = assertThrows(
+            LexicalException.class,
+            () -> new DirectLexer("As x = V\n  Anagx").tokenized()
+        );
+        assertThat(
+            "Error should be reported where the failed token starts",
+            String.format("%d:%d %s", error.line(), error.column(), error.getMessage()),
+            is(equalTo("2:2 token recognition error at: 'Anagx'"))
+        );
+    }
+
+    @Test
+    void throwsExceptionOnInvalidCharacter() {
+        assertThrows(
+            LexicalException.class,
+            () -> new DirectLexer("$invalid").tokenized()
+        );
+    }
+
+    private String rendered(final Listing listing) {
+        final StringBuilder out = new StringBuilder();
+        for (final Token token : listing.tokens()) {
+            out.append(
+                String.format(
+                    "%s %s %d:%d%n",
+                    token.category(),
+                    token.text(),
+                    token.line(),
+                    token.column()
+                )
+            );
+        }
+        return out.toString();
+    }
+}
@@ -2,8 +2,11 @@ package lexical;
 
 import org.junit.jupiter.api.Test;
 import rome77.antlr.Rome77Lexer;
+import rome77.direct.DirectLexer;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -108,4 +111,92 @@ final class ListingTest {
             () -> new Rome77Lexer("$invalid").tokenized()
         );
     }
+
+    @Test
+    void tokenReturnsTokenAtIndex() throws Exception {
+        assertThat(
+            "Fourth token of declaration should be the numeral",
+            new Rome77Lexer("As x = V").tokenized().token(3).text(),
+            is(equalTo("V"))
+        );
+    }
+
+    @Test
+    void tokenThrowsExceptionPastEof() {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> new Rome77Lexer("As x = V").tokenized().token(5)
+        );
+    }
+
+    @Test
+    void acceptVisitsEveryTokenIncludingEof() throws Exception {
+        final List<String> visited = new ArrayList<>(5);
+        new Rome77Lexer("As x = V").tokenized().accept(
+            (index, category, offset, length, line, column) -> visited.add(
+                String.format("%d %s %d+%d %d:%d", index, category, offset, length, line, column)
+            )
+        );
+        assertThat(
+            "Visitor should see categories, spans and positions in source order",
+            visited,
+            is(
+                equalTo(
+                    List.of(
+                        "0 AS 0+2 1:0", "1 IDENTIFIER 3+1 1:3", "2 EQUALS 5+1 1:5",
+                        "3 ROMAN 7+1 1:7", "4 EOF 8+0 1:8"
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void acceptAgreesBetweenLexers() throws Exception {
+        final String code = "Munus f n = (n + XIV) * MCMXC\n// note\nGrafo f N";
+        final List<String> antlr = new ArrayList<>(16);
+        new Rome77Lexer(code).tokenized().accept(
+            (index, category, offset, length, line, column) -> antlr.add(
+                String.format("%s %d+%d %d:%d", category, offset, length, line, column)
+            )
+        );
+        final List<String> direct = new ArrayList<>(16);
+        new DirectLexer(code).tokenized().accept(
+            (index, category, offset, length, line, column) -> direct.add(
+                String.format("%s %d+%d %d:%d", category, offset, length, line, column)
+            )
+        );
+        assertThat(
+            "Both listings should pack the same spans",
+            direct,
+            is(equalTo(antlr))
+        );
+    }
+
+    @Test
+    void valueDecodesRomanNumerals() throws Exception {
+        assertThat(
+            "XIV should be decoded as fourteen",
+            new DirectLexer("XIV").tokenized().value(0),
+            is(equalTo(14))
+        );
+    }
+
+    @Test
+    void valueDecodesNullaAsZero() throws Exception {
+        assertThat(
+            "N should be decoded as zero",
+            new DirectLexer("Grafo N").tokenized().value(1),
+            is(equalTo(0))
+        );
+    }
+
+    @Test
+    void valueDecodesSubtractivePairs() throws Exception {
+        assertThat(
+            "MCMXCIV should be decoded as 1994",
+            new DirectLexer("MCMXCIV").tokenized().value(0),
+            is(equalTo(1994))
+        );
+    }
 }
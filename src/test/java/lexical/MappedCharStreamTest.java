@@ -0,0 +1,94 @@
+package lexical;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rome77.Rome77Lexer;
+import rome77.antlr.MappedCharStream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for the memory-mapped ASCII character stream.
+ */
+final class MappedCharStreamTest {
+
+    @Test
+    void lexesFileLikeString(@TempDir final Path dir) throws Exception {
+        final String code = "Munus f n = Sinon n I (f n - I)\n// done\nGrafo f XIV\n";
+        final Path file = dir.resolve("program.r77");
+        Files.writeString(file, code);
+        assertThat(
+            "Mapped file should lex to the same tokens as the string",
+            MappedCharStreamTest.tokens(new MappedCharStream(file)),
+            is(equalTo(MappedCharStreamTest.tokens(CharStreams.fromString(code))))
+        );
+    }
+
+    @Test
+    void looksAheadAndBehind() {
+        final CharStream chars = MappedCharStreamTest.chars("As");
+        chars.consume();
+        assertThat(
+            "Stream should see the previous, current and missing characters",
+            Arrays.asList(chars.LA(-1), chars.LA(1), chars.LA(2)),
+            is(equalTo(Arrays.asList((int) 'A', (int) 's', IntStream.EOF)))
+        );
+    }
+
+    @Test
+    void slicesText() {
+        assertThat(
+            "Stream should return the text of an inclusive interval",
+            MappedCharStreamTest.chars("Grafo XIV").getText(Interval.of(6, 8)),
+            is(equalTo("XIV"))
+        );
+    }
+
+    @Test
+    void seeksWithinSource() {
+        final CharStream chars = MappedCharStreamTest.chars("As x = V");
+        chars.seek(5);
+        assertThat(
+            "Stream should continue from the sought index",
+            (char) chars.LA(1),
+            is(equalTo('='))
+        );
+    }
+
+    private static CharStream chars(final String code) {
+        return new MappedCharStream(
+            ByteBuffer.wrap(code.getBytes(StandardCharsets.US_ASCII)), "test"
+        );
+    }
+
+    private static List<String> tokens(final CharStream chars) {
+        final Rome77Lexer lexer = new Rome77Lexer(chars);
+        final List<String> result = new ArrayList<>();
+        Token token = lexer.nextToken();
+        while (token.getType() != Token.EOF) {
+            result.add(
+                String.format(
+                    "%d %s %d:%d",
+                    token.getType(), token.getText(), token.getLine(), token.getCharPositionInLine()
+                )
+            );
+            token = lexer.nextToken();
+        }
+        return result;
+    }
+}
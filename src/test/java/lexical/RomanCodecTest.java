@@ -0,0 +1,122 @@
+package lexical;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the Roman numeral codec.
+ */
+final class RomanCodecTest {
+
+    @Test
+    void roundTripsEveryCanonicalNumeral() {
+        final RomanCodec codec = new RomanCodec(true);
+        final List<Integer> broken = new ArrayList<>();
+        for (int value = 0; value <= 3999; value = value + 1) {
+            if (codec.decoded(codec.encoded(value)) != value) {
+                broken.add(value);
+            }
+        }
+        assertThat("Every number up to 3999 should survive a round trip", broken, is(empty()));
+    }
+
+    @Test
+    void encodesCanonicalNumerals() {
+        final RomanCodec codec = new RomanCodec();
+        assertThat(
+            "Encoder should write canonical numerals",
+            List.of(codec.encoded(0), codec.encoded(14), codec.encoded(1977), codec.encoded(3999)),
+            is(equalTo(List.of("N", "XIV", "MCMLXXVII", "MMMCMXCIX")))
+        );
+    }
+
+    @Test
+    void decodesAnyRunOfDigits() {
+        final RomanCodec codec = new RomanCodec();
+        assertThat(
+            "Digit should count negative when a larger one follows it",
+            List.of(codec.decoded("IIV"), codec.decoded("IM"), codec.decoded("MMMMMI")),
+            is(equalTo(List.of(3, 999, 5001)))
+        );
+    }
+
+    @Test
+    void decodesRangeOfText() {
+        assertThat(
+            "Codec should decode only the given range",
+            new RomanCodec().decoded("Grafo XIV + I", 6, 9),
+            is(equalTo(14))
+        );
+    }
+
+    @Test
+    void encodesBeyondCanonicalRange() {
+        final RomanCodec codec = new RomanCodec();
+        assertThat(
+            "Large numbers should get one M per thousand and negatives a minus",
+            List.of(codec.encoded(5001), codec.encoded(-14), codec.encoded(4000)),
+            is(equalTo(List.of("MMMMMI", "-XIV", "MMMM")))
+        );
+    }
+
+    @Test
+    void rejectsNonCanonicalInStrictMode() {
+        final RomanCodec codec = new RomanCodec(true);
+        assertThrows(
+            NumberFormatException.class,
+            () -> codec.decoded("IIII"),
+            "Strict codec should reject numerals that are not canonical"
+        );
+    }
+
+    @Test
+    void rejectsLargeNumberInStrictMode() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new RomanCodec(true).encoded(4000),
+            "Strict codec should not encode past MMMCMXCIX"
+        );
+    }
+
+    @Test
+    void rejectsOtherCharacters() {
+        final RomanCodec codec = new RomanCodec();
+        assertThat(
+            "Codec should reject anything but digits or a lone N",
+            List.of(
+                this.rejected(codec, ""),
+                this.rejected(codec, "XNI"),
+                this.rejected(codec, "XIA"),
+                this.rejected(codec, "x")
+            ),
+            is(equalTo(List.of(true, true, true, true)))
+        );
+    }
+
+    @Test
+    void rejectsNumeralPastIntRange() {
+        assertThrows(
+            NumberFormatException.class,
+            () -> new RomanCodec().decoded("M".repeat(2_200_000)),
+            "Codec should not wrap a numeral too large for an int"
+        );
+    }
+
+    private boolean rejected(final RomanCodec codec, final String text) {
+        boolean result = false;
+        try {
+            codec.decoded(text);
+        } catch (final NumberFormatException ex) {
+            result = true;
+        }
+        return result;
+    }
+}
@@ -3,12 +3,15 @@ package semantic;
 import ir.*;
 import org.junit.jupiter.api.Test;
 import parsing.ParsingException;
+import rome77.antlr.Rome77Analyzer;
 import rome77.antlr.Rome77Syntax;
 import ir.simple.*;
 import syntax.SyntaxTree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -18,11 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 /**
  * Tests for semantic analyzer behavior.
  *
- * These tests define expected analyzer output for various Rome77 programs.
- * Tests use FakeAnalyzer temporarily to define expected behavior.
- *
- * When Rome77Analyzer is implemented, replace FakeAnalyzer with real analyzer.
- * Tests will initially fail, then pass as analyzer is implemented.
+ * These tests define expected analyzer output for various Rome77 programs
+ * and check it against Rome77Analyzer over the parsed syntax tree.
  */
 final class AnalyzerTest {
 
@@ -37,7 +37,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce program with output statement",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -54,7 +54,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce declaration and output",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -85,7 +85,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce function definition and call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -107,7 +107,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce conditional expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -124,7 +124,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce input expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -146,7 +146,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce multiplication expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -156,7 +156,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo x").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should throw exception for undefined variable"
         );
         assertThat(
@@ -171,7 +171,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo f I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined function: f").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should throw exception for undefined function"
         );
         assertThat(
@@ -186,7 +186,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus sum a b = a + b\nGrafo sum I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function sum expects 2 arguments, got 1").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should throw exception for arity mismatch"
         );
         assertThat(
@@ -248,7 +248,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce recursive fibonacci function",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -269,7 +269,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce division expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -289,7 +289,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce unary negation",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -309,7 +309,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce unary plus",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -334,7 +334,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should respect multiplication precedence over addition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -359,7 +359,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should respect division precedence over subtraction",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -384,7 +384,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should respect left associativity of subtraction",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -409,7 +409,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should respect left associativity of division",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -424,7 +424,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should produce zero literal",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -440,7 +440,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle zero in variable declaration",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -461,7 +461,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle zero in addition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -482,7 +482,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle zero in multiplication",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -512,7 +512,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle zero as function argument",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -535,7 +535,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle multiple variable declarations",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -561,7 +561,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle variable in complex expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -583,7 +583,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle variable as conditional condition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -611,7 +611,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle multiple variables in expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -628,7 +628,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should accept unused variable",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -651,17 +651,17 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle single-parameter identity function",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedProducesThreeParameterFunctionDefinition() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add3 a b c = a + b + c\nGrafo add3 I II III").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addthree a b c = a + b + c\nGrafo addthree I II III").parsed();
         final Program expected = new IrProgram(
             Arrays.asList(
                 new IrFunction(
-                    "add3",
+                    "addthree",
                     Arrays.asList("a", "b", "c"),
                     new IrBinaryOp(
                         Operator.ADD,
@@ -677,7 +677,7 @@ final class AnalyzerTest {
             Arrays.asList(
                 new IrOutput(
                     new IrCall(
-                        "add3",
+                        "addthree",
                         Arrays.asList(
                             new IrLiteral(1),
                             new IrLiteral(2),
@@ -689,17 +689,17 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle three-parameter function with multi-argument call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedProducesFourParameterFunctionDefinition() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add4 a b c d = a + b + c + d\nGrafo add4 I II III IV").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addfour a b c d = a + b + c + d\nGrafo addfour I II III IV").parsed();
         final Program expected = new IrProgram(
             Arrays.asList(
                 new IrFunction(
-                    "add4",
+                    "addfour",
                     Arrays.asList("a", "b", "c", "d"),
                     new IrBinaryOp(
                         Operator.ADD,
@@ -719,7 +719,7 @@ final class AnalyzerTest {
             Arrays.asList(
                 new IrOutput(
                     new IrCall(
-                        "add4",
+                        "addfour",
                         Arrays.asList(
                             new IrLiteral(1),
                             new IrLiteral(2),
@@ -732,7 +732,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle four-parameter function with multi-argument call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -768,7 +768,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle multiple function definitions",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -800,13 +800,13 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should accept unused function",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedProducesNestedFunctionCalls() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus f n = n + I\nMunus g n = f n + I\nGrafo g I").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus f n = n + I\nMunus g n = (f n) + I\nGrafo g I").parsed();
         final Program expected = new IrProgram(
             Arrays.asList(
                 new IrFunction(
@@ -836,7 +836,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle nested function calls",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -877,7 +877,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle two-parameter function with complex body and multi-argument call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -907,7 +907,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle function returning conditional",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -929,7 +929,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle conditional with variable condition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -954,7 +954,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle nested conditionals",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -985,7 +985,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle conditional with function calls in branches",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1014,7 +1014,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle deeply nested conditionals",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1043,7 +1043,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle conditional with complex condition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1066,7 +1066,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle multiple inputs",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1084,7 +1084,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle multiple outputs",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1105,7 +1105,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle input in expression",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1126,7 +1126,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle input as conditional condition",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1139,7 +1139,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle empty program",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1158,7 +1158,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle program with only function definitions",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1198,7 +1198,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle complex program with functions variables and conditionals",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1207,7 +1207,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("As x = I\nAs x = II").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Variable x is already defined").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject duplicate variable declaration"
         );
         assertThat(
@@ -1221,7 +1221,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("As x = x + I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject self-referencing variable"
         );
         assertThat(
@@ -1235,7 +1235,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("As x = y + I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: y").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in expression"
         );
         assertThat(
@@ -1249,7 +1249,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo Sinon x I II").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in conditional"
         );
         assertThat(
@@ -1263,7 +1263,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f n = x + n\nGrafo f I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in function body"
         );
         assertThat(
@@ -1277,7 +1277,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo x\nAs x = I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject variable used before declaration"
         );
         assertThat(
@@ -1291,7 +1291,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f n = n\nMunus f n = n + I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function f is already defined").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject duplicate function definitions"
         );
         assertThat(
@@ -1305,7 +1305,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f a a = a").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Duplicate parameter name: a").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject duplicate parameter names"
         );
         assertThat(
@@ -1319,7 +1319,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f a b a = a + b").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Duplicate parameter name: a").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject triplicate parameter names"
         );
         assertThat(
@@ -1333,7 +1333,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus sum a b = a + b\nGrafo sum I II III").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function sum expects 2 arguments, got 3").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject too many arguments to function"
         );
         assertThat(
@@ -1347,7 +1347,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f n = n\nGrafo f").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function f expects 1 arguments, got 0").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject zero arguments when one expected"
         );
         assertThat(
@@ -1358,16 +1358,16 @@ final class AnalyzerTest {
     }
     @Test
     void analyzedThrowsExceptionForArityMismatchWithFourParameters() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add4 a b c d = a + b + c + d\nGrafo add4 I").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addfour a b c d = a + b + c + d\nGrafo addfour I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function add4 expects 4 arguments, got 1").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject wrong arity for four-parameter function"
         );
         assertThat(
             "Exception message should mention arity mismatch",
             exception.getMessage(),
-            is(equalTo("Function add4 expects 4 arguments, got 1"))
+            is(equalTo("Function addfour expects 4 arguments, got 1"))
         );
     }
     @Test
@@ -1375,7 +1375,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f n = g n\nGrafo f I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined function: g").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined function in function body"
         );
         assertThat(
@@ -1389,7 +1389,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus f n = f n m").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: m").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject recursive function with undefined variables"
         );
         assertThat(
@@ -1422,7 +1422,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should allow parameter shadowing outer variable",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1431,7 +1431,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("As f = I\nMunus f n = n").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function f is already defined").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject function with same name as variable"
         );
         assertThat(
@@ -1445,7 +1445,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo Sinon x I II").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in conditional condition"
         );
         assertThat(
@@ -1459,7 +1459,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo Sinon I x II").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in then branch"
         );
         assertThat(
@@ -1473,7 +1473,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo Sinon I II x").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in else branch"
         );
         assertThat(
@@ -1487,7 +1487,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo x + I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in binary operation"
         );
         assertThat(
@@ -1501,7 +1501,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Grafo -x").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Undefined variable: x").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject undefined variable in unary operation"
         );
         assertThat(
@@ -1546,7 +1546,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle recursive factorial function",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1600,7 +1600,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle mutually recursive functions",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1633,7 +1633,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle complex arithmetic with all operators",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1648,7 +1648,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle large Roman numeral",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1663,7 +1663,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle complex Roman numeral",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1696,17 +1696,17 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle maximum nesting of expressions",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedProducesLongParameterList() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add5 a b c d e = a + b + c + d + e\nGrafo add5 I II III IV V").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addfive a b c d e = a + b + c + d + e\nGrafo addfive I II III IV V").parsed();
         final Program expected = new IrProgram(
             Arrays.asList(
                 new IrFunction(
-                    "add5",
+                    "addfive",
                     Arrays.asList("a", "b", "c", "d", "e"),
                     new IrBinaryOp(
                         Operator.ADD,
@@ -1730,7 +1730,7 @@ final class AnalyzerTest {
             Arrays.asList(
                 new IrOutput(
                     new IrCall(
-                        "add5",
+                        "addfive",
                         Arrays.asList(
                             new IrLiteral(1),
                             new IrLiteral(2),
@@ -1744,7 +1744,7 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle long parameter list with multi-argument call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
@@ -1807,17 +1807,17 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle long statement sequence",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedProducesThreeParameterFunctionCall() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add3 a b c = a + b + c\nGrafo add3 I II III").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addthree a b c = a + b + c\nGrafo addthree I II III").parsed();
         final Program expected = new IrProgram(
             Arrays.asList(
                 new IrFunction(
-                    "add3",
+                    "addthree",
                     Arrays.asList("a", "b", "c"),
                     new IrBinaryOp(
                         Operator.ADD,
@@ -1833,7 +1833,7 @@ final class AnalyzerTest {
             Arrays.asList(
                 new IrOutput(
                     new IrCall(
-                        "add3",
+                        "addthree",
                         Arrays.asList(
                             new IrLiteral(1),
                             new IrLiteral(2),
@@ -1845,22 +1845,22 @@ final class AnalyzerTest {
         );
         assertThat(
             "Analyzer should handle three-parameter function with multi-argument call",
-            new FakeAnalyzer(tree, expected).analyzed(),
+            new Rome77Analyzer(tree).analyzed(),
             is(equalTo(expected))
         );
     }
     @Test
     void analyzedThrowsExceptionForTooFewArguments() throws Exception {
-        final SyntaxTree tree = new Rome77Syntax("Munus add3 a b c = a + b + c\nGrafo add3 I").parsed();
+        final SyntaxTree tree = new Rome77Syntax("Munus addthree a b c = a + b + c\nGrafo addthree I").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function add3 expects 3 arguments, got 1").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject too few arguments"
         );
         assertThat(
             "Exception message should indicate arity mismatch",
             exception.getMessage(),
-            is(equalTo("Function add3 expects 3 arguments, got 1"))
+            is(equalTo("Function addthree expects 3 arguments, got 1"))
         );
     }
     @Test
@@ -1868,7 +1868,7 @@ final class AnalyzerTest {
         final SyntaxTree tree = new Rome77Syntax("Munus sum a b = a + b\nGrafo sum I II III").parsed();
         final SemanticException exception = assertThrows(
             SemanticException.class,
-            () -> new FakeAnalyzer(tree, "Function sum expects 2 arguments, got 3").analyzed(),
+            () -> new Rome77Analyzer(tree).analyzed(),
             "Analyzer should reject too many arguments"
         );
         assertThat(
@@ -1877,63 +1877,58 @@ final class AnalyzerTest {
             is(equalTo("Function sum expects 2 arguments, got 3"))
         );
     }
-
-    /**
-     * Temporary fake analyzer for TDD.
-     *
-     * Returns pre-configured result or throws pre-configured exception.
-     * Will be replaced by real Rome77Analyzer implementation.
-     *
-     * To replace FakeAnalyzer with Rome77Analyzer:
-     * 1. Replace new FakeAnalyzer(tree, expected) with new Rome77Analyzer(tree)
-     * 2. Tests already parse real syntax tree from Rome77Syntax.parsed()
-     * 3. Tests will initially fail until Rome77Analyzer is implemented
-     */
-    private static final class FakeAnalyzer implements Analyzer {
-
-        private final SyntaxTree tree;
-        private final Program prog;
-        private final String error;
-
-        /**
-         * Constructor for successful analysis.
-         *
-         * @param tree Syntax tree to analyze
-         * @param program Expected program result
-         */
-        FakeAnalyzer(final SyntaxTree tree, final Program program) {
-            this.tree = tree;
-            this.prog = program;
-            this.error = "";
-        }
-
-        /**
-         * Constructor for error case.
-         *
-         * @param tree Syntax tree to analyze
-         * @param errorMessage Expected error message
-         */
-        FakeAnalyzer(final SyntaxTree tree, final String errorMessage) {
-            this.tree = tree;
-            this.prog = new IrProgram(
-                Collections.emptyList(),
-                Collections.emptyList()
-            );
-            this.error = errorMessage;
-        }
-
-        /**
-         * Returns pre-configured program or throws exception.
-         *
-         * @return Program if configured for success
-         * @throws ParsingException if configured with error message
-         */
-        @Override
-        public Program analyzed() throws ParsingException {
-            if (!this.error.isEmpty()) {
-                throw new SemanticException(1, 0, this.error);
-            }
-            return this.prog;
+    @Test
+    void analyzedResolvesGlobalsToSlotsInDeclarationOrder() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax("As x = I\nAs y = x\nGrafo y").parsed();
+        final List<Statement> body = new ArrayList<>();
+        new Rome77Analyzer(tree).analyzed().statements().forEach(body::add);
+        final Variable used = (Variable) ((Output) body.get(2)).expression();
+        assertThat(
+            "Reference to the second global should resolve to its slot",
+            Arrays.asList(((Declaration) body.get(1)).slot(), used.frame(), used.slot()),
+            is(equalTo(Arrays.<Object>asList(1, Frame.GLOBAL, 1)))
+        );
+    }
+    @Test
+    void analyzedResolvesParametersToPositions() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax("Munus sub a b = b - a\nGrafo sub I II").parsed();
+        final BinaryOp body = (BinaryOp) new Rome77Analyzer(tree).analyzed()
+            .functions().iterator().next().body();
+        final Variable left = (Variable) body.left();
+        final Variable right = (Variable) body.right();
+        assertThat(
+            "References to parameters should resolve to their positions",
+            Arrays.asList(left.frame(), left.slot(), right.frame(), right.slot()),
+            is(equalTo(Arrays.<Object>asList(Frame.PARAMETER, 1, Frame.PARAMETER, 0)))
+        );
+    }
+    @Test
+    void analyzedLinksCallsToTargetFunctions() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax(
+            "Munus twice n = n + n\nMunus sum a b = twice a + b\nGrafo sum I II"
+        ).parsed();
+        final Program program = new Rome77Analyzer(tree).analyzed();
+        final Call main = (Call) ((Output) program.statements().iterator().next()).expression();
+        assertThat(
+            "Call should carry the index of its target and its arguments",
+            Arrays.asList(main.target(), main.argumentCount(), main.argument(1)),
+            is(equalTo(Arrays.<Object>asList(1, 2, new IrLiteral(2))))
+        );
+    }
+    @Test
+    void analyzedBuildsLongLeftRecursiveSum() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax("Grafo I" + " + I".repeat(49_999)).parsed();
+        Expression expression = ((Output) new Rome77Analyzer(tree).analyzed()
+            .statements().iterator().next()).expression();
+        int depth = 0;
+        while (expression instanceof BinaryOp) {
+            depth = depth + 1;
+            expression = ((BinaryOp) expression).left();
         }
+        assertThat(
+            "Every addition of a long sum should nest in the one before it",
+            depth,
+            is(equalTo(49_999))
+        );
     }
 }
@@ -0,0 +1,332 @@
+package semantic;
+
+import ir.BinaryOp;
+import ir.Call;
+import ir.Expression;
+import ir.Frame;
+import ir.Operator;
+import ir.Output;
+import ir.Program;
+import ir.Statement;
+import ir.Value;
+import ir.Variable;
+import ir.simple.IrBinaryOp;
+import ir.simple.IrCall;
+import ir.simple.IrConditional;
+import ir.simple.IrDeclaration;
+import ir.simple.IrFunction;
+import ir.simple.IrInput;
+import ir.simple.IrLiteral;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import ir.simple.IrUnaryOp;
+import ir.simple.IrVariable;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.AntlrAnalyzer;
+import rome77.antlr.Rome77Syntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the analyzer over ANTLR parse contexts.
+ */
+final class AntlrAnalyzerTest {
+
+    @Test
+    void analyzedProducesDeclarationAndOutput() throws Exception {
+        assertThat(
+            "Analyzer should build declarations and outputs",
+            new AntlrAnalyzer(new Rome77Syntax("As x = Anagnosi\nGrafo x * II").program())
+                .analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Collections.emptyList(),
+                        Arrays.asList(
+                            new IrDeclaration("x", new IrInput()),
+                            new IrOutput(
+                                new IrBinaryOp(
+                                    Operator.MUL, new IrVariable("x"), new IrLiteral(2)
+                                )
+                            )
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedReadsVariableFollowedBySignAsArithmetic() throws Exception {
+        assertThat(
+            "Analyzer should read a - b * c as a minus the product",
+            new AntlrAnalyzer(new Rome77Syntax("Munus f a b c = a - b * c").program())
+                .analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Arrays.asList(
+                            new IrFunction(
+                                "f",
+                                Arrays.asList("a", "b", "c"),
+                                new IrBinaryOp(
+                                    Operator.SUB,
+                                    new IrVariable("a"),
+                                    new IrBinaryOp(
+                                        Operator.MUL, new IrVariable("b"), new IrVariable("c")
+                                    )
+                                )
+                            )
+                        ),
+                        Collections.emptyList()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedKeepsSumsLeftAssociative() throws Exception {
+        assertThat(
+            "Analyzer should associate a + b - c to the left",
+            new AntlrAnalyzer(new Rome77Syntax("Munus f a b c = a + b - c").program())
+                .analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Arrays.asList(
+                            new IrFunction(
+                                "f",
+                                Arrays.asList("a", "b", "c"),
+                                new IrBinaryOp(
+                                    Operator.SUB,
+                                    new IrBinaryOp(
+                                        Operator.ADD, new IrVariable("a"), new IrVariable("b")
+                                    ),
+                                    new IrVariable("c")
+                                )
+                            )
+                        ),
+                        Collections.emptyList()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedPassesArithmeticAsOneArgument() throws Exception {
+        assertThat(
+            "Analyzer should pass n - I to f as a single argument",
+            new AntlrAnalyzer(
+                new Rome77Syntax("Munus f n = Sinon n (f n - I) I\nGrafo f -I").program()
+            ).analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Arrays.asList(
+                            new IrFunction(
+                                "f",
+                                Arrays.asList("n"),
+                                new IrConditional(
+                                    new IrVariable("n"),
+                                    new IrCall(
+                                        "f",
+                                        Arrays.asList(
+                                            new IrBinaryOp(
+                                                Operator.SUB,
+                                                new IrVariable("n"),
+                                                new IrLiteral(1)
+                                            )
+                                        )
+                                    ),
+                                    new IrLiteral(1)
+                                )
+                            )
+                        ),
+                        Arrays.asList(
+                            new IrOutput(
+                                new IrCall(
+                                    "f",
+                                    Arrays.asList(
+                                        new IrUnaryOp(Operator.SUB, new IrLiteral(1))
+                                    )
+                                )
+                            )
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedCallsFunctionDefinedLater() throws Exception {
+        assertThat(
+            "Analyzer should let a call precede the definition",
+            new AntlrAnalyzer(new Rome77Syntax("Grafo f II\nMunus f n = n").program())
+                .analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Arrays.asList(
+                            new IrFunction("f", Arrays.asList("n"), new IrVariable("n"))
+                        ),
+                        Arrays.asList(
+                            new IrOutput(new IrCall("f", Arrays.asList(new IrLiteral(2))))
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedRejectsUndefinedVariableInSum() throws Exception {
+        assertThat(
+            "Analyzer should name the undefined operand",
+            assertThrows(
+                SemanticException.class,
+                () -> new AntlrAnalyzer(
+                    new Rome77Syntax("Munus f n = x + n").program()
+                ).analyzed()
+            ).getMessage(),
+            is(equalTo("Undefined variable: x"))
+        );
+    }
+
+    @Test
+    void analyzedRejectsCallOfVariable() throws Exception {
+        assertThat(
+            "Analyzer should not let a variable be called",
+            assertThrows(
+                SemanticException.class,
+                () -> new AntlrAnalyzer(new Rome77Syntax("As x = I\nGrafo x I").program())
+                    .analyzed()
+            ).getMessage(),
+            is(equalTo("Undefined function: x"))
+        );
+    }
+
+    @Test
+    void analyzedRejectsWrongArity() throws Exception {
+        assertThat(
+            "Analyzer should check the number of arguments",
+            assertThrows(
+                SemanticException.class,
+                () -> new AntlrAnalyzer(
+                    new Rome77Syntax("Munus f a b = a\nGrafo f I II III").program()
+                ).analyzed()
+            ).getMessage(),
+            is(equalTo("Function f expects 2 arguments, got 3"))
+        );
+    }
+
+    @Test
+    void analyzedKeepsNumeralPastInt() throws Exception {
+        assertThat(
+            "Long run of M should keep its whole value",
+            new AntlrAnalyzer(
+                new Rome77Syntax("Grafo " + "M".repeat(3_000_000)).program()
+            ).analyzed(),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Collections.emptyList(),
+                        Collections.singletonList(
+                            new IrOutput(new IrLiteral(new Value(3_000_000_000L)))
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void analyzedRejectsRedefinition() throws Exception {
+        assertThat(
+            "Analyzer should share one namespace for functions and variables",
+            assertThrows(
+                SemanticException.class,
+                () -> new AntlrAnalyzer(
+                    new Rome77Syntax("As f = I\nMunus f n = n").program()
+                ).analyzed()
+            ).getMessage(),
+            is(equalTo("Function f is already defined"))
+        );
+    }
+
+    @Test
+    void analyzedResolvesVariablesToSlots() throws Exception {
+        final Program program = new AntlrAnalyzer(
+            new Rome77Syntax("As x = I\nMunus f a b = b\nAs y = f x II\nGrafo y").program()
+        ).analyzed();
+        final List<Statement> body = new ArrayList<>();
+        program.statements().forEach(body::add);
+        final Variable param = (Variable) program.functions().iterator().next().body();
+        final Variable global = (Variable) ((Output) body.get(2)).expression();
+        assertThat(
+            "Analyzer should resolve parameters by position and globals by declaration",
+            Arrays.asList(param.frame(), param.slot(), global.frame(), global.slot()),
+            is(equalTo(Arrays.<Object>asList(Frame.PARAMETER, 1, Frame.GLOBAL, 1)))
+        );
+    }
+
+    @Test
+    void analyzedLinksCallsDefinedLaterToTargets() throws Exception {
+        final Program program = new AntlrAnalyzer(
+            new Rome77Syntax("Munus f n = g n\nMunus g n = n\nGrafo f I").program()
+        ).analyzed();
+        final Call inner = (Call) program.functions().iterator().next().body();
+        assertThat(
+            "Analyzer should link a call to a function defined after it",
+            Arrays.asList(inner.target(), inner.argumentCount()),
+            is(equalTo(Arrays.asList(1, 1)))
+        );
+    }
+
+    @Test
+    void analyzedBuildsLongLeftRecursiveSum() throws Exception {
+        Expression expression = ((Output) new AntlrAnalyzer(
+            new Rome77Syntax("Grafo I" + " + I".repeat(49_999)).program()
+        ).analyzed().statements().iterator().next()).expression();
+        int depth = 0;
+        while (expression instanceof BinaryOp) {
+            depth = depth + 1;
+            expression = ((BinaryOp) expression).left();
+        }
+        assertThat(
+            "Every addition of a long sum should nest in the one before it",
+            depth,
+            is(equalTo(49_999))
+        );
+    }
+
+    @Test
+    void analyzedBuildsLongProductAfterVariable() throws Exception {
+        final List<Statement> body = new ArrayList<>();
+        new AntlrAnalyzer(
+            new Rome77Syntax("As a = I\nGrafo a - I" + " * I".repeat(49_999)).program()
+        ).analyzed().statements().forEach(body::add);
+        final BinaryOp difference = (BinaryOp) ((Output) body.get(1)).expression();
+        Expression expression = difference.right();
+        int depth = 0;
+        while (expression instanceof BinaryOp) {
+            depth = depth + 1;
+            expression = ((BinaryOp) expression).left();
+        }
+        assertThat(
+            "Every multiplication after a variable should nest in the one before it",
+            Arrays.<Object>asList(difference.operator(), depth),
+            is(equalTo(Arrays.<Object>asList(Operator.SUB, 49_999)))
+        );
+    }
+}
@@ -0,0 +1,212 @@
+package semantic;
+
+import ir.BinaryOp;
+import ir.Expression;
+import ir.Function;
+import ir.Output;
+import ir.Program;
+import ir.ProgramVisitor;
+import ir.Statement;
+import ir.simple.IrCall;
+import ir.simple.IrFunction;
+import ir.simple.IrLiteral;
+import ir.simple.IrOutput;
+import ir.simple.IrProgram;
+import ir.simple.IrVariable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parsing.ParsingException;
+import rome77.antlr.AntlrAnalyzer;
+import rome77.antlr.AntlrStream;
+import rome77.antlr.Rome77Syntax;
+import syntax.SyntaxException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the streaming ANTLR front end.
+ */
+final class AntlrStreamTest {
+
+    @Test
+    void acceptStreamsSameProgramAsAnalyzer() throws Exception {
+        final String code = String.join(
+            "\n",
+            "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+            "As n = Anagnosi",
+            "Grafo fib n",
+            "As m = n * II - I",
+            "Grafo m"
+        );
+        assertThat(
+            "Stream should hand out what the analyzer builds",
+            AntlrStreamTest.streamed(code),
+            is(equalTo(new AntlrAnalyzer(new Rome77Syntax(code).program()).analyzed()))
+        );
+    }
+
+    @Test
+    void acceptHandsOutStatementsInSourceOrder() throws Exception {
+        final List<String> order = new ArrayList<>();
+        new AntlrStream("Grafo I\nMunus f n = n\nGrafo II").accept(
+            new ProgramVisitor() {
+                @Override
+                public void function(final Function function) {
+                    order.add(function.name());
+                }
+
+                @Override
+                public void statement(final Statement statement) {
+                    order.add("statement");
+                }
+            }
+        );
+        assertThat(
+            "Stream should interleave functions and statements",
+            order,
+            is(equalTo(Arrays.asList("statement", "f", "statement")))
+        );
+    }
+
+    @Test
+    void acceptAllowsCallBeforeDefinition() throws Exception {
+        assertThat(
+            "Stream should check forward calls at the end",
+            AntlrStreamTest.streamed("Grafo f II\nMunus f n = n"),
+            is(
+                equalTo(
+                    new IrProgram(
+                        Arrays.asList(
+                            new IrFunction("f", Arrays.asList("n"), new IrVariable("n"))
+                        ),
+                        Arrays.asList(
+                            new IrOutput(new IrCall("f", Arrays.asList(new IrLiteral(2))))
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void acceptRejectsForwardCallWithWrongArity() {
+        assertThat(
+            "Stream should report arity of a later function",
+            assertThrows(
+                SemanticException.class,
+                () -> AntlrStreamTest.streamed("Grafo f I II\nMunus f n = n")
+            ).getMessage(),
+            is(equalTo("Function f expects 1 arguments, got 2"))
+        );
+    }
+
+    @Test
+    void acceptRejectsCallOfUndefinedFunction() {
+        assertThat(
+            "Stream should report functions never defined",
+            assertThrows(
+                SemanticException.class,
+                () -> AntlrStreamTest.streamed("Grafo g I")
+            ).getMessage(),
+            is(equalTo("Undefined function: g"))
+        );
+    }
+
+    @Test
+    void acceptRejectsSyntaxError() {
+        assertThrows(
+            SyntaxException.class,
+            () -> AntlrStreamTest.streamed("Grafo I\nAs = II"),
+            "Stream should report syntax errors"
+        );
+    }
+
+    @Test
+    void acceptReadsFromFile(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("program.r77");
+        Files.writeString(file, "Munus f n = n + I\nGrafo f II\n");
+        assertThat(
+            "Stream should read the program from a file",
+            AntlrStreamTest.streamed(new AntlrStream(file)),
+            is(equalTo(AntlrStreamTest.streamed("Munus f n = n + I\nGrafo f II\n")))
+        );
+    }
+
+    @Test
+    void acceptReadsFromInputStream() throws Exception {
+        assertThat(
+            "Stream should decode the program from bytes",
+            AntlrStreamTest.streamed(
+                new AntlrStream(
+                    new ByteArrayInputStream(
+                        "As x = X\nGrafo x / II".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ),
+            is(equalTo(AntlrStreamTest.streamed("As x = X\nGrafo x / II")))
+        );
+    }
+
+    @Test
+    void acceptReportsMissingFile(@TempDir final Path dir) {
+        assertThrows(
+            IOException.class,
+            () -> AntlrStreamTest.streamed(new AntlrStream(dir.resolve("missing.r77"))),
+            "Stream should report a file it cannot open"
+        );
+    }
+
+    @Test
+    void acceptBuildsLongLeftRecursiveSum() throws Exception {
+        Expression expression = ((Output) AntlrStreamTest.streamed(
+            "Grafo I" + " + I".repeat(49_999)
+        ).statements().iterator().next()).expression();
+        int depth = 0;
+        while (expression instanceof BinaryOp) {
+            depth = depth + 1;
+            expression = ((BinaryOp) expression).left();
+        }
+        assertThat(
+            "Stream should nest every addition of a long sum in the one before it",
+            depth,
+            is(equalTo(49_999))
+        );
+    }
+
+    private static Program streamed(final String code) throws ParsingException, IOException {
+        return AntlrStreamTest.streamed(new AntlrStream(code));
+    }
+
+    private static Program streamed(
+        final AntlrStream stream
+    ) throws ParsingException, IOException {
+        final List<Function> functions = new ArrayList<>();
+        final List<Statement> body = new ArrayList<>();
+        stream.accept(
+            new ProgramVisitor() {
+                @Override
+                public void function(final Function function) {
+                    functions.add(function);
+                }
+
+                @Override
+                public void statement(final Statement statement) {
+                    body.add(statement);
+                }
+            }
+        );
+        return new IrProgram(functions, body);
+    }
+}
@@ -0,0 +1,119 @@
+package semantic;
+
+import ir.Call;
+import ir.Declaration;
+import ir.Output;
+import ir.Statement;
+import ir.Variable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.ParallelAnalyzer;
+import rome77.antlr.Rome77Analyzer;
+import rome77.antlr.Rome77Syntax;
+import syntax.SyntaxTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for function-parallel semantic analysis.
+ *
+ * Runs are made as small as one statement, so even short programs are
+ * analyzed in several pieces.
+ */
+final class ParallelAnalyzerTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "As n = Anagnosi",
+        "Grafo fib n",
+        "As m = twice n",
+        "Munus twice a = add a a",
+        "Munus add a b = a + b",
+        "Grafo add m n"
+    );
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void analyzesLikeSequentialAnalyzer() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax(CODE).parsed();
+        assertThat(
+            "Parallel analysis should build the sequential program",
+            new ParallelAnalyzer(tree, POOL, 1).analyzed(),
+            is(equalTo(new Rome77Analyzer(tree).analyzed()))
+        );
+    }
+
+    @Test
+    void resolvesSlotsAcrossRuns() throws Exception {
+        final List<Statement> body = new ArrayList<>();
+        new ParallelAnalyzer(new Rome77Syntax(CODE).parsed(), POOL, 1)
+            .analyzed().statements().forEach(body::add);
+        final Call call = (Call) ((Output) body.get(3)).expression();
+        assertThat(
+            "A run should know the globals and functions of runs before it",
+            Arrays.asList(
+                ((Declaration) body.get(2)).slot(),
+                ((Variable) call.argument(0)).slot(),
+                ((Variable) call.argument(1)).slot(),
+                call.target()
+            ),
+            is(equalTo(Arrays.asList(1, 1, 0, 2)))
+        );
+    }
+
+    @Test
+    void reportsErrorOfEarliestRun() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax(
+            String.join("\n", "As x = I", "Grafo y", "Grafo add x", "Munus x n = n")
+        ).parsed();
+        assertThat(
+            "Parallel analysis should report the first error in the source",
+            assertThrows(
+                SemanticException.class,
+                () -> new ParallelAnalyzer(tree, POOL, 1).analyzed()
+            ).getMessage(),
+            is(equalTo("Undefined variable: y"))
+        );
+    }
+
+    @Test
+    void rejectsRedefinitionInLaterRun() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax(
+            String.join("\n", "Munus f n = n", "Grafo f I", "As f = II")
+        ).parsed();
+        final SemanticException error = assertThrows(
+            SemanticException.class,
+            () -> new ParallelAnalyzer(tree, POOL, 1).analyzed()
+        );
+        assertThat(
+            "A run should know the names defined in runs before it",
+            String.format("%d:%d %s", error.line(), error.column(), error.getMessage()),
+            is(equalTo("3:3 Variable f is already defined"))
+        );
+    }
+
+    @Test
+    void analyzesShortProgramInOnePiece() throws Exception {
+        final SyntaxTree tree = new Rome77Syntax(CODE).parsed();
+        assertThat(
+            "Program shorter than a run should be analyzed as by Rome77Analyzer",
+            new ParallelAnalyzer(tree, POOL, 100).analyzed(),
+            is(equalTo(new Rome77Analyzer(tree).analyzed()))
+        );
+    }
+}
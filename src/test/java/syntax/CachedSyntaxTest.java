@@ -0,0 +1,112 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import rome77.antlr.Rome77Syntax;
+import rome77.cache.CachedSyntax;
+import rome77.cache.ParseCache;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the content-addressed parse cache.
+ */
+final class CachedSyntaxTest {
+
+    @Test
+    void returnsKeptTreeForSameSource() throws Exception {
+        final ParseCache cache = new ParseCache(8, 1024);
+        final String code = "As x = V\nGrafo x";
+        assertThat(
+            "Equal sources should share one tree",
+            this.cached(code, cache).parsed(),
+            is(sameInstance(this.cached(new String(code.toCharArray()), cache).parsed()))
+        );
+    }
+
+    @Test
+    void countsHitsAndMisses() throws Exception {
+        final ParseCache cache = new ParseCache(8, 1024);
+        this.cached("Grafo I", cache).parsed();
+        this.cached("Grafo II", cache).parsed();
+        this.cached("Grafo I", cache).parsed();
+        assertThat(
+            "Cache should count one hit and two misses",
+            List.of(cache.hits(), cache.misses(), cache.evictions()),
+            is(equalTo(List.of(1L, 2L, 0L)))
+        );
+    }
+
+    @Test
+    void keepsParsingError() {
+        final ParseCache cache = new ParseCache(8, 1024);
+        final SyntaxException first = assertThrows(
+            SyntaxException.class, this.cached("Grafo (I", cache)::parsed
+        );
+        final SyntaxException second = assertThrows(
+            SyntaxException.class,
+            new CachedSyntax(
+                "Grafo (I",
+                () -> {
+                    throw new IllegalStateException("kept error should be thrown without parsing");
+                },
+                cache
+            )::parsed
+        );
+        assertThat("Kept error should be thrown again", second, is(sameInstance(first)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() throws Exception {
+        final ParseCache cache = new ParseCache(2, 1024);
+        final SyntaxTree first = this.cached("Grafo I", cache).parsed();
+        this.cached("Grafo II", cache).parsed();
+        this.cached("Grafo I", cache).parsed();
+        this.cached("Grafo III", cache).parsed();
+        assertThat(
+            "Recently used entry should survive the eviction",
+            List.of(
+                this.cached("Grafo I", cache).parsed() == first,
+                cache.evictions(),
+                (long) cache.size()
+            ),
+            is(equalTo(List.of(true, 1L, 2L)))
+        );
+    }
+
+    @Test
+    void boundsTotalSourceLength() throws Exception {
+        final ParseCache cache = new ParseCache(8, 16);
+        this.cached("Grafo I", cache).parsed();
+        this.cached("Grafo II", cache).parsed();
+        this.cached("Grafo III", cache).parsed();
+        assertThat(
+            "Entries beyond the character bound should be evicted",
+            List.of(cache.size(), (int) cache.evictions()),
+            is(equalTo(List.of(1, 2)))
+        );
+    }
+
+    @Test
+    void skipsSourceHeavierThanBound() throws Exception {
+        final ParseCache cache = new ParseCache(8, 16);
+        this.cached("Grafo I", cache).parsed();
+        this.cached("Grafo II", cache).parsed();
+        this.cached("Grafo " + "I".repeat(20), cache).parsed();
+        this.cached("Grafo I", cache).parsed();
+        assertThat(
+            "A source over the character bound should leave the kept entries alone",
+            List.of(cache.size(), cache.evictions(), cache.hits()),
+            is(equalTo(List.of(2, 0L, 1L)))
+        );
+    }
+
+    private Syntax cached(final String code, final ParseCache cache) {
+        return new CachedSyntax(code, new Rome77Syntax(code), cache);
+    }
+}
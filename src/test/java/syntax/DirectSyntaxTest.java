@@ -0,0 +1,157 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import parsing.ParsingException;
+import rome77.antlr.Rome77Syntax;
+import rome77.direct.DirectSyntax;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the hand-written parser.
+ *
+ * Each test verifies that the hand-written parser agrees
+ * with the ANTLR-based parser on one kind of input.
+ */
+final class DirectSyntaxTest {
+
+    @Test
+    void producesSameTreeAsAntlrForFibonacciProgram() throws ParsingException {
+        final String code = String.join(
+            "\n",
+            "// Fibonacci",
+            "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+            "As n = Anagnosi",
+            "Grafo fib n"
+        );
+        assertThat(
+            "Hand-written parser should build the ANTLR tree node by node",
+            SyntaxRendering.rendered(new DirectSyntax(code).parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(code).parsed().root())))
+        );
+    }
+
+    @Test
+    void bindsArithmeticTighterThanApplication() throws ParsingException {
+        final String code = "Grafo f a + b * c";
+        assertThat(
+            "Arithmetic should form a single argument of the call",
+            SyntaxRendering.rendered(new DirectSyntax(code).parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(code).parsed().root())))
+        );
+    }
+
+    @Test
+    void nestsIdentifierLedArgumentsLikeAntlr() throws ParsingException {
+        final String code = "Grafo Sinon f a b c";
+        assertThat(
+            "Ambiguous application should be resolved as ANTLR does",
+            SyntaxRendering.rendered(new DirectSyntax(code).parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(code).parsed().root())))
+        );
+    }
+
+    @Test
+    void parsesEmptyProgramWithOnlyEof() throws ParsingException {
+        assertThat(
+            "Empty program should have only the EOF child",
+            SyntaxRendering.rendered(new DirectSyntax("").parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax("").parsed().root())))
+        );
+    }
+
+    @Test
+    void collapsesLikeAntlr() throws ParsingException {
+        final String code = "Munus f a b = (a + b) * -a\nGrafo f (I) II";
+        assertThat(
+            "Collapsed trees of both parsers should agree",
+            SyntaxRendering.rendered(new DirectSyntax(code).parsed().collapsed().root()),
+            is(
+                equalTo(
+                    SyntaxRendering.rendered(new Rome77Syntax(code).parsed().collapsed().root())
+                )
+            )
+        );
+    }
+
+    @Test
+    void reportsUnfinishedConditionalWhereAntlrDoes() {
+        final String code = "Grafo Sinon I II";
+        assertThat(
+            "Unfinished conditional should fail at EOF",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void reportsMissingTokenWhereAntlrDoes() {
+        final String code = "As x V";
+        assertThat(
+            "Declaration without equals sign should fail at the value",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void reportsDanglingOperatorWhereAntlrDoes() {
+        final String code = "As x = I\nGrafo f I +";
+        assertThat(
+            "Dangling operator should be reported at the operator",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void reportsUnclosedParenthesisWhereAntlrDoes() {
+        final String code = "Grafo (I + II";
+        assertThat(
+            "Unclosed parenthesis should fail where the closing one is missing",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void reportsWhereNoAlternativeRemainsLikeAntlr() {
+        final String code = "Grafo g V Sinon XIV";
+        assertThat(
+            "Call that cannot take the conditional should fail at Sinon",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void reportsAfterLookaheadWhereAntlrDoes() {
+        final String code = "Grafo n n V +\nAs x = I";
+        assertThat(
+            "Name that is neither call nor operand should fail where lookahead stops",
+            this.position(new DirectSyntax(code)),
+            is(equalTo(this.position(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void namesOffendingTokenInMessage() {
+        final SyntaxException error = assertThrows(
+            SyntaxException.class,
+            () -> new DirectSyntax("As x V").parsed()
+        );
+        assertThat(
+            "Message should tell what was expected and what was found",
+            error.getMessage(),
+            is(equalTo("Expected '=', found 'V'"))
+        );
+    }
+
+    private String position(final Syntax syntax) {
+        final SyntaxException error = assertThrows(SyntaxException.class, syntax::parsed);
+        return String.format("%d:%d", error.line(), error.column());
+    }
+}
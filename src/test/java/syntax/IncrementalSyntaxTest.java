@@ -0,0 +1,140 @@
+package syntax;
+
+import org.junit.jupiter.api.Test;
+import rome77.antlr.IncrementalSyntax;
+import rome77.antlr.Rome77Syntax;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for reparsing edited sources.
+ *
+ * Every edited tree is compared with the tree Rome77Syntax builds for
+ * the edited text from scratch.
+ */
+final class IncrementalSyntaxTest {
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "// Grafo in a comment does not start a statement",
+        "As n = Anagnosi",
+        "Grafo fib n",
+        "Munus add a b = a + b",
+        "Grafo add n * II -III"
+    );
+
+    @Test
+    void parsesLikeSyntax() throws Exception {
+        assertThat(
+            "Unedited tree should be the tree of the parser",
+            SyntaxRendering.rendered(new IncrementalSyntax(CODE).parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(CODE).parsed().root())))
+        );
+    }
+
+    @Test
+    void reparsesEditedStatement() throws Exception {
+        final int offset = CODE.indexOf("fib n\n");
+        assertThat(
+            "Edited statement should parse as in the edited source",
+            SyntaxRendering.rendered(
+                new IncrementalSyntax(CODE).edited(offset, 5, "XIV").parsed().root()
+            ),
+            is(equalTo(SyntaxRendering.rendered(this.edited(offset, 5, "XIV"))))
+        );
+    }
+
+    @Test
+    void movesLaterStatements() throws Exception {
+        final SyntaxNode last = new IncrementalSyntax(CODE)
+            .edited(0, 0, "Grafo I\n\nGrafo II ")
+            .parsed()
+            .root()
+            .child(6);
+        assertThat(
+            "Kept statement should move to its new line",
+            String.format("%d:%d %s", last.line(), last.column(), last.text()),
+            is(equalTo("8:0 Grafo add n * II -III"))
+        );
+    }
+
+    @Test
+    void joinsStatementWhenKeywordIsRemoved() throws Exception {
+        final String code = "Munus f a = a\nAs y = f\nGrafo II\nGrafo y";
+        assertThat(
+            "Text left of a removed keyword should join the statement before",
+            SyntaxRendering.rendered(new IncrementalSyntax(code).edited(23, 6, "").parsed().root()),
+            is(
+                equalTo(
+                    SyntaxRendering.rendered(
+                        new Rome77Syntax("Munus f a = a\nAs y = f\nII\nGrafo y").parsed().root()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void extendsCommentOverNextLine() throws Exception {
+        final int offset = CODE.indexOf("\nAs n");
+        assertThat(
+            "Removing a line break should hide the next statement in the comment",
+            SyntaxRendering.rendered(
+                new IncrementalSyntax(CODE).edited(offset, 1, " ").parsed().root()
+            ),
+            is(equalTo(SyntaxRendering.rendered(this.edited(offset, 1, " "))))
+        );
+    }
+
+    @Test
+    void appliesEditsInTurn() throws Exception {
+        final IncrementalSyntax first = new IncrementalSyntax("Grafo I");
+        final IncrementalSyntax second = first.edited(7, 0, "\nAs x = V");
+        assertThat(
+            "Each version should parse its own source",
+            SyntaxRendering.rendered(second.edited(6, 1, "X").parsed().root()),
+            is(
+                equalTo(
+                    SyntaxRendering.rendered(new Rome77Syntax("Grafo X\nAs x = V").parsed().root())
+                )
+            )
+        );
+    }
+
+    @Test
+    void reportsErrorAtAbsolutePosition() {
+        final int offset = CODE.indexOf("-III");
+        assertThat(
+            "Error in a later statement should keep its place in the source",
+            this.position(new IncrementalSyntax(CODE).edited(offset, 4, "(")),
+            is(equalTo(this.position(new Rome77Syntax(this.text(offset, 4, "(")))))
+        );
+    }
+
+    @Test
+    void rejectsEditOutsideSource() {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> new IncrementalSyntax("Grafo I").edited(5, 3, ""),
+            "Edit past the end of the source should be rejected"
+        );
+    }
+
+    private SyntaxNode edited(final int offset, final int removed, final String inserted)
+        throws Exception {
+        return new Rome77Syntax(this.text(offset, removed, inserted)).parsed().root();
+    }
+
+    private String text(final int offset, final int removed, final String inserted) {
+        return CODE.substring(0, offset) + inserted + CODE.substring(offset + removed);
+    }
+
+    private String position(final Syntax syntax) {
+        final SyntaxException error = assertThrows(SyntaxException.class, syntax::parsed);
+        return String.format("%d:%d", error.line(), error.column());
+    }
+}
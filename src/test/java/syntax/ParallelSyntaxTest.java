@@ -0,0 +1,82 @@
+package syntax;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.ParallelSyntax;
+import rome77.antlr.Rome77Syntax;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for statement-parallel parsing.
+ *
+ * Runs are made as small as one statement, so even short programs are
+ * parsed in several pieces.
+ */
+final class ParallelSyntaxTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "// Grafo in a comment does not start a statement",
+        "As n = Anagnosi",
+        "Grafo fib n",
+        "Munus add a b = a + b",
+        "Grafo add n * II -III"
+    );
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void parsesLikeSyntax() throws Exception {
+        assertThat(
+            "Parallel tree should be the sequential tree",
+            SyntaxRendering.rendered(new ParallelSyntax(CODE, POOL, 1).parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(CODE).parsed().root())))
+        );
+    }
+
+    @Test
+    void keepsAbsolutePositions() throws Exception {
+        final SyntaxNode last = new ParallelSyntax(CODE, POOL, 1).parsed().root().child(4);
+        assertThat(
+            "Statement of a later run should keep its place in the source",
+            String.format("%d:%d %s", last.line(), last.column(), last.text()),
+            is(equalTo("6:0 Grafo add n * II -III"))
+        );
+    }
+
+    @Test
+    void parsesShortSourceInOnePiece() throws Exception {
+        assertThat(
+            "Source below the grain should parse as usual",
+            SyntaxRendering.rendered(new ParallelSyntax("Grafo X").parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax("Grafo X").parsed().root())))
+        );
+    }
+
+    @Test
+    void reportsErrorLikeSyntax() {
+        final String code = "Grafo I\nAs x = (II\nGrafo x\nGrafo III";
+        assertThat(
+            "Parallel parse should report the sequential error",
+            this.failure(new ParallelSyntax(code, POOL, 1)),
+            is(equalTo(this.failure(new Rome77Syntax(code))))
+        );
+    }
+
+    private String failure(final Syntax syntax) {
+        final SyntaxException error = assertThrows(SyntaxException.class, syntax::parsed);
+        return String.format("%d:%d %s", error.line(), error.column(), error.getMessage());
+    }
+}
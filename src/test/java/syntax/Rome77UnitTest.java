@@ -0,0 +1,98 @@
+package syntax;
+
+import lexical.LexicalException;
+import lexical.Listing;
+import lexical.Token;
+import org.junit.jupiter.api.Test;
+import rome77.antlr.Rome77Lexer;
+import rome77.antlr.Rome77Syntax;
+import rome77.antlr.Rome77Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the compilation unit that lexes once.
+ */
+final class Rome77UnitTest {
+
+    private static final String CODE = String.join(
+        "\n",
+        "Munus fib n = Sinon n I ((fib n - I) + (fib n - II))",
+        "As n = Anagnosi",
+        "Grafo fib n"
+    );
+
+    @Test
+    void tokenizesLikeLexer() throws Exception {
+        assertThat(
+            "Unit should list the tokens the lexer lists",
+            this.listed(new Rome77Unit(CODE).tokenized()),
+            is(equalTo(this.listed(new Rome77Lexer(CODE).tokenized())))
+        );
+    }
+
+    @Test
+    void parsesLikeSyntax() throws Exception {
+        final Rome77Unit unit = new Rome77Unit(CODE);
+        unit.tokenized();
+        assertThat(
+            "Unit should build the tree the parser builds",
+            SyntaxRendering.rendered(unit.parsed().root()),
+            is(equalTo(SyntaxRendering.rendered(new Rome77Syntax(CODE).parsed().root())))
+        );
+    }
+
+    @Test
+    void parsesWithoutTokenizingFirst() throws Exception {
+        assertThat(
+            "Unit should lex on demand when only the tree is asked for",
+            SyntaxRendering.rendered(new Rome77Unit("Grafo f a + b").parsed().collapsed().root()),
+            is(
+                equalTo(
+                    SyntaxRendering.rendered(
+                        new Rome77Syntax("Grafo f a + b").parsed().collapsed().root()
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void keepsResults() throws Exception {
+        final Rome77Unit unit = new Rome77Unit(CODE);
+        assertThat(
+            "Unit should compute the tree only once",
+            unit.parsed(),
+            is(sameInstance(unit.parsed()))
+        );
+    }
+
+    @Test
+    void rejectsLexicalError() {
+        assertThrows(
+            LexicalException.class,
+            () -> new Rome77Unit("Grafo 4").tokenized(),
+            "Unit should report lexical errors in the listing"
+        );
+    }
+
+    private List<String> listed(final Listing listing) {
+        final List<String> result = new ArrayList<>();
+        for (final Token token : listing.tokens()) {
+            result.add(
+                String.format(
+                    "%s '%s' %d:%d",
+                    token.category(), token.text(), token.line(), token.column()
+                )
+            );
+        }
+        return result;
+    }
+}
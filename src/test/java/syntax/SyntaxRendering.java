@@ -0,0 +1,33 @@
+package syntax;
+
+/**
+ * Renders syntax trees for comparison in tests.
+ *
+ * Every node becomes its name, text and position followed by its
+ * children in brackets, so two trees render alike exactly when they
+ * match node for node.
+ */
+final class SyntaxRendering {
+
+    private SyntaxRendering() {
+    }
+
+    /**
+     * Renders a node and everything below it.
+     *
+     * @param node Root of the subtree
+     * @return One line describing the subtree
+     */
+    static String rendered(final SyntaxNode node) {
+        final StringBuilder out = new StringBuilder();
+        out.append(
+            String.format("%s '%s' %d:%d [", node.name(), node.text(), node.line(), node.column())
+        );
+        String separator = "";
+        for (final SyntaxNode child : node.children()) {
+            out.append(separator).append(SyntaxRendering.rendered(child));
+            separator = " ";
+        }
+        return out.append(']').toString();
+    }
+}
@@ -1,12 +1,16 @@
 package syntax;
 
+import lexical.LexicalException;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.junit.jupiter.api.Test;
 import parsing.ParsingException;
+import rome77.antlr.AntlrTree;
 import rome77.antlr.Rome77Syntax;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -183,6 +187,178 @@ final class SyntaxTest {
         );
     }
 
+    @Test
+    void parsesSimpleProgramInSllStage() throws ParsingException {
+        assertThat(
+            "Unambiguous program should be parsed by the SLL stage",
+            new Rome77Syntax("As x = V\nGrafo x + I").parsed().prediction(),
+            is(equalTo(PredictionMode.SLL))
+        );
+    }
+
+    @Test
+    void fallsBackToLlStageWhenSllFails() throws ParsingException {
+        assertThat(
+            "Context-dependent program should need the LL stage",
+            new Rome77Syntax("Grafo Sinon f a b c").parsed().prediction(),
+            is(equalTo(PredictionMode.LL))
+        );
+    }
+
+    @Test
+    void reportsSyntaxErrorAfterBothStagesFail() {
+        assertThrows(
+            SyntaxException.class,
+            () -> new Rome77Syntax("Grafo Sinon I II").parsed()
+        );
+    }
+
+    @Test
+    void childReturnsChildrenByPosition() throws ParsingException {
+        final SyntaxNode decl = new Rome77Syntax("As x = V\nGrafo x")
+            .parsed().root().child(0).child(0);
+        assertThat(
+            "Third child of declaration should be the equals sign",
+            decl.child(2).text(),
+            is(equalTo("="))
+        );
+    }
+
+    @Test
+    void childCountMatchesIteratedChildren() throws ParsingException {
+        final SyntaxNode root = new Rome77Syntax("As x = V\nGrafo x\nGrafo x + I")
+            .parsed().root();
+        assertThat(
+            "Indexed and iterated child counts should agree",
+            root.childCount(),
+            is(equalTo(this.childCount(root)))
+        );
+    }
+
+    @Test
+    void childThrowsExceptionPastLastChild() throws ParsingException {
+        final SyntaxNode root = new Rome77Syntax("Grafo V").parsed().root();
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> root.child(2)
+        );
+    }
+
+    @Test
+    void sharesOneNameAmongNodesOfSameRule() throws ParsingException {
+        final SyntaxNode root = new Rome77Syntax("Grafo I\nGrafo II").parsed().root();
+        assertThat(
+            "Statements should report the same interned name",
+            root.child(1).name(),
+            is(sameInstance(root.child(0).name()))
+        );
+    }
+
+    @Test
+    void keepsSourceSpacingInRuleText() throws ParsingException {
+        assertThat(
+            "Statement text should be the source slice as written",
+            new Rome77Syntax("Grafo  x +\n I // one\n").parsed().root().child(0).text(),
+            is(equalTo("Grafo  x +\n I"))
+        );
+    }
+
+    @Test
+    void spanSlicesSourceWithoutLeavingNode() throws ParsingException {
+        final CharSequence span = new Rome77Syntax("As x = (V * II)")
+            .parsed().root().child(0).child(0).child(3).span();
+        assertThat(
+            "Subsequence of the expression span should read the source",
+            span.subSequence(1, span.length() - 1).toString(),
+            is(equalTo("V * II"))
+        );
+    }
+
+    @Test
+    void collapsedTreeHangsLiteralUnderStatement() throws ParsingException {
+        assertThat(
+            "Literal should be the second child of the output statement",
+            new Rome77Syntax("Grafo XIV").parsed().collapsed()
+                .root().child(0).child(0).child(1).name(),
+            is(equalTo("romanLiteral"))
+        );
+    }
+
+    @Test
+    void collapsedTreeDropsParentheses() throws ParsingException {
+        assertThat(
+            "Parenthesized sum should collapse into the addition",
+            new Rome77Syntax("Grafo (I + II) * III").parsed().collapsed()
+                .root().child(0).child(0).child(1).child(0).text(),
+            is(equalTo("I + II"))
+        );
+    }
+
+    @Test
+    void collapsedTreeHasFewerNodes() throws ParsingException {
+        final AntlrTree tree = new Rome77Syntax("As x = V\nGrafo x + I * II").parsed();
+        assertThat(
+            "Collapsing should remove nine pass-through nodes",
+            tree.size() - tree.collapsed().size(),
+            is(equalTo(9))
+        );
+    }
+
+    @Test
+    void failFastReportsFirstSyntaxErrorAsRegularMode() {
+        final String code = "As x = V\nGrafo (x + I\nAs y = II\nGrafo y )";
+        assertThat(
+            "Fail-fast mode should report the error the regular mode reports first",
+            this.failure(new Rome77Syntax(code, true)),
+            is(equalTo(this.failure(new Rome77Syntax(code))))
+        );
+    }
+
+    @Test
+    void failFastStopsAtLexicalError() {
+        final LexicalException error = assertThrows(
+            LexicalException.class,
+            () -> new Rome77Syntax("As x = V\nGrafo x # I", true).parsed()
+        );
+        assertThat(
+            "Fail-fast mode should report where the lexer failed",
+            String.format("%d:%d", error.line(), error.column()),
+            is(equalTo("2:8"))
+        );
+    }
+
+    @Test
+    void failFastParsesValidProgramAsRegularMode() throws ParsingException {
+        final String code = "Munus f n = Sinon n I (f n - I)\nGrafo f X";
+        assertThat(
+            "Fail-fast mode should not change the tree of a valid program",
+            new Rome77Syntax(code, true).parsed().size(),
+            is(equalTo(new Rome77Syntax(code).parsed().size()))
+        );
+    }
+
+    @Test
+    void parsesLongLeftRecursiveChain() throws ParsingException {
+        final String code = "Grafo I" + " + I".repeat(49_999);
+        SyntaxNode node = new Rome77Syntax(code).parsed()
+            .root().child(0).child(0).child(1).child(0);
+        int depth = 0;
+        while (node.name().equals("addSub")) {
+            depth = depth + 1;
+            node = node.child(0);
+        }
+        assertThat(
+            "Every addition of a long sum should nest in the one before it",
+            depth,
+            is(equalTo(49_999))
+        );
+    }
+
+    private String failure(final Rome77Syntax syntax) {
+        final SyntaxException error = assertThrows(SyntaxException.class, syntax::parsed);
+        return String.format("%d:%d %s", error.line(), error.column(), error.getMessage());
+    }
+
     private int childCount(final SyntaxNode node) {
         int count = 0;
         for (final SyntaxNode ignored : node.children()) {